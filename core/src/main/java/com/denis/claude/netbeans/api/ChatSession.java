@@ -0,0 +1,66 @@
+package com.denis.claude.netbeans.api;
+
+import java.io.File;
+import java.util.UUID;
+
+/**
+ * Session de conversation avec Claude Code (un onglet de chat).
+ * Chaque session a son propre identifiant de session CLI, son historique
+ * et son répertoire projet. Le répertoire est figé au premier envoi, car
+ * Claude Code range ses sessions par répertoire de travail.
+ */
+public class ChatSession {
+
+    private final String id;
+    private volatile File projectDirectory;
+    private volatile boolean started;
+    private final ConversationHistory history = new ConversationHistory();
+
+    public ChatSession() {
+        this(UUID.randomUUID().toString(), null, false);
+    }
+
+    public ChatSession(String id, File projectDirectory, boolean started) {
+        this.id = id;
+        this.projectDirectory = projectDirectory;
+        this.started = started;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public File getProjectDirectory() {
+        return projectDirectory;
+    }
+
+    public void setProjectDirectory(File projectDirectory) {
+        this.projectDirectory = projectDirectory;
+    }
+
+    /**
+     * Vrai si la session existe déjà côté Claude Code (elle doit alors être reprise).
+     */
+    public boolean isStarted() {
+        return started;
+    }
+
+    void markStarted() {
+        started = true;
+    }
+
+    void addMessage(String role, String content) {
+        history.add(role, content);
+    }
+
+    /**
+     * Historique récent de la session (borné, lisible depuis n'importe quel thread).
+     */
+    public ConversationHistory.Snapshot getHistory() {
+        return history.snapshot();
+    }
+
+    public void clearHistory() {
+        history.clear();
+    }
+}
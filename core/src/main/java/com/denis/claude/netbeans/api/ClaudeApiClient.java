@@ -0,0 +1,582 @@
+package com.denis.claude.netbeans.api;
+
+import com.denis.claude.netbeans.context.ContextAssembler;
+import com.denis.claude.netbeans.settings.ClaudeSettings;
+import com.denis.claude.netbeans.util.ContentHash;
+import com.denis.claude.netbeans.util.HostEnvironment;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Client pour Claude Code CLI.
+ * Utilise le processus claude en sous-processus pour exploiter l'abonnement Max.
+ */
+public class ClaudeApiClient {
+
+    private static final int TIMEOUT_SECONDS = 120;
+    private static final int COMPLETION_BUDGET_TOKENS = 1500;
+
+    private static ClaudeApiClient instance;
+    private final RequestScheduler scheduler;
+    // Faux après un refus de --include-partial-messages par un CLI trop ancien
+    private volatile boolean partialMessages = true;
+    private ChatSession defaultSession;
+
+    private ClaudeApiClient() {
+        scheduler = RequestScheduler.getInstance();
+        defaultSession = new ChatSession();
+    }
+
+    public static synchronized ClaudeApiClient getInstance() {
+        if (instance == null) {
+            instance = new ClaudeApiClient();
+        }
+        return instance;
+    }
+
+    public void reinitialize() {
+        scheduler.setMaxConcurrent(ClaudeSettings.getInstance().getMaxConcurrentRequests());
+    }
+
+    public boolean isReady() {
+        return ClaudeSettings.getInstance().isConfigured();
+    }
+
+    private void checkReady() {
+        if (!isReady()) {
+            CliUnavailableException e = new CliUnavailableException(
+                    "Claude Code non configuré. Vérifiez le chemin dans les paramètres.");
+            EnvironmentProbe.getInstance().reportFailure(e);
+            throw e;
+        }
+    }
+
+    public CompletableFuture<String> sendMessage(String userMessage) {
+        return sendMessage(userMessage, null);
+    }
+
+    public CompletableFuture<String> sendMessage(String userMessage, String systemPrompt) {
+        return sendMessage(defaultSession, userMessage);
+    }
+
+    /**
+     * Envoie un message dans une session de chat. La session Claude Code est créée
+     * au premier message puis reprise, ce qui conserve le contexte de la conversation.
+     * Les sessions distinctes s'exécutent en parallèle via l'ordonnanceur partagé.
+     */
+    public CompletableFuture<String> sendMessage(ChatSession session, String userMessage) {
+        return sendMessage(session, userMessage, null);
+    }
+
+    /**
+     * Variante avec réception progressive: {@code onOutput} reçoit la sortie du CLI
+     * au fil de l'eau, depuis le thread de lecture du processus.
+     */
+    public CompletableFuture<String> sendMessage(ChatSession session, String userMessage, Consumer<String> onOutput) {
+        // Le répertoire de la session est fixé au premier message
+        if (session.getProjectDirectory() == null) {
+            session.setProjectDirectory(getProjectDirectorySafe());
+        }
+        final File projectDir = session.getProjectDirectory();
+        long estimated = ContextAssembler.estimateTokens(userMessage);
+
+        return scheduler.submit(RequestScheduler.Priority.INTERACTIVE, estimated, () -> {
+            checkReady();
+
+            List<String> sessionArgs = new ArrayList<>();
+            sessionArgs.add(session.isStarted() ? "--resume" : "--session-id");
+            sessionArgs.add(session.getId());
+
+            // Un message démesuré est tronqué au budget plutôt qu'envoyé tel quel
+            String prompt = newAssembler(PromptTemplate.CHAT)
+                    .add(ContextAssembler.Piece.request(userMessage))
+                    .assemble();
+
+            try {
+                String response = callClaude(PromptTemplate.CHAT, prompt, projectDir, sessionArgs, onOutput);
+                session.markStarted();
+
+                // Ajouter à l'historique local pour référence
+                session.addMessage("user", userMessage);
+                session.addMessage("assistant", response);
+
+                return response;
+            } catch (Exception e) {
+                throw new RuntimeException("Erreur Claude Code: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Répertoire du projet actif, utilisable depuis n'importe quel thread.
+     */
+    private File getProjectDirectorySafe() {
+        return HostEnvironment.getDefault().getProjectDirectory();
+    }
+
+    public CompletableFuture<String> analyzeCode(String code, String language, String instruction) {
+        return analyzeCode(code, language, instruction, Collections.emptyList());
+    }
+
+    /**
+     * Analyse du code avec du contexte additionnel (code environnant, fichiers liés).
+     * Le prompt est ajusté au budget de tokens configuré avant l'appel au CLI.
+     */
+    public CompletableFuture<String> analyzeCode(String code, String language, String instruction,
+            List<ContextAssembler.Piece> context) {
+        return submitWithoutHistory(PromptTemplate.ANALYZE, RequestScheduler.Priority.NORMAL,
+                getProjectDirectorySafe(), analysisPrompt(PromptTemplate.ANALYZE, code, language, instruction, context));
+    }
+
+    /**
+     * Explication du code sélectionné. La réponse est servie depuis le cache si la même
+     * sélection (même contexte) a déjà été expliquée ou est en cours de préchargement.
+     */
+    public CompletableFuture<String> explainCode(String code, String language, List<ContextAssembler.Piece> context) {
+        return explainCode(code, language, context, null);
+    }
+
+    /**
+     * Variante avec réception progressive. {@code onOutput} n'est appelé que si la requête
+     * part réellement: une réponse déjà en cache est seulement livrée par le futur.
+     */
+    public CompletableFuture<String> explainCode(String code, String language, List<ContextAssembler.Piece> context,
+            Consumer<String> onOutput) {
+        String prompt = analysisPrompt(PromptTemplate.EXPLAIN, code, language, null, context);
+        File projectDir = getProjectDirectorySafe();
+        return ResponseCache.getInstance().getOrCompute(cacheKey(PromptTemplate.EXPLAIN, prompt),
+                () -> submitWithoutHistory(PromptTemplate.EXPLAIN, RequestScheduler.Priority.NORMAL, projectDir,
+                        prompt, onOutput));
+    }
+
+    /**
+     * Précharge l'explication en priorité basse. Le prompt est identique à celui de
+     * {@link #explainCode}, qui trouvera donc la réponse en cache.
+     *
+     * La requête peut être abandonnée via {@link ResponseCache#cancelPrefetch}.
+     */
+    public CompletableFuture<String> prefetchExplanation(String code, String language,
+            List<ContextAssembler.Piece> context, File projectDir) {
+        String prompt = analysisPrompt(PromptTemplate.EXPLAIN, code, language, null, context);
+        return ResponseCache.getInstance().prefetch(cacheKey(PromptTemplate.EXPLAIN, prompt),
+                () -> submitWithoutHistory(PromptTemplate.EXPLAIN, RequestScheduler.Priority.BACKGROUND, projectDir,
+                        prompt));
+    }
+
+    /**
+     * Prompt d'analyse, du plus stable au plus variable: consignes, fichiers liés,
+     * code environnant, puis le code analysé.
+     */
+    private String analysisPrompt(PromptTemplate template, String code, String language, String instruction,
+            List<ContextAssembler.Piece> context) {
+        ContextAssembler assembler = newAssembler(template);
+        if (instruction != null) {
+            assembler.add(ContextAssembler.Piece.instruction(instruction));
+        }
+        addStableFirst(assembler, context);
+        return assembler
+                .add(ContextAssembler.Piece.selection(code, language))
+                .assemble();
+    }
+
+    /**
+     * Ajoute le contexte en commençant par les fichiers liés, qui changent moins souvent
+     * d'une requête à l'autre que le code autour du curseur.
+     */
+    private static void addStableFirst(ContextAssembler assembler, List<ContextAssembler.Piece> context) {
+        for (ContextAssembler.Piece piece : context) {
+            if (piece.getKind() == ContextAssembler.Kind.FILE) {
+                assembler.add(piece);
+            }
+        }
+        for (ContextAssembler.Piece piece : context) {
+            if (piece.getKind() != ContextAssembler.Kind.FILE) {
+                assembler.add(piece);
+            }
+        }
+    }
+
+    private static String cacheKey(PromptTemplate template, String prompt) {
+        return ContentHash.of(template.getSystemPrompt() + "\n" + prompt);
+    }
+
+    public CompletableFuture<String> generateCode(String description, String language) {
+        return generateCode(description, language, Collections.emptyList());
+    }
+
+    /**
+     * Génération de code avec du contexte additionnel (code autour du curseur).
+     */
+    public CompletableFuture<String> generateCode(String description, String language,
+            List<ContextAssembler.Piece> context) {
+        return generateCode(description, language, context, null);
+    }
+
+    /**
+     * Variante avec réception progressive du code généré (voir {@link #sendMessage(ChatSession, String, Consumer)}).
+     */
+    public CompletableFuture<String> generateCode(String description, String language,
+            List<ContextAssembler.Piece> context, Consumer<String> onOutput) {
+        ContextAssembler assembler = newAssembler(PromptTemplate.GENERATE);
+        addStableFirst(assembler, context);
+        String prompt = assembler
+                .add(ContextAssembler.Piece.request("Code " + language + " à générer: " + description))
+                .assemble();
+        return submitWithoutHistory(PromptTemplate.GENERATE, RequestScheduler.Priority.NORMAL,
+                getProjectDirectorySafe(), prompt, onOutput);
+    }
+
+    /**
+     * Demande une modification du fichier sous forme de diff unifié: la taille de la réponse
+     * est proportionnelle à la modification, pas au fichier.
+     */
+    public CompletableFuture<String> requestEdit(String fileName, String language, String content,
+            String instruction, String selectionHint) {
+        // Le document est la base du diff: hors budget, seul le reste du prompt y est ajusté
+        ContextAssembler.Piece document = ContextAssembler.Piece.document(fileName, language, content);
+        ContextAssembler assembler = PromptTemplate.EDIT.assembler(
+                ClaudeSettings.getInstance().getMaxTokens() + document.getEstimatedTokens());
+        String prompt = assembler
+                .add(document)
+                .add(ContextAssembler.Piece.instruction("Modification demandée: " + instruction
+                        + (selectionHint != null ? "\n" + selectionHint : "")))
+                .assemble();
+        if (assembler.getDroppedCount() > 0) {
+            // Un diff calculé sans le fichier serait inapplicable
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                    "Instruction trop longue: le contenu de " + fileName + " ne tient plus dans la demande. "
+                    + "Raccourcissez l'instruction ou augmentez \"Tokens maximum\"."));
+        }
+        return submitWithoutHistory(PromptTemplate.EDIT, RequestScheduler.Priority.NORMAL,
+                getProjectDirectorySafe(), prompt);
+    }
+
+    /**
+     * Suite du code à la position du curseur, pour la complétion. Le contexte est réduit
+     * (budget de tokens plus petit) pour limiter la latence.
+     */
+    public CompletableFuture<String> completeCode(String before, String after, String language) {
+        int budget = Math.min(ClaudeSettings.getInstance().getMaxTokens(), COMPLETION_BUDGET_TOKENS);
+        String prompt = PromptTemplate.COMPLETE.assembler(budget)
+                .add(ContextAssembler.Piece.codeBefore(before, language))
+                .add(ContextAssembler.Piece.codeAfter(after, language))
+                .assemble();
+        return submitWithoutHistory(PromptTemplate.COMPLETE, RequestScheduler.Priority.NORMAL,
+                getProjectDirectorySafe(), prompt);
+    }
+
+    private ContextAssembler newAssembler(PromptTemplate template) {
+        return template.assembler(ClaudeSettings.getInstance().getMaxTokens());
+    }
+
+    public CompletableFuture<String> sendMessageWithoutHistory(String userMessage, String systemPrompt) {
+        return submitWithoutHistory(PromptTemplate.OTHER, systemPrompt, RequestScheduler.Priority.NORMAL,
+                getProjectDirectorySafe(), userMessage, null);
+    }
+
+    /**
+     * Analyse de fond (traitements par lots): passe après les requêtes interactives
+     * et s'exécute dans le répertoire donné plutôt que celui du projet actif.
+     */
+    public CompletableFuture<String> analyzeInBackground(String code, String language, String instruction,
+            File workingDir) {
+        // Le moteur de lots reprend lui-même ses travaux après un redémarrage: attente en mémoire seulement
+        return submitDeferrable(PromptTemplate.BATCH, workingDir,
+                analysisPrompt(PromptTemplate.BATCH, code, language, instruction, Collections.emptyList()), null, null);
+    }
+
+    /**
+     * Explication mise de côté parce que le CLI est indisponible: elle part dès son retour,
+     * y compris après un redémarrage de l'IDE (la réponse est alors remise au gestionnaire
+     * {@code kind} de {@link OfflineQueue}, avec {@code payload}).
+     */
+    public CompletableFuture<String> explainLater(String code, String language, List<ContextAssembler.Piece> context,
+            String kind, String payload) {
+        String prompt = analysisPrompt(PromptTemplate.EXPLAIN, code, language, null, context);
+        return OfflineQueue.getInstance().defer(PromptTemplate.EXPLAIN, getProjectDirectorySafe(), prompt, kind, payload);
+    }
+
+    /**
+     * Relecture de zones de code récemment modifiées (basse priorité). Les lignes sont numérotées
+     * dans chaque zone; la réponse contient une remarque par ligne au format
+     * {@code R<zone>:L<ligne>: remarque}, ou {@code AUCUN}. Si le CLI est indisponible, la requête
+     * attend son retour; après un redémarrage, la réponse va au gestionnaire {@code kind}.
+     */
+    public CompletableFuture<String> reviewRegions(String fileName, String language, List<String> regions,
+            File workingDir, String kind, String payload) {
+        StringBuilder code = new StringBuilder("Fichier " + fileName + " (" + language + ").\n\n");
+        for (int i = 0; i < regions.size(); i++) {
+            code.append("Zone R").append(i + 1).append(":\n```").append(language.toLowerCase()).append('\n');
+            String[] lines = regions.get(i).split("\n", -1);
+            for (int l = 0; l < lines.length; l++) {
+                code.append(l + 1).append(": ").append(lines[l]).append('\n');
+            }
+            code.append("```\n\n");
+        }
+        String prompt = newAssembler(PromptTemplate.REVIEW)
+                .add(ContextAssembler.Piece.request(code.toString()))
+                .assemble();
+        return submitDeferrable(PromptTemplate.REVIEW, workingDir, prompt, kind, payload);
+    }
+
+    /**
+     * Requête de fond qui attend le retour du CLI au lieu d'échouer s'il est indisponible
+     * (voir {@link OfflineQueue}). Annuler le futur annule la requête, en file ou en cours.
+     */
+    private CompletableFuture<String> submitDeferrable(PromptTemplate template, File workingDir, String prompt,
+            String kind, String payload) {
+        OfflineQueue queue = OfflineQueue.getInstance();
+        if (!EnvironmentProbe.getInstance().isAvailable()) {
+            return queue.defer(template, workingDir, prompt, kind, payload);
+        }
+        CompletableFuture<String> result = new CompletableFuture<>();
+        CompletableFuture<String> attempt = submitWithoutHistory(template, RequestScheduler.Priority.BACKGROUND,
+                workingDir, prompt);
+        attempt.whenComplete((response, error) -> {
+            if (error != null && EnvironmentProbe.isEnvironmental(error)) {
+                CompletableFuture<String> deferred = queue.defer(template, workingDir, prompt, kind, payload);
+                result.whenComplete((r, e) -> {
+                    if (result.isCancelled()) {
+                        deferred.cancel(true);
+                    }
+                });
+                deferred.whenComplete((r, e) -> {
+                    if (e != null) {
+                        result.completeExceptionally(e);
+                    } else {
+                        result.complete(r);
+                    }
+                });
+            } else if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(response);
+            }
+        });
+        result.whenComplete((r, e) -> {
+            if (result.isCancelled()) {
+                attempt.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Rejeu d'une requête de {@link OfflineQueue}, sans nouvelle mise en attente.
+     */
+    CompletableFuture<String> replay(PromptTemplate template, File workingDir, String prompt) {
+        return submitWithoutHistory(template, RequestScheduler.Priority.BACKGROUND, workingDir, prompt);
+    }
+
+    private CompletableFuture<String> submitWithoutHistory(PromptTemplate template, RequestScheduler.Priority priority,
+            File projectDir, String userMessage) {
+        return submitWithoutHistory(template, priority, projectDir, userMessage, null);
+    }
+
+    private CompletableFuture<String> submitWithoutHistory(PromptTemplate template, RequestScheduler.Priority priority,
+            File projectDir, String userMessage, Consumer<String> onOutput) {
+        return submitWithoutHistory(template, template.getSystemPrompt(), priority, projectDir, userMessage, onOutput);
+    }
+
+    private CompletableFuture<String> submitWithoutHistory(PromptTemplate template, String systemPrompt,
+            RequestScheduler.Priority priority, File projectDir, String userMessage, Consumer<String> onOutput) {
+        // Estimation pour le limiteur de débit: prompt système compris
+        long estimated = ContextAssembler.estimateTokens(userMessage) + ContextAssembler.estimateTokens(systemPrompt);
+        return scheduler.submit(priority, estimated, () -> {
+            checkReady();
+
+            // Le prompt système passe par le CLI: il reste en tête du préfixe mis en cache
+            List<String> args = new ArrayList<>();
+            if (systemPrompt != null && !systemPrompt.trim().isEmpty()) {
+                args.add("--append-system-prompt");
+                args.add(systemPrompt);
+            }
+
+            try {
+                return callClaude(template, userMessage, projectDir, args, onOutput);
+            } catch (Exception e) {
+                throw new RuntimeException("Erreur Claude Code: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    private String callClaude(PromptTemplate template, String prompt, File workingDir, List<String> extraArgs,
+            Consumer<String> onOutput) throws Exception {
+        ClaudeSettings settings = ClaudeSettings.getInstance();
+        String claudePath = settings.getClaudePath();
+
+        // Construire la commande
+        List<String> command = new ArrayList<>();
+        command.add(claudePath);
+        command.add("-p");  // Mode prompt unique (non-interactif)
+        command.add("--output-format");
+        command.add("stream-json");  // Un événement JSON par ligne, avec la consommation de tokens
+        command.add("--verbose");  // Requis par stream-json en mode -p
+        boolean partial = partialMessages;
+        if (partial) {
+            command.add("--include-partial-messages");  // Texte token par token
+        }
+        command.addAll(extraArgs);
+        command.add(prompt);
+
+        ProcessBuilder pb = newProcess(command, workingDir);
+
+        long startTime = System.currentTimeMillis();
+        Process process;
+        try {
+            process = pb.start();
+        } catch (IOException e) {
+            // Binaire absent ou en cours de mise à jour
+            throw unavailable("Impossible de lancer Claude Code (" + claudePath + "): " + e.getMessage(), e);
+        }
+
+        // Requête annulée (complétion dépassée, préchargement inutile...): arrêter le CLI
+        CompletableFuture<?> request = RequestScheduler.currentRequest();
+        if (request != null) {
+            request.whenComplete((result, error) -> {
+                if (request.isCancelled()) {
+                    process.destroyForcibly();
+                }
+            });
+        }
+
+        // Lire la sortie dans un thread séparé pour éviter les deadlocks
+        // Les séquences d'échappement coupées entre deux morceaux sont reprises au suivant
+        ResponseProcessor escapes = ResponseProcessor.escapes();
+        StreamJsonReader output = new StreamJsonReader(onOutput == null ? null
+                : chunk -> onOutput.accept(escapes.accept(chunk)));
+        Thread readerThread = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    output.accept(line);
+                }
+            } catch (Exception e) {
+                output.accept("[Erreur de lecture: " + e.getMessage() + "]");
+            }
+        });
+        readerThread.start();
+
+        // Attendre avec timeout
+        boolean finished = process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        if (!finished) {
+            process.destroyForcibly();
+            UsageStore.getInstance().record(template, workingDir, System.currentTimeMillis() - startTime, true, null);
+            throw new RuntimeException("Timeout: Claude Code n'a pas répondu en " + TIMEOUT_SECONDS + " secondes");
+        }
+
+        // Attendre que le thread de lecture se termine
+        readerThread.join(5000);
+
+        int exitCode = process.exitValue();
+        String result = output.getText().trim();
+        if (partial && exitCode != 0 && result.contains("unknown option")
+                && result.contains("include-partial-messages")) {
+            // CLI trop ancien: réponses message par message
+            partialMessages = false;
+            return callClaude(template, prompt, workingDir, extraArgs, onOutput);
+        }
+        UsageStore.getInstance().record(template, workingDir, System.currentTimeMillis() - startTime,
+                exitCode != 0 || output.isError(), output.getUsage());
+        if (output.getUsage() != null) {
+            PromptCacheStats.getInstance().record(template, output.getUsage());
+        }
+
+        if (exitCode != 0 || output.isError()) {
+            // Limite de l'abonnement: les requêtes suivantes attendent la reprise au lieu d'échouer
+            if (RateLimiter.isRateLimitError(result)) {
+                long until = RateLimiter.getInstance().reportRateLimited(result);
+                throw new RuntimeException("Limite d'utilisation atteinte: reprise dans "
+                        + RateLimiter.formatDuration(until - System.currentTimeMillis())
+                        + ", les prochaines requêtes attendront");
+            }
+            if (result.isEmpty()) {
+                throw new RuntimeException("Claude Code a échoué avec le code " + exitCode);
+            }
+            // Si on a une sortie, c'est peut-être un message d'erreur utile
+            if (result.toLowerCase().contains("not logged in") ||
+                result.toLowerCase().contains("authentication") ||
+                result.toLowerCase().contains("login")) {
+                throw unavailable("Non connecté: Exécutez 'claude' dans un terminal pour vous authentifier", null);
+            }
+            throw new RuntimeException("Erreur (code " + exitCode + "): " + result);
+        }
+
+        if (result.isEmpty()) {
+            throw new RuntimeException("Claude Code n'a retourné aucune réponse");
+        }
+
+        EnvironmentProbe.getInstance().reportSuccess();
+        RateLimiter.getInstance().recordSuccess(output.getUsage());
+        // Supprimer les séquences d'échappement du terminal qui pourraient rester
+        return ResponseProcessor.strip(result);
+    }
+
+    /**
+     * Processus CLI prêt à lancer: entrée vide, sorties fusionnées, environnement sans couleurs.
+     */
+    static ProcessBuilder newProcess(List<String> command, File workingDir) {
+        ProcessBuilder pb = new ProcessBuilder(command);
+
+        // IMPORTANT: Rediriger stdin depuis /dev/null pour éviter que claude attende une entrée
+        pb.redirectInput(ProcessBuilder.Redirect.from(new File("/dev/null")));
+
+        // Fusionner stderr dans stdout pour simplifier la lecture
+        pb.redirectErrorStream(true);
+
+        // Définir le répertoire de travail
+        if (workingDir != null && workingDir.exists() && workingDir.isDirectory()) {
+            pb.directory(workingDir);
+        }
+
+        // Définir l'environnement nécessaire pour Claude Code
+        String home = System.getProperty("user.home");
+        pb.environment().put("HOME", home);
+        pb.environment().put("USER", System.getProperty("user.name"));
+        pb.environment().put("XDG_CONFIG_HOME", home + "/.config");
+
+        // Éviter les problèmes de terminal/couleurs
+        pb.environment().put("TERM", "dumb");
+        pb.environment().put("NO_COLOR", "1");
+        pb.environment().put("FORCE_COLOR", "0");
+
+        // Hériter du PATH pour trouver les dépendances (node, etc.)
+        String path = System.getenv("PATH");
+        if (path != null) {
+            pb.environment().put("PATH", path);
+        } else {
+            // PATH minimal si non disponible
+            pb.environment().put("PATH", "/usr/local/bin:/usr/bin:/bin:" + home + "/.local/bin");
+        }
+        return pb;
+    }
+
+    private static CliUnavailableException unavailable(String message, Throwable cause) {
+        CliUnavailableException e = new CliUnavailableException(message, cause);
+        EnvironmentProbe.getInstance().reportFailure(e);
+        return e;
+    }
+
+    /**
+     * Oublie la session par défaut: le prochain message démarre une nouvelle conversation.
+     */
+    public void clearHistory() {
+        defaultSession = new ChatSession();
+    }
+
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+}
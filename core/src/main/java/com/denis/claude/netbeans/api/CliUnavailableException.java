@@ -0,0 +1,16 @@
+package com.denis.claude.netbeans.api;
+
+/**
+ * Le CLI ne peut pas traiter de requête pour l'instant (binaire absent, en cours de mise à jour,
+ * session déconnectée). Contrairement aux autres erreurs, la requête peut être rejouée plus tard.
+ */
+public class CliUnavailableException extends RuntimeException {
+
+    public CliUnavailableException(String message) {
+        super(message);
+    }
+
+    public CliUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
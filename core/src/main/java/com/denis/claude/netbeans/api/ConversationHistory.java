@@ -0,0 +1,163 @@
+package com.denis.claude.netbeans.api;
+
+import com.denis.claude.netbeans.context.ContextAssembler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Historique en mémoire d'une session de chat, borné en nombre de messages et en tokens.
+ * Au-delà, les plus anciens messages sont compactés en un résumé d'une ligne chacun (le
+ * texte complet reste dans l'archive des conversations sur disque). Les écritures sont
+ * sérialisées; la lecture renvoie un instantané immuable, sans jamais attendre un écrivain.
+ */
+public class ConversationHistory {
+
+    private static final int MAX_MESSAGES = 40;
+    private static final int MAX_TOKENS = 16000;
+    private static final int SUMMARY_MAX_CHARS = 4000;
+    private static final int SUMMARY_LINE_CHARS = 160;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /**
+     * Ajoute un message, en compactant les plus anciens si les limites sont dépassées.
+     */
+    public synchronized void add(String role, String content) {
+        Snapshot current = snapshot;
+        List<Message> messages = new ArrayList<>(current.messages);
+        Message added = new Message(role, content);
+        messages.add(added);
+        int tokens = current.estimatedTokens + added.tokens;
+        StringBuilder summary = new StringBuilder(current.summary);
+        int compacted = current.compactedCount;
+
+        // Le dernier message est toujours gardé en entier
+        while (messages.size() > 1 && (messages.size() > MAX_MESSAGES || tokens > MAX_TOKENS)) {
+            Message oldest = messages.remove(0);
+            tokens -= oldest.tokens;
+            summary.append(summarize(oldest)).append('\n');
+            compacted++;
+        }
+        snapshot = new Snapshot(Collections.unmodifiableList(messages), tokens, trimSummary(summary), compacted);
+    }
+
+    /**
+     * État courant de l'historique; l'instantané ne change plus une fois obtenu.
+     */
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    public synchronized void clear() {
+        snapshot = Snapshot.EMPTY;
+    }
+
+    private static String summarize(Message message) {
+        String text = message.content.strip();
+        int newline = text.indexOf('\n');
+        String first = newline >= 0 ? text.substring(0, newline) : text;
+        if (first.length() > SUMMARY_LINE_CHARS) {
+            first = first.substring(0, SUMMARY_LINE_CHARS) + "...";
+        } else if (newline >= 0) {
+            first += " ...";
+        }
+        return "- " + ("user".equals(message.role) ? "Utilisateur" : "Claude") + ": " + first;
+    }
+
+    /**
+     * Le résumé est lui-même borné: ses lignes les plus anciennes disparaissent.
+     */
+    private static String trimSummary(StringBuilder summary) {
+        while (summary.length() > SUMMARY_MAX_CHARS) {
+            int newline = summary.indexOf("\n");
+            if (newline < 0) {
+                summary.setLength(SUMMARY_MAX_CHARS);
+                break;
+            }
+            summary.delete(0, newline + 1);
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Un message de l'historique.
+     */
+    public static final class Message {
+        private final String role;
+        private final String content;
+        private final int tokens;
+
+        Message(String role, String content) {
+            this.role = role;
+            this.content = content;
+            this.tokens = ContextAssembler.estimateTokens(content);
+        }
+
+        public String getRole() {
+            return role;
+        }
+
+        public String getContent() {
+            return content;
+        }
+    }
+
+    /**
+     * Instantané immuable: messages récents, résumé des messages compactés.
+     */
+    public static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(Collections.emptyList(), 0, "", 0);
+
+        private final List<Message> messages;
+        private final int estimatedTokens;
+        private final String summary;
+        private final int compactedCount;
+
+        private Snapshot(List<Message> messages, int estimatedTokens, String summary, int compactedCount) {
+            this.messages = messages;
+            this.estimatedTokens = estimatedTokens;
+            this.summary = summary;
+            this.compactedCount = compactedCount;
+        }
+
+        public List<Message> getMessages() {
+            return messages;
+        }
+
+        /**
+         * Une ligne par message compacté (les plus anciennes peuvent avoir disparu).
+         */
+        public String getSummary() {
+            return summary;
+        }
+
+        /**
+         * Nombre total de messages sortis de l'historique complet depuis le début de la session.
+         */
+        public int getCompactedCount() {
+            return compactedCount;
+        }
+
+        public int getEstimatedTokens() {
+            return estimatedTokens;
+        }
+
+        /**
+         * Texte de l'historique pour un prompt ({@link ContextAssembler.Piece#history}):
+         * résumé des anciens échanges puis messages récents.
+         */
+        public String render() {
+            StringBuilder sb = new StringBuilder();
+            if (!summary.isEmpty()) {
+                sb.append("Résumé des échanges plus anciens:\n").append(summary).append('\n');
+            }
+            for (Message message : messages) {
+                sb.append("user".equals(message.role) ? "Utilisateur: " : "Claude: ")
+                        .append(message.content).append("\n\n");
+            }
+            return sb.toString().strip();
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package com.denis.claude.netbeans.api;
+
+import com.denis.claude.netbeans.settings.ClaudeSettings;
+import com.denis.claude.netbeans.util.PluginStorage;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Diagnostic de l'installation de Claude Code: détection du CLI et test de connexion chronométré.
+ * Tout s'exécute hors de l'appelant; le futur retourné peut être annulé, ce qui arrête le
+ * processus lancé. Le dernier test est conservé ({@code diagnostics/last.json}) pour comparer
+ * une installation lente à une requête lente.
+ */
+public class EnvironmentDiagnostics {
+
+    private static final Logger LOG = Logger.getLogger(EnvironmentDiagnostics.class.getName());
+    private static final int TEST_TIMEOUT_SECONDS = 60;
+    private static final int WHICH_TIMEOUT_SECONDS = 5;
+    private static final String TEST_PROMPT = "Réponds uniquement par 'OK' si tu me reçois.";
+
+    private static EnvironmentDiagnostics instance;
+
+    private final File file;
+    private final Gson gson = new Gson();
+    private final ExecutorService executor;
+    private volatile Report lastReport;
+
+    private EnvironmentDiagnostics() {
+        file = new File(PluginStorage.getDirectory("diagnostics"), "last.json");
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "Claude diagnostics");
+            t.setDaemon(true);
+            return t;
+        });
+        lastReport = load();
+    }
+
+    public static synchronized EnvironmentDiagnostics getInstance() {
+        if (instance == null) {
+            instance = new EnvironmentDiagnostics();
+        }
+        return instance;
+    }
+
+    /**
+     * Dernier test de connexion, ou null si aucun test n'a encore été fait.
+     */
+    public Report getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Cherche le CLI aux emplacements d'installation connus, puis via {@code which claude}.
+     * Le futur donne le chemin trouvé, ou null.
+     */
+    public CompletableFuture<String> detect() {
+        return submit(started -> {
+            String path = ClaudeSettings.findInstalledPath();
+            if (path != null) {
+                return path;
+            }
+            ProcessBuilder pb = new ProcessBuilder("which", "claude");
+            pb.redirectErrorStream(true);
+            Process process = pb.start();
+            started.accept(process);
+            String line;
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                line = reader.readLine();
+            }
+            if (!process.waitFor(WHICH_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return null;
+            }
+            if (process.exitValue() == 0 && line != null && ClaudeSettings.isValidClaudePath(line.trim())) {
+                return line.trim();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Test de connexion chronométré: une vraie requête minimale, dont chaque étape est datée.
+     * Le rapport est retourné même en cas d'échec ({@link Report#isSuccess()}).
+     */
+    public CompletableFuture<Report> test(String claudePath, File workingDir) {
+        return submit(started -> {
+            Report report;
+            if (!ClaudeSettings.isValidClaudePath(claudePath)) {
+                report = new Report(claudePath);
+                report.error = "Chemin invalide: le fichier n'existe pas ou n'est pas exécutable.";
+            } else {
+                report = run(claudePath, workingDir, true, started);
+                if (!report.success && report.error != null && report.error.contains("unknown option")) {
+                    // CLI trop ancien pour les événements partiels: premier octet = premier message
+                    report = run(claudePath, workingDir, false, started);
+                }
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return report; // Annulé: rien à retenir
+            }
+            if (report.success) {
+                EnvironmentProbe.getInstance().reportSuccess();
+            }
+            lastReport = report;
+            save(report);
+            return report;
+        });
+    }
+
+    private Report run(String claudePath, File workingDir, boolean partialMessages, Consumer<Process> started)
+            throws InterruptedException {
+        List<String> command = new ArrayList<>(Arrays.asList(claudePath, "-p", "--output-format", "stream-json",
+                "--verbose"));
+        if (partialMessages) {
+            command.add("--include-partial-messages");
+        }
+        command.add(TEST_PROMPT);
+
+        Report report = new Report(claudePath);
+        long start = System.nanoTime();
+        Process process;
+        try {
+            process = ClaudeApiClient.newProcess(command, workingDir).start();
+        } catch (IOException e) {
+            report.error = "Impossible de lancer Claude Code: " + e.getMessage();
+            EnvironmentProbe.getInstance().reportFailure(new CliUnavailableException(report.error, e));
+            return report;
+        }
+        started.accept(process);
+        report.spawnMillis = elapsed(start);
+
+        StreamJsonReader output = new StreamJsonReader(null);
+        Thread readerThread = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    report.mark(line, start);
+                    output.accept(line);
+                }
+            } catch (IOException e) {
+                output.accept("[Erreur de lecture: " + e.getMessage() + "]");
+            }
+        }, "Claude diagnostics output");
+        readerThread.setDaemon(true);
+        readerThread.start();
+
+        if (!process.waitFor(TEST_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            report.error = "Pas de réponse en " + TEST_TIMEOUT_SECONDS + " secondes";
+            return report;
+        }
+        readerThread.join(5000);
+        report.totalMillis = elapsed(start);
+
+        String text = output.getText().trim();
+        if (process.exitValue() != 0 || output.isError() || text.isEmpty()) {
+            String lower = text.toLowerCase();
+            if (lower.contains("not logged in") || lower.contains("authentication") || lower.contains("login")) {
+                report.error = "Non connecté: " + text;
+                EnvironmentProbe.getInstance().reportFailure(new CliUnavailableException(report.error));
+            } else {
+                report.error = text.isEmpty() ? "Claude Code a échoué avec le code " + process.exitValue()
+                        : "Erreur (code " + process.exitValue() + "): " + text;
+            }
+            return report;
+        }
+        report.success = true;
+        report.response = text;
+        return report;
+    }
+
+    private static long elapsed(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Exécute une opération qui lance éventuellement un processus; annuler le futur
+     * interrompt l'opération et arrête ce processus.
+     */
+    private <T> CompletableFuture<T> submit(Operation<T> operation) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        AtomicReference<Process> process = new AtomicReference<>();
+        Future<?> task = executor.submit(() -> {
+            try {
+                future.complete(operation.run(p -> {
+                    process.set(p);
+                    if (future.isCancelled()) {
+                        p.destroyForcibly();
+                    }
+                }));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        future.whenComplete((r, e) -> {
+            if (future.isCancelled()) {
+                task.cancel(true);
+                Process p = process.get();
+                if (p != null) {
+                    p.destroyForcibly();
+                }
+            }
+        });
+        return future;
+    }
+
+    private interface Operation<T> {
+        T run(Consumer<Process> started) throws Exception;
+    }
+
+    private Report load() {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, Report.class);
+        } catch (IOException | JsonParseException e) {
+            LOG.log(Level.WARNING, "Lecture impossible: " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Réécrit le dernier rapport (fichier temporaire puis déplacement atomique).
+     */
+    private synchronized void save(Report report) {
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try {
+            try (Writer out = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+                gson.toJson(report, out);
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Enregistrement impossible: " + file, e);
+        }
+    }
+
+    /**
+     * Résultat d'un test de connexion. Les instants sont en millisecondes depuis le lancement
+     * du processus, -1 pour une étape qui n'a pas été atteinte:
+     * <ul>
+     * <li>lancement: le système a créé le processus;</li>
+     * <li>CLI prêt: premier événement du CLI (configuration chargée);</li>
+     * <li>authentification: le serveur a accepté la requête (début de réponse);</li>
+     * <li>premier octet: premier texte de la réponse;</li>
+     * <li>total: fin du processus.</li>
+     * </ul>
+     */
+    public static final class Report {
+        private final long timestamp;
+        private final String claudePath;
+        private boolean success;
+        private String error;
+        private String response;
+        private long spawnMillis = -1;
+        private volatile long readyMillis = -1;
+        private volatile long authMillis = -1;
+        private volatile long firstByteMillis = -1;
+        private long totalMillis = -1;
+
+        Report(String claudePath) {
+            this.timestamp = System.currentTimeMillis();
+            this.claudePath = claudePath;
+        }
+
+        /**
+         * Date les étapes à partir des événements {@code stream-json} reçus.
+         */
+        private void mark(String line, long startNanos) {
+            String trimmed = line.trim();
+            if (!trimmed.startsWith("{")) {
+                return;
+            }
+            JsonObject event;
+            try {
+                JsonElement element = JsonParser.parseString(trimmed);
+                if (!element.isJsonObject()) {
+                    return;
+                }
+                event = element.getAsJsonObject();
+            } catch (JsonParseException e) {
+                return;
+            }
+            long now = elapsed(startNanos);
+            if (readyMillis < 0) {
+                readyMillis = now;
+            }
+            String type = event.has("type") ? event.get("type").getAsString() : "";
+            if ("stream_event".equals(type)) {
+                if (authMillis < 0) {
+                    authMillis = now;
+                }
+                JsonElement inner = event.get("event");
+                if (firstByteMillis < 0 && inner != null && inner.isJsonObject()
+                        && inner.getAsJsonObject().has("delta")) {
+                    firstByteMillis = now;
+                }
+            } else if ("assistant".equals(type)) {
+                if (authMillis < 0) {
+                    authMillis = now;
+                }
+                if (firstByteMillis < 0) {
+                    firstByteMillis = now;
+                }
+            }
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public String getClaudePath() {
+            return claudePath;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        /**
+         * Cause de l'échec, ou null si le test a réussi.
+         */
+        public String getError() {
+            return error;
+        }
+
+        public String getResponse() {
+            return response;
+        }
+
+        public long getSpawnMillis() {
+            return spawnMillis;
+        }
+
+        public long getReadyMillis() {
+            return readyMillis;
+        }
+
+        public long getAuthMillis() {
+            return authMillis;
+        }
+
+        public long getFirstByteMillis() {
+            return firstByteMillis;
+        }
+
+        public long getTotalMillis() {
+            return totalMillis;
+        }
+
+        /**
+         * Durée de chaque étape, une par ligne (l'écart avec l'étape précédente, puis le cumul).
+         */
+        public String describeTimings() {
+            StringBuilder sb = new StringBuilder();
+            long previous = 0;
+            long[] marks = {spawnMillis, readyMillis, authMillis, firstByteMillis, totalMillis};
+            String[] labels = {"Lancement du processus", "Démarrage du CLI", "Authentification",
+                    "Premier octet", "Fin de la réponse"};
+            for (int i = 0; i < marks.length; i++) {
+                sb.append(labels[i]).append(": ");
+                if (marks[i] < 0) {
+                    sb.append("non atteint\n");
+                    continue;
+                }
+                sb.append(format(marks[i] - previous)).append(" (cumul ").append(format(marks[i])).append(")\n");
+                previous = marks[i];
+            }
+            return sb.toString().trim();
+        }
+
+        /**
+         * Une ligne: date, résultat et étapes principales.
+         */
+        public String summary() {
+            StringBuilder sb = new StringBuilder(new SimpleDateFormat("dd/MM HH:mm").format(new Date(timestamp)))
+                    .append(success ? " - réussi" : " - échec");
+            if (totalMillis >= 0) {
+                sb.append(", total ").append(format(totalMillis));
+            }
+            if (readyMillis >= 0) {
+                sb.append(", CLI prêt en ").append(format(readyMillis));
+            }
+            if (firstByteMillis >= 0) {
+                sb.append(", premier octet à ").append(format(firstByteMillis));
+            }
+            return sb.toString();
+        }
+
+        private static String format(long millis) {
+            return millis < 1000 ? millis + " ms" : String.format("%.1f s", millis / 1000.0);
+        }
+    }
+}
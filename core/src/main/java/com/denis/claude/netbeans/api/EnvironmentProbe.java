@@ -0,0 +1,144 @@
+package com.denis.claude.netbeans.api;
+
+import com.denis.claude.netbeans.settings.ClaudeSettings;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.io.File;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Disponibilité du CLI Claude Code. Optimiste au départ: c'est l'échec d'une requête
+ * ({@link CliUnavailableException}) qui la fait passer à indisponible. Le CLI est alors
+ * revérifié périodiquement ({@code claude --version}), et la réussite d'une requête ou
+ * d'une vérification le rend à nouveau disponible.
+ */
+public class EnvironmentProbe {
+
+    /**
+     * Propriété notifiée à chaque changement de disponibilité.
+     */
+    public static final String PROP_AVAILABLE = "available";
+
+    private static final Logger LOG = Logger.getLogger(EnvironmentProbe.class.getName());
+    private static final int RECHECK_SECONDS = 30;
+    private static final int VERSION_TIMEOUT_SECONDS = 10;
+
+    private static EnvironmentProbe instance;
+
+    private final PropertyChangeSupport pcs = new PropertyChangeSupport(this);
+    private final ScheduledExecutorService checker;
+    private volatile boolean available = true;
+    private volatile String reason;
+    private ScheduledFuture<?> recheck;
+
+    private EnvironmentProbe() {
+        checker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Claude environment probe");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static synchronized EnvironmentProbe getInstance() {
+        if (instance == null) {
+            instance = new EnvironmentProbe();
+        }
+        return instance;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Cause de l'indisponibilité, ou null si le CLI est disponible.
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    public void addPropertyChangeListener(PropertyChangeListener listener) {
+        pcs.addPropertyChangeListener(listener);
+    }
+
+    public void removePropertyChangeListener(PropertyChangeListener listener) {
+        pcs.removePropertyChangeListener(listener);
+    }
+
+    /**
+     * Vrai si l'erreur tient à l'environnement (la requête pourra être rejouée).
+     */
+    public static boolean isEnvironmental(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CliUnavailableException) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    void reportFailure(Throwable error) {
+        if (isEnvironmental(error)) {
+            setAvailable(false, error.getMessage());
+        }
+    }
+
+    void reportSuccess() {
+        if (!available) {
+            setAvailable(true, null);
+        }
+    }
+
+    private synchronized void setAvailable(boolean value, String why) {
+        reason = why;
+        if (available == value) {
+            return;
+        }
+        available = value;
+        if (value) {
+            if (recheck != null) {
+                recheck.cancel(false);
+                recheck = null;
+            }
+            LOG.log(Level.INFO, "Claude Code de nouveau disponible");
+        } else {
+            recheck = checker.scheduleWithFixedDelay(this::check, RECHECK_SECONDS, RECHECK_SECONDS, TimeUnit.SECONDS);
+            LOG.log(Level.INFO, "Claude Code indisponible: {0}", why);
+        }
+        pcs.firePropertyChange(PROP_AVAILABLE, !value, value);
+    }
+
+    private void check() {
+        ClaudeSettings settings = ClaudeSettings.getInstance();
+        if (!settings.isConfigured()) {
+            reason = "Claude Code introuvable: " + settings.getClaudePath();
+            return;
+        }
+        try {
+            ProcessBuilder pb = new ProcessBuilder(settings.getClaudePath(), "--version");
+            pb.redirectInput(ProcessBuilder.Redirect.from(new File("/dev/null")));
+            pb.redirectErrorStream(true);
+            pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+            Process process = pb.start();
+            if (!process.waitFor(VERSION_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return;
+            }
+            if (process.exitValue() == 0) {
+                // Une session déconnectée n'est détectée qu'à la prochaine requête
+                setAvailable(true, null);
+            }
+        } catch (Exception e) {
+            LOG.log(Level.FINE, "Vérification de Claude Code impossible", e);
+        }
+    }
+}
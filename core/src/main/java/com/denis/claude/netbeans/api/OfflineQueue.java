@@ -0,0 +1,269 @@
+package com.denis.claude.netbeans.api;
+
+import com.denis.claude.netbeans.util.PluginStorage;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * File des requêtes non interactives mises de côté pendant que le CLI est indisponible.
+ * Elles sont rejouées une à une, espacées, dès que {@link EnvironmentProbe} signale son retour.
+ *
+ * Une requête qui a un type ({@code kind}) est enregistrée sur disque et survit au redémarrage
+ * de l'IDE: sa réponse est alors remise au gestionnaire de ce type. Les autres (traitements
+ * par lots, dont le travail est déjà repris par leur propre moteur) ne vivent qu'en mémoire.
+ */
+public class OfflineQueue implements PropertyChangeListener {
+
+    private static final Logger LOG = Logger.getLogger(OfflineQueue.class.getName());
+    private static final int REPLAY_INTERVAL_SECONDS = 3;
+
+    private static OfflineQueue instance;
+
+    private final File file;
+    private final Gson gson = new Gson();
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<String, CompletableFuture<String>> waiting = new ConcurrentHashMap<>();
+    private final Map<String, BiConsumer<String, String>> handlers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService replayer;
+    private boolean replaying;
+
+    private OfflineQueue() {
+        file = new File(PluginStorage.getDirectory("offline"), "queue.json");
+        replayer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Claude offline replay");
+            t.setDaemon(true);
+            return t;
+        });
+        load();
+        EnvironmentProbe.getInstance().addPropertyChangeListener(this);
+    }
+
+    public static synchronized OfflineQueue getInstance() {
+        if (instance == null) {
+            instance = new OfflineQueue();
+        }
+        return instance;
+    }
+
+    /**
+     * Gestionnaire des réponses d'un type de requête rejouée après un redémarrage:
+     * il reçoit la donnée associée à la requête et la réponse.
+     */
+    public void registerHandler(String kind, BiConsumer<String, String> handler) {
+        handlers.put(kind, handler);
+        scheduleReplay();
+    }
+
+    /**
+     * Nombre de requêtes en attente du retour du CLI.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Lance le rejeu si le CLI est disponible (au démarrage, une fois les gestionnaires enregistrés).
+     */
+    public void start() {
+        scheduleReplay();
+    }
+
+    /**
+     * Met une requête de côté. Le futur se termine au rejeu; l'annuler retire la requête de la file.
+     */
+    CompletableFuture<String> defer(PromptTemplate template, File workingDir, String prompt,
+            String kind, String payload) {
+        Entry entry = new Entry(UUID.randomUUID().toString(), template.name(),
+                workingDir != null ? workingDir.getPath() : null, prompt, kind, payload);
+        CompletableFuture<String> future = new CompletableFuture<>();
+        waiting.put(entry.id, future);
+        synchronized (this) {
+            entries.add(entry);
+        }
+        if (kind != null) {
+            save();
+        }
+        future.whenComplete((r, e) -> {
+            if (future.isCancelled()) {
+                remove(entry);
+            }
+        });
+        LOG.log(Level.FINE, "Requête {0} mise en attente du retour de Claude Code", template);
+        scheduleReplay();
+        return future;
+    }
+
+    @Override
+    public void propertyChange(PropertyChangeEvent evt) {
+        if (EnvironmentProbe.PROP_AVAILABLE.equals(evt.getPropertyName()) && Boolean.TRUE.equals(evt.getNewValue())) {
+            scheduleReplay();
+        }
+    }
+
+    private synchronized void scheduleReplay() {
+        if (!replaying && !entries.isEmpty() && EnvironmentProbe.getInstance().isAvailable()) {
+            replaying = true;
+            replayer.execute(this::replayNext);
+        }
+    }
+
+    /**
+     * Rejoue la plus ancienne requête dont quelqu'un attend la réponse, puis la suivante
+     * après un intervalle, pour ne pas lancer d'un coup tous les processus en attente.
+     */
+    private void replayNext() {
+        Entry next = null;
+        synchronized (this) {
+            if (EnvironmentProbe.getInstance().isAvailable()) {
+                for (Entry entry : entries) {
+                    if (waiting.containsKey(entry.id) || (entry.kind != null && handlers.containsKey(entry.kind))) {
+                        next = entry;
+                        break;
+                    }
+                }
+            }
+            if (next == null) {
+                replaying = false;
+                return;
+            }
+        }
+        Entry entry = next;
+        File workingDir = entry.workingDir != null ? new File(entry.workingDir) : null;
+        ClaudeApiClient.getInstance().replay(templateOf(entry), workingDir, entry.prompt)
+                .whenComplete((response, error) -> {
+                    if (error != null && EnvironmentProbe.isEnvironmental(error)) {
+                        // Toujours indisponible: la requête reste en file jusqu'au prochain retour
+                        synchronized (this) {
+                            replaying = false;
+                        }
+                        return;
+                    }
+                    remove(entry);
+                    deliver(entry, response, error);
+                    replayer.schedule(this::replayNext, REPLAY_INTERVAL_SECONDS, TimeUnit.SECONDS);
+                });
+    }
+
+    private void deliver(Entry entry, String response, Throwable error) {
+        CompletableFuture<String> future = waiting.remove(entry.id);
+        if (future != null) {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(response);
+            }
+            return;
+        }
+        BiConsumer<String, String> handler = entry.kind != null ? handlers.get(entry.kind) : null;
+        if (handler == null || error != null) {
+            LOG.log(Level.INFO, "Requête rejouée sans suite: " + entry.kind, error);
+            return;
+        }
+        try {
+            handler.accept(entry.payload, response);
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "Échec du traitement d'une requête rejouée: " + entry.kind, e);
+        }
+    }
+
+    private static PromptTemplate templateOf(Entry entry) {
+        try {
+            return PromptTemplate.valueOf(entry.template);
+        } catch (IllegalArgumentException e) {
+            return PromptTemplate.OTHER;
+        }
+    }
+
+    private void remove(Entry entry) {
+        boolean removed;
+        synchronized (this) {
+            removed = entries.remove(entry);
+        }
+        waiting.remove(entry.id);
+        if (removed && entry.kind != null) {
+            save();
+        }
+    }
+
+    private void load() {
+        if (!file.isFile()) {
+            return;
+        }
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            List<Entry> list = gson.fromJson(reader, new TypeToken<List<Entry>>() { }.getType());
+            if (list != null) {
+                for (Entry entry : list) {
+                    if (entry.id != null && entry.prompt != null && entry.kind != null) {
+                        entries.add(entry);
+                    }
+                }
+            }
+        } catch (IOException | JsonParseException e) {
+            LOG.log(Level.WARNING, "Lecture impossible: " + file, e);
+        }
+    }
+
+    /**
+     * Réécrit la file persistante (fichier temporaire puis déplacement atomique).
+     */
+    private synchronized void save() {
+        List<Entry> durable = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.kind != null) {
+                durable.add(entry);
+            }
+        }
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try {
+            try (Writer out = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+                gson.toJson(durable, out);
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Enregistrement impossible: " + file, e);
+        }
+    }
+
+    private static final class Entry {
+        final String id;
+        final String template;
+        final String workingDir;
+        final String prompt;
+        final String kind;
+        final String payload;
+        final long created;
+
+        Entry(String id, String template, String workingDir, String prompt, String kind, String payload) {
+            this.id = id;
+            this.template = template;
+            this.workingDir = workingDir;
+            this.prompt = prompt;
+            this.kind = kind;
+            this.payload = payload;
+            this.created = System.currentTimeMillis();
+        }
+    }
+}
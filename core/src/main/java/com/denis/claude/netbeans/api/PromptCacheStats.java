@@ -0,0 +1,77 @@
+package com.denis.claude.netbeans.api;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Taux de lecture du cache de prompt côté serveur, par action, depuis le démarrage de l'IDE.
+ * Le taux est la part des tokens d'entrée relus depuis le cache plutôt que traités à nouveau:
+ * un taux faible pour une action répétée indique un préfixe de prompt instable.
+ */
+public class PromptCacheStats {
+
+    private static final Logger LOG = Logger.getLogger(PromptCacheStats.class.getName());
+
+    private static PromptCacheStats instance;
+
+    private final Map<PromptTemplate, Counters> counters = new EnumMap<>(PromptTemplate.class);
+
+    private PromptCacheStats() {
+    }
+
+    public static synchronized PromptCacheStats getInstance() {
+        if (instance == null) {
+            instance = new PromptCacheStats();
+        }
+        return instance;
+    }
+
+    synchronized void record(PromptTemplate template, StreamJsonReader.Usage usage) {
+        Counters c = counters.computeIfAbsent(template, t -> new Counters());
+        c.requests++;
+        c.inputTokens += usage.inputTokens;
+        c.cacheCreationTokens += usage.cacheCreationTokens;
+        c.cacheReadTokens += usage.cacheReadTokens;
+        LOG.log(Level.FINE, "{0}: {1} tokens relus du cache, {2} écrits, {3} non cachés",
+                new Object[]{template, usage.cacheReadTokens, usage.cacheCreationTokens, usage.inputTokens});
+    }
+
+    /**
+     * Part (0 à 1) des tokens d'entrée lus depuis le cache pour cette action, ou -1 sans requête.
+     */
+    public synchronized double getHitRate(PromptTemplate template) {
+        Counters c = counters.get(template);
+        if (c == null) {
+            return -1;
+        }
+        long total = c.inputTokens + c.cacheCreationTokens + c.cacheReadTokens;
+        return total == 0 ? 0 : (double) c.cacheReadTokens / total;
+    }
+
+    /**
+     * Tableau texte des actions utilisées: requêtes, tokens d'entrée et taux de lecture du cache.
+     */
+    public synchronized String summary() {
+        if (counters.isEmpty()) {
+            return "Aucune requête depuis le démarrage.";
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-22s %9s %14s %8s%n", "Action", "Requêtes", "Tokens entrée", "Cache"));
+        for (Map.Entry<PromptTemplate, Counters> e : counters.entrySet()) {
+            Counters c = e.getValue();
+            long total = c.inputTokens + c.cacheCreationTokens + c.cacheReadTokens;
+            sb.append(String.format("%-22s %9d %14d %7.0f%%%n", e.getKey().getLabel(), c.requests, total,
+                    100 * getHitRate(e.getKey())));
+        }
+        return sb.toString();
+    }
+
+    private static final class Counters {
+        long requests;
+        long inputTokens;
+        long cacheCreationTokens;
+        long cacheReadTokens;
+    }
+}
@@ -0,0 +1,86 @@
+package com.denis.claude.netbeans.api;
+
+import com.denis.claude.netbeans.context.ContextAssembler;
+
+/**
+ * Modèles de prompt, un par action. Un modèle fixe la partie stable de la requête: le prompt
+ * système (transmis au CLI par --append-system-prompt) et la consigne placée en tête du message.
+ * Le contenu variable (code, description, demande) est ajouté après, du plus stable au plus
+ * changeant: deux requêtes d'une même action partagent ainsi le plus long préfixe possible,
+ * que le serveur peut relire depuis son cache de prompt.
+ */
+public enum PromptTemplate {
+
+    CHAT("Chat", null, null),
+
+    EXPLAIN("Expliquer", Prompts.ANALYSIS,
+            "Explique le code fourni à la fin de ce message, de manière claire et concise. "
+            + "Décris ce qu'il fait, comment il fonctionne, et mentionne tout problème potentiel. "
+            + "Le contexte éventuel (fichiers liés, code environnant) précède le code à expliquer."),
+
+    ANALYZE("Analyser", Prompts.ANALYSIS, null),
+
+    BATCH("Traitement par lots", Prompts.ANALYSIS, null),
+
+    REVIEW("Relecture", Prompts.ANALYSIS,
+            "Relis les zones de code fournies, modifiées récemment. Les lignes sont numérotées dans "
+            + "chaque zone. Signale uniquement les bugs probables et les problèmes importants, pas le "
+            + "style. Une remarque courte par ligne, au format exact R<zone>:L<ligne>: <remarque>. "
+            + "Si tout est correct, réponds AUCUN."),
+
+    GENERATE("Générer", "Tu es un assistant expert en programmation. Génère du code propre et bien commenté.",
+            "Génère le code demandé à la fin de ce message, en tenant compte du contexte fourni. "
+            + "Retourne uniquement le code, sans explications supplémentaires."),
+
+    EDIT("Modifier", "Tu es un assistant expert en programmation. Tu modifies du code existant de façon minimale.",
+            "Modifie le fichier fourni selon la demande placée à la fin de ce message. Réponds uniquement "
+            + "par un diff unifié (format diff -u) contre ce fichier, avec 3 lignes de contexte par bloc et "
+            + "les numéros de ligne d'origine. Ne réécris pas le fichier entier et n'ajoute aucune explication."),
+
+    COMPLETE("Compléter", "Tu es un moteur de complétion de code.",
+            "Complète le code à la position du curseur, située entre les deux extraits suivants. "
+            + "Réponds uniquement par le texte à insérer au curseur (quelques lignes au plus), sans "
+            + "balises markdown, sans explication et sans répéter le code existant. Réponds par une "
+            + "ligne vide si rien n'est pertinent."),
+
+    OTHER("Autre", null, null);
+
+    private final String label;
+    private final String systemPrompt;
+    private final String instruction;
+
+    PromptTemplate(String label, String systemPrompt, String instruction) {
+        this.label = label;
+        this.systemPrompt = systemPrompt;
+        this.instruction = instruction;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getSystemPrompt() {
+        return systemPrompt;
+    }
+
+    /**
+     * Assembleur déjà amorcé avec la consigne fixe du modèle; les morceaux variables
+     * s'ajoutent ensuite, les plus stables d'abord.
+     */
+    public ContextAssembler assembler(int budgetTokens) {
+        ContextAssembler assembler = new ContextAssembler(budgetTokens);
+        if (instruction != null) {
+            assembler.add(ContextAssembler.Piece.instruction(instruction));
+        }
+        return assembler;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+
+    private static final class Prompts {
+        static final String ANALYSIS = "Tu es un assistant expert en programmation. Réponds en français.";
+    }
+}
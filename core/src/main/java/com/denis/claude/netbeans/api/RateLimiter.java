@@ -0,0 +1,406 @@
+package com.denis.claude.netbeans.api;
+
+import com.denis.claude.netbeans.settings.ClaudeSettings;
+import com.denis.claude.netbeans.util.PluginStorage;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Limiteur de débit côté client, devant le CLI: évite de lancer des processus voués à
+ * l'échec une fois la limite de l'abonnement atteinte.
+ *
+ * Deux seaux se rechargent en continu sur la fenêtre configurée: un pour les requêtes,
+ * un pour les tokens estimés (prompt à l'envoi, réponse une fois connue). Une requête
+ * attend que les deux seaux la couvrent; les priorités basses laissent une réserve aux
+ * requêtes interactives et passent après elles.
+ *
+ * Une erreur de limite du serveur bloque toutes les requêtes jusqu'à l'heure de reprise
+ * annoncée (sinon avec un délai croissant) et réduit la capacité utilisée; chaque réussite
+ * la fait remonter progressivement. L'état appris est conservé ({@code ratelimit/state.json}).
+ */
+public class RateLimiter {
+
+    private static final Logger LOG = Logger.getLogger(RateLimiter.class.getName());
+
+    // Réduction multiplicative à chaque limite atteinte, remontée additive à chaque réussite
+    private static final double MIN_FACTOR = 0.25;
+    private static final double DECREASE = 0.75;
+    private static final double INCREASE = 0.05;
+    private static final long MIN_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    // "Claude AI usage limit reached|1730000000": heure de reprise en secondes
+    private static final Pattern RESET_EPOCH = Pattern.compile("limit reached\\|(\\d{9,11})");
+    private static final Pattern RATE_LIMITED = Pattern.compile(
+            "rate.?limit|usage limit|limit reached|too many requests|\\b429\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    private static RateLimiter instance;
+
+    private final File file;
+    private final LongSupplier clock;
+    private final Gson gson = new Gson();
+    private final ScheduledExecutorService timer;
+    private final List<Waiter> waiters = new ArrayList<>();
+    private long sequence;
+    private ScheduledFuture<?> wakeUp;
+
+    // Seaux, rechargés à la demande
+    private double requests = -1;
+    private double tokens = -1;
+    private long lastRefill;
+
+    // Appris des erreurs de limite
+    private double factor = 1.0;
+    private long blockedUntil;
+    private long backoff = MIN_BACKOFF_MILLIS;
+
+    private RateLimiter() {
+        this(new File(PluginStorage.getDirectory("ratelimit"), "state.json"), System::currentTimeMillis);
+    }
+
+    /**
+     * Limiteur conservant son état dans {@code file}, à l'heure donnée par {@code clock} (tests).
+     */
+    RateLimiter(File file, LongSupplier clock) {
+        this.file = file;
+        this.clock = clock;
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Claude rate limiter");
+            t.setDaemon(true);
+            return t;
+        });
+        State state = load();
+        if (state != null) {
+            factor = Math.max(MIN_FACTOR, Math.min(1.0, state.factor));
+            blockedUntil = state.blockedUntil;
+        }
+    }
+
+    public static synchronized RateLimiter getInstance() {
+        if (instance == null) {
+            instance = new RateLimiter();
+        }
+        return instance;
+    }
+
+    /**
+     * Réserve une requête de {@code estimatedTokens} tokens. Le futur est complété quand la
+     * requête peut partir; l'annuler retire la requête de l'attente.
+     */
+    public synchronized CompletableFuture<Void> acquire(RequestScheduler.Priority priority, long estimatedTokens) {
+        refill();
+        Waiter waiter = new Waiter(priority, sequence++, Math.max(0, estimatedTokens));
+        waiters.add(waiter);
+        waiters.sort(Waiter.ORDER);
+        waiter.future.whenComplete((result, error) -> {
+            if (waiter.future.isCancelled()) {
+                synchronized (this) {
+                    waiters.remove(waiter);
+                    drain();
+                }
+            }
+        });
+        drain();
+        return waiter.future;
+    }
+
+    /**
+     * Attente prévue, en millisecondes, d'une requête soumise maintenant: limite du serveur,
+     * recharge des seaux et requêtes déjà en attente devant elle.
+     */
+    public synchronized long expectedWaitMillis(RequestScheduler.Priority priority, long estimatedTokens) {
+        refill();
+        long now = clock.getAsLong();
+        long aheadRequests = 1;
+        long aheadTokens = Math.max(0, estimatedTokens);
+        for (Waiter waiter : waiters) {
+            if (waiter.priority.compareTo(priority) <= 0) {
+                aheadRequests++;
+                aheadTokens += waiter.tokens;
+            }
+        }
+        return Math.max(blockedUntil - now, refillDelay(priority, aheadRequests, aheadTokens));
+    }
+
+    /**
+     * Message à afficher pendant l'attente d'une requête, ou null si elle peut partir tout de suite.
+     */
+    public String describeWait(RequestScheduler.Priority priority, long estimatedTokens) {
+        long wait = expectedWaitMillis(priority, estimatedTokens);
+        if (wait < 1000) {
+            return null;
+        }
+        return isBlocked()
+                ? "Limite d'utilisation atteinte: reprise dans " + formatDuration(wait)
+                : "Budget de requêtes épuisé: envoi dans " + formatDuration(wait);
+    }
+
+    /**
+     * Vrai si le serveur a signalé une limite qui n'est pas encore levée.
+     */
+    public synchronized boolean isBlocked() {
+        return blockedUntil > clock.getAsLong();
+    }
+
+    /**
+     * Nombre de requêtes retenues par le limiteur.
+     */
+    public synchronized int getWaitingCount() {
+        return waiters.size();
+    }
+
+    /**
+     * Vrai si la sortie d'une requête en échec ressemble à une limite de débit du serveur.
+     */
+    public static boolean isRateLimitError(String output) {
+        return output != null && RATE_LIMITED.matcher(output).find();
+    }
+
+    /**
+     * Réussite d'une requête: décompte des tokens réellement consommés par la réponse
+     * et remontée de la capacité.
+     */
+    synchronized void recordSuccess(StreamJsonReader.Usage usage) {
+        refill();
+        if (usage != null) {
+            tokens -= usage.outputTokens;
+        }
+        backoff = MIN_BACKOFF_MILLIS;
+        if (factor < 1.0) {
+            factor = Math.min(1.0, factor + INCREASE);
+            save();
+        }
+    }
+
+    /**
+     * Erreur de limite du serveur: bloque les requêtes jusqu'à la reprise (heure annoncée,
+     * sinon délai croissant) et réduit la capacité. Retourne l'heure de reprise.
+     */
+    synchronized long reportRateLimited(String output) {
+        long now = clock.getAsLong();
+        long until = 0;
+        Matcher m = output != null ? RESET_EPOCH.matcher(output) : null;
+        if (m != null && m.find()) {
+            until = Long.parseLong(m.group(1)) * 1000;
+        }
+        // Les requêtes parties avant le blocage échouent aussi: une seule réduction par blocage
+        boolean fresh = blockedUntil <= now;
+        if (until <= now && fresh) {
+            until = now + backoff;
+            backoff = Math.min(MAX_BACKOFF_MILLIS, backoff * 2);
+        }
+        blockedUntil = Math.max(blockedUntil, until);
+        if (fresh) {
+            factor = Math.max(MIN_FACTOR, factor * DECREASE);
+        }
+        // Les seaux étaient manifestement trop optimistes
+        refill();
+        requests = Math.min(requests, 0);
+        tokens = Math.min(tokens, 0);
+        LOG.log(Level.INFO, "Limite de débit atteinte, reprise dans {0} s (capacité {1} %)",
+                new Object[]{(blockedUntil - now) / 1000, Math.round(factor * 100)});
+        save();
+        drain();
+        return blockedUntil;
+    }
+
+    /**
+     * Sert les requêtes en attente, par priorité puis par ordre d'arrivée, et programme
+     * le prochain réveil si la première ne peut pas encore partir.
+     */
+    private void drain() {
+        if (wakeUp != null) {
+            wakeUp.cancel(false);
+            wakeUp = null;
+        }
+        refill();
+        while (!waiters.isEmpty()) {
+            Waiter head = waiters.get(0);
+            if (head.future.isDone()) {
+                waiters.remove(0);
+                continue;
+            }
+            long delay = Math.max(blockedUntil - clock.getAsLong(),
+                    refillDelay(head.priority, 1, head.tokens));
+            if (delay > 0) {
+                wakeUp = timer.schedule(this::wake, Math.min(delay, MAX_BACKOFF_MILLIS), TimeUnit.MILLISECONDS);
+                return;
+            }
+            waiters.remove(0);
+            if (requestCapacity() > 0) {
+                requests -= 1;
+            }
+            if (tokenCapacity() > 0) {
+                tokens -= head.tokens;
+            }
+            head.future.complete(null);
+        }
+    }
+
+    /**
+     * Réveil programmé par {@link #drain()}; les tests l'appellent après avoir avancé l'horloge.
+     */
+    synchronized void wake() {
+        wakeUp = null;
+        drain();
+    }
+
+    /**
+     * Délai avant que les seaux couvrent {@code count} requêtes et {@code cost} tokens en
+     * gardant la réserve de la priorité.
+     */
+    private long refillDelay(RequestScheduler.Priority priority, long count, long cost) {
+        long window = windowMillis();
+        double reserve = reserve(priority);
+        long delay = 0;
+        double capacity = requestCapacity();
+        if (capacity > 0) {
+            double needed = Math.min(count, capacity * (1 - reserve)) + capacity * reserve;
+            delay = Math.max(delay, missingMillis(requests, needed, capacity, window));
+        }
+        capacity = tokenCapacity();
+        if (capacity > 0) {
+            // Une requête plus grosse que le budget passe quand le seau est plein
+            double needed = Math.min(cost, capacity * (1 - reserve)) + capacity * reserve;
+            delay = Math.max(delay, missingMillis(tokens, needed, capacity, window));
+        }
+        return delay;
+    }
+
+    private static long missingMillis(double level, double needed, double capacity, long window) {
+        if (level >= needed) {
+            return 0;
+        }
+        return (long) Math.ceil((needed - level) * window / capacity);
+    }
+
+    private void refill() {
+        long now = clock.getAsLong();
+        double requestCapacity = requestCapacity();
+        double tokenCapacity = tokenCapacity();
+        if (requests < 0 && lastRefill == 0) {
+            requests = requestCapacity;
+            tokens = tokenCapacity;
+        } else if (now > lastRefill) {
+            double elapsed = (double) (now - lastRefill) / windowMillis();
+            requests = Math.min(requestCapacity, requests + elapsed * requestCapacity);
+            tokens = Math.min(tokenCapacity, tokens + elapsed * tokenCapacity);
+        }
+        lastRefill = now;
+    }
+
+    /**
+     * Part de chaque seau réservée aux priorités plus hautes.
+     */
+    private static double reserve(RequestScheduler.Priority priority) {
+        switch (priority) {
+            case BACKGROUND:
+                return 0.3;
+            case NORMAL:
+                return 0.1;
+            default:
+                return 0;
+        }
+    }
+
+    private double requestCapacity() {
+        return Math.max(0, ClaudeSettings.getInstance().getRateRequests()) * factor;
+    }
+
+    private double tokenCapacity() {
+        return Math.max(0, ClaudeSettings.getInstance().getRateTokens()) * factor;
+    }
+
+    private static long windowMillis() {
+        return TimeUnit.MINUTES.toMillis(Math.max(1, ClaudeSettings.getInstance().getRateWindowMinutes()));
+    }
+
+    /**
+     * Durée lisible: "45 s", "3 min", "1 h 20".
+     */
+    public static String formatDuration(long millis) {
+        long seconds = (millis + 999) / 1000;
+        if (seconds < 60) {
+            return seconds + " s";
+        }
+        long minutes = (seconds + 59) / 60;
+        if (minutes < 60) {
+            return minutes + " min";
+        }
+        return String.format(Locale.ROOT, "%d h %02d", minutes / 60, minutes % 60);
+    }
+
+    private State load() {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, State.class);
+        } catch (IOException | JsonParseException e) {
+            LOG.log(Level.WARNING, "Lecture impossible: " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Réécrit l'état appris (fichier temporaire puis déplacement atomique).
+     */
+    private void save() {
+        State state = new State();
+        state.factor = factor;
+        state.blockedUntil = blockedUntil;
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try {
+            try (Writer out = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+                gson.toJson(state, out);
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Enregistrement impossible: " + file, e);
+        }
+    }
+
+    private static final class State {
+        double factor = 1.0;
+        long blockedUntil;
+    }
+
+    private static final class Waiter {
+        static final Comparator<Waiter> ORDER = Comparator.<Waiter, RequestScheduler.Priority>comparing(w -> w.priority)
+                .thenComparingLong(w -> w.sequence);
+
+        final RequestScheduler.Priority priority;
+        final long sequence;
+        final long tokens;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Waiter(RequestScheduler.Priority priority, long sequence, long tokens) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.tokens = tokens;
+        }
+    }
+}
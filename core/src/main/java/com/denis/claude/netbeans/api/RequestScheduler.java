@@ -0,0 +1,157 @@
+package com.denis.claude.netbeans.api;
+
+import com.denis.claude.netbeans.settings.ClaudeSettings;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ordonnanceur partagé des requêtes vers Claude Code.
+ * Limite le nombre de processus CLI simultanés pour tout le plugin (tous les
+ * onglets de chat et toutes les actions); les requêtes en attente sont servies
+ * par priorité, puis par ordre d'arrivée. Le débit est limité en amont par le
+ * {@link RateLimiter}.
+ */
+public class RequestScheduler {
+
+    /**
+     * Priorité d'une requête. Les requêtes interactives passent devant le travail de fond.
+     */
+    public enum Priority {
+        INTERACTIVE,
+        NORMAL,
+        BACKGROUND
+    }
+
+    private static final ThreadLocal<CompletableFuture<?>> CURRENT = new ThreadLocal<>();
+
+    private static RequestScheduler instance;
+
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private RequestScheduler(int maxConcurrent) {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 60, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "Claude request " + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static synchronized RequestScheduler getInstance() {
+        if (instance == null) {
+            instance = new RequestScheduler(ClaudeSettings.getInstance().getMaxConcurrentRequests());
+        }
+        return instance;
+    }
+
+    /**
+     * Soumet une requête. Le futur retourné peut être annulé: en file, la requête est
+     * ignorée; en cours d'exécution, la tâche peut réagir via {@link #currentRequest()}.
+     */
+    public <T> CompletableFuture<T> submit(Priority priority, Callable<T> task) {
+        return submit(priority, 0, task);
+    }
+
+    /**
+     * Soumet une requête d'environ {@code estimatedTokens} tokens. Elle attend d'abord son
+     * tour auprès du {@link RateLimiter}, sans occuper de créneau d'exécution; l'annuler
+     * pendant cette attente la retire du limiteur.
+     */
+    public <T> CompletableFuture<T> submit(Priority priority, long estimatedTokens, Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        CompletableFuture<Void> permit = RateLimiter.getInstance().acquire(priority, estimatedTokens);
+        future.whenComplete((result, error) -> permit.cancel(false));
+        permit.thenRun(() -> {
+            try {
+                executor.execute(new ScheduledTask(priority, sequence.incrementAndGet(), () -> {
+                    if (future.isDone()) {
+                        return; // Annulée pendant l'attente
+                    }
+                    CURRENT.set(future);
+                    try {
+                        future.complete(task.call());
+                    } catch (Throwable e) {
+                        future.completeExceptionally(e);
+                    } finally {
+                        CURRENT.remove();
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                future.completeExceptionally(e); // Ordonnanceur arrêté
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Futur de la requête exécutée par le thread courant, ou null hors de l'ordonnanceur.
+     */
+    public static CompletableFuture<?> currentRequest() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Modifie le nombre maximal de processus CLI simultanés.
+     */
+    public synchronized void setMaxConcurrent(int maxConcurrent) {
+        int value = Math.max(1, maxConcurrent);
+        if (value > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(value);
+            executor.setCorePoolSize(value);
+        } else {
+            executor.setCorePoolSize(value);
+            executor.setMaximumPoolSize(value);
+        }
+    }
+
+    /**
+     * Nombre de requêtes en attente d'un créneau d'exécution.
+     */
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Nombre de requêtes en cours d'exécution.
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static class ScheduledTask implements Runnable, Comparable<ScheduledTask> {
+        final Priority priority;
+        final long sequence;
+        final Runnable body;
+
+        ScheduledTask(Priority priority, long sequence, Runnable body) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.body = body;
+        }
+
+        @Override
+        public void run() {
+            body.run();
+        }
+
+        @Override
+        public int compareTo(ScheduledTask other) {
+            int result = priority.compareTo(other.priority);
+            return result != 0 ? result : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.denis.claude.netbeans.api;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Cache mémoire des réponses aux requêtes sans historique, indexé par l'empreinte du prompt.
+ * Une requête encore en cours est partagée: une demande explicite qui arrive pendant
+ * un préchargement attend la même réponse au lieu de relancer le CLI.
+ * Les échecs et les annulations ne sont jamais conservés.
+ */
+public class ResponseCache {
+
+    private static final int MAX_ENTRIES = 64;
+    private static final long TTL_MILLIS = 15 * 60 * 1000L;
+
+    private static ResponseCache instance;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    public static synchronized ResponseCache getInstance() {
+        if (instance == null) {
+            instance = new ResponseCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Retourne la réponse en cache, ou lance la requête et la met en cache.
+     * La réponse est alors réservée: un préchargement partagé ne sera plus annulé.
+     */
+    public synchronized CompletableFuture<String> getOrCompute(String key, Supplier<CompletableFuture<String>> request) {
+        Entry entry = lookup(key);
+        if (entry == null) {
+            entry = store(key, request.get());
+        }
+        entry.claimed = true;
+        return entry.future;
+    }
+
+    /**
+     * Lance une requête spéculative si aucune réponse n'est déjà en cache pour cette clé.
+     */
+    public synchronized CompletableFuture<String> prefetch(String key, Supplier<CompletableFuture<String>> request) {
+        Entry entry = lookup(key);
+        if (entry == null) {
+            entry = store(key, request.get());
+        }
+        return entry.future;
+    }
+
+    /**
+     * Abandonne un préchargement devenu inutile, sauf si une demande explicite l'attend.
+     */
+    public synchronized void cancelPrefetch(CompletableFuture<String> future) {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next().getValue();
+            if (entry.future == future) {
+                if (!entry.claimed && !future.isDone()) {
+                    it.remove();
+                    future.cancel(false);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Retire l'entrée si elle correspond toujours à cette requête.
+     */
+    public synchronized void remove(String key, CompletableFuture<String> future) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.future == future) {
+            entries.remove(key);
+        }
+    }
+
+    private Entry lookup(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && (entry.isExpired() || entry.future.isCompletedExceptionally())) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private Entry store(String key, CompletableFuture<String> future) {
+        Entry entry = new Entry(future);
+        entries.put(key, entry);
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                remove(key, future);
+            }
+        });
+        evict();
+        return entry;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private void evict() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() > MAX_ENTRIES && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static final class Entry {
+        final CompletableFuture<String> future;
+        final long created = System.currentTimeMillis();
+        boolean claimed;
+
+        Entry(CompletableFuture<String> future) {
+            this.future = future;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() - created > TTL_MILLIS;
+        }
+    }
+}
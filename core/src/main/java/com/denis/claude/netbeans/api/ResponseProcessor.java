@@ -0,0 +1,337 @@
+package com.denis.claude.netbeans.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Post-traitement d'une réponse en un seul passage, morceau par morceau au fil du flux:
+ * retire les séquences d'échappement du terminal (couleurs, mais aussi déplacements du
+ * curseur, titres de fenêtre, hyperliens...) et suit les balises de code markdown pour
+ * en extraire les blocs. Une séquence ou une ligne coupée entre deux morceaux est reprise
+ * au morceau suivant; seuls la ligne en cours et les blocs extraits sont gardés en mémoire.
+ *
+ * Une instance traite une seule réponse et n'est pas partagée entre threads.
+ */
+public final class ResponseProcessor {
+
+    /**
+     * Nature d'une ligne par rapport aux blocs de code.
+     */
+    public enum LineKind {
+        /** Texte hors bloc. */
+        TEXT,
+        /** Balise ouvrant un bloc ({@code ```java}). */
+        FENCE_OPEN,
+        /** Ligne de code dans un bloc. */
+        CODE,
+        /** Balise fermant le bloc. */
+        FENCE_CLOSE
+    }
+
+    /**
+     * Reçoit chaque ligne complète (sans fin de ligne), une fois les échappements retirés.
+     */
+    public interface LineListener {
+        void line(String line, LineKind kind);
+    }
+
+    private enum Escape {
+        NONE,
+        ESC,          // ESC reçu
+        CSI,          // ESC [ ... jusqu'à l'octet final
+        INTERMEDIATE, // ESC suivi d'octets intermédiaires (jeux de caractères...)
+        STRING,       // OSC, DCS, SOS, PM, APC: jusqu'à ST (ESC \), ou BEL pour OSC
+        STRING_ESC    // ESC reçu dans une chaîne: ST attendu
+    }
+
+    private static final char ESC = '\u001B';
+    private static final char BEL = '\u0007';
+    private static final char C1_CSI = '\u009B';
+
+    private final boolean trackFences;
+    private final LineListener listener;
+    private final List<CodeBlock> blocks = new ArrayList<>();
+    private final StringBuilder line = new StringBuilder();
+    private Escape escape = Escape.NONE;
+    private boolean oscString;
+
+    // Bloc ouvert
+    private char fenceChar;
+    private int fenceLength;
+    private String fenceLanguage;
+    private StringBuilder code;
+    private int codeLines;
+
+    private ResponseProcessor(boolean trackFences, LineListener listener) {
+        this.trackFences = trackFences;
+        this.listener = listener;
+    }
+
+    /**
+     * Retire seulement les séquences d'échappement.
+     */
+    public static ResponseProcessor escapes() {
+        return new ResponseProcessor(false, null);
+    }
+
+    /**
+     * Retire les séquences d'échappement et extrait les blocs de code ({@link #getBlocks()}).
+     */
+    public static ResponseProcessor codeBlocks() {
+        return new ResponseProcessor(true, null);
+    }
+
+    /**
+     * Comme {@link #codeBlocks()}, en signalant en plus chaque ligne avec sa nature.
+     */
+    public static ResponseProcessor lines(LineListener listener) {
+        return new ResponseProcessor(true, listener);
+    }
+
+    /**
+     * Texte sans séquences d'échappement.
+     */
+    public static String strip(String text) {
+        return text == null ? null : escapes().accept(text);
+    }
+
+    /**
+     * Code d'une réponse: ses blocs s'il y en a (séparés par une ligne vide), sinon
+     * la réponse entière, considérée comme du code sans balises.
+     */
+    public static String extractCode(String response) {
+        ResponseProcessor processor = codeBlocks();
+        String text = processor.accept(response);
+        processor.finish();
+        if (processor.blocks.isEmpty()) {
+            return text.trim();
+        }
+        StringBuilder sb = new StringBuilder();
+        for (CodeBlock block : processor.blocks) {
+            if (sb.length() > 0) {
+                sb.append("\n\n");
+            }
+            sb.append(block.getCode());
+        }
+        return sb.toString().trim();
+    }
+
+    /**
+     * Traite un morceau de la réponse; retourne ce morceau sans séquences d'échappement.
+     */
+    public String accept(CharSequence chunk) {
+        StringBuilder out = new StringBuilder(chunk.length());
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            if (escape != Escape.NONE && !consumeEscape(c)) {
+                continue;
+            }
+            if (c == ESC) {
+                escape = Escape.ESC;
+                continue;
+            }
+            if (c == C1_CSI) {
+                escape = Escape.CSI;
+                continue;
+            }
+            out.append(c);
+            if (trackFences) {
+                if (c == '\n') {
+                    endLine();
+                } else {
+                    line.append(c);
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Fin de la réponse: traite la dernière ligne et ferme un bloc resté ouvert (réponse tronquée).
+     */
+    public void finish() {
+        escape = Escape.NONE;
+        if (!trackFences) {
+            return;
+        }
+        if (line.length() > 0) {
+            endLine();
+        }
+        if (code != null) {
+            closeBlock();
+        }
+    }
+
+    /**
+     * Blocs de code fermés jusqu'ici, dans l'ordre de la réponse.
+     */
+    public List<CodeBlock> getBlocks() {
+        return Collections.unmodifiableList(blocks);
+    }
+
+    /**
+     * Vrai si la dernière ligne complète est dans un bloc de code.
+     */
+    public boolean isInsideFence() {
+        return code != null;
+    }
+
+    /**
+     * Avance dans une séquence d'échappement. Retourne vrai si le caractère ne fait pas
+     * partie de la séquence (séquence mal formée) et doit être traité comme du texte.
+     */
+    private boolean consumeEscape(char c) {
+        switch (escape) {
+            case ESC:
+                if (c == '[') {
+                    escape = Escape.CSI;
+                } else if (c == ']' || c == 'P' || c == 'X' || c == '^' || c == '_') {
+                    escape = Escape.STRING;
+                    oscString = c == ']';
+                } else if (c >= 0x20 && c <= 0x2F) {
+                    escape = Escape.INTERMEDIATE;
+                } else if (c >= 0x30 && c <= 0x7E) {
+                    escape = Escape.NONE;
+                } else if (c != ESC) {
+                    escape = Escape.NONE;
+                    return true;
+                }
+                return false;
+            case CSI:
+                if (c >= 0x40 && c <= 0x7E) {
+                    escape = Escape.NONE;
+                } else if (c < 0x20 || c > 0x3F) {
+                    escape = Escape.NONE;
+                    return true;
+                }
+                return false;
+            case INTERMEDIATE:
+                if (c >= 0x30 && c <= 0x7E) {
+                    escape = Escape.NONE;
+                } else if (c < 0x20 || c > 0x2F) {
+                    escape = Escape.NONE;
+                    return true;
+                }
+                return false;
+            case STRING:
+                if (c == ESC) {
+                    escape = Escape.STRING_ESC;
+                } else if (c == BEL && oscString) {
+                    escape = Escape.NONE;
+                }
+                return false;
+            case STRING_ESC:
+                escape = c == '\\' ? Escape.NONE : c == ESC ? Escape.STRING_ESC : Escape.STRING;
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    private void endLine() {
+        int end = line.length();
+        if (end > 0 && line.charAt(end - 1) == '\r') {
+            end--;
+        }
+        String text = line.substring(0, end);
+        line.setLength(0);
+
+        LineKind kind;
+        if (code == null) {
+            kind = openFence(text) ? LineKind.FENCE_OPEN : LineKind.TEXT;
+        } else if (isClosingFence(text)) {
+            kind = LineKind.FENCE_CLOSE;
+            closeBlock();
+        } else {
+            kind = LineKind.CODE;
+            if (codeLines++ > 0) {
+                code.append('\n');
+            }
+            code.append(text);
+        }
+        if (listener != null) {
+            listener.line(text, kind);
+        }
+    }
+
+    /**
+     * Balise d'ouverture: au moins trois {@code `} ou {@code ~}, suivis du langage éventuel.
+     * L'indentation est tolérée (blocs dans une liste).
+     */
+    private boolean openFence(String text) {
+        int start = indent(text);
+        int run = run(text, start);
+        if (run < 3) {
+            return false;
+        }
+        char c = text.charAt(start);
+        String info = text.substring(start + run).trim();
+        if (c == '`' && info.indexOf('`') >= 0) {
+            return false; // Code en ligne, pas une balise
+        }
+        int space = info.indexOf(' ');
+        fenceChar = c;
+        fenceLength = run;
+        fenceLanguage = space >= 0 ? info.substring(0, space) : info;
+        code = new StringBuilder();
+        codeLines = 0;
+        return true;
+    }
+
+    private boolean isClosingFence(String text) {
+        int start = indent(text);
+        int run = run(text, start);
+        return run >= fenceLength && text.charAt(start) == fenceChar
+                && text.substring(start + run).trim().isEmpty();
+    }
+
+    private void closeBlock() {
+        blocks.add(new CodeBlock(fenceLanguage, code.toString()));
+        code = null;
+    }
+
+    private static int indent(String text) {
+        int i = 0;
+        while (i < text.length() && (text.charAt(i) == ' ' || text.charAt(i) == '\t')) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Longueur de la suite de {@code `} ou de {@code ~} qui commence à {@code start}.
+     */
+    private static int run(String text, int start) {
+        if (start >= text.length() || (text.charAt(start) != '`' && text.charAt(start) != '~')) {
+            return 0;
+        }
+        char c = text.charAt(start);
+        int i = start;
+        while (i < text.length() && text.charAt(i) == c) {
+            i++;
+        }
+        return i - start;
+    }
+
+    /**
+     * Bloc de code extrait: langage annoncé par la balise (éventuellement vide) et contenu.
+     */
+    public static final class CodeBlock {
+        private final String language;
+        private final String code;
+
+        CodeBlock(String language, String code) {
+            this.language = language;
+            this.code = code;
+        }
+
+        public String getLanguage() {
+            return language;
+        }
+
+        public String getCode() {
+            return code;
+        }
+    }
+}
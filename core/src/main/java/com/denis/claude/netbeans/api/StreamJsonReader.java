@@ -0,0 +1,209 @@
+package com.denis.claude.netbeans.api;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+
+import java.util.function.Consumer;
+
+/**
+ * Lecture de la sortie {@code --output-format stream-json} du CLI, un événement JSON par ligne.
+ * Le texte des réponses est transmis au fil de l'eau: token par token avec
+ * {@code --include-partial-messages} ({@code stream_event}), sinon message par message
+ * ({@code assistant}). L'événement final ({@code result})
+ * donne la réponse complète, la consommation de tokens et le coût. Les lignes qui ne sont
+ * pas du JSON (messages d'erreur du CLI) sont conservées telles quelles.
+ */
+final class StreamJsonReader {
+
+    private final Consumer<String> onOutput;
+    private final StringBuilder raw = new StringBuilder();
+    private final StringBuilder streamed = new StringBuilder();
+    private String result;
+    private boolean error;
+    private Usage usage;
+    // Messages partiels: le message en cours a-t-il déjà été transmis par fragments ?
+    private boolean newMessage = true;
+    private boolean messageStreamed;
+
+    StreamJsonReader(Consumer<String> onOutput) {
+        this.onOutput = onOutput;
+    }
+
+    void accept(String line) {
+        JsonObject event = parse(line);
+        if (event == null) {
+            raw.append(raw.length() > 0 ? "\n" : "").append(line);
+            return;
+        }
+        String type = string(event, "type");
+        if ("stream_event".equals(type)) {
+            streamEvent(event);
+        } else if ("assistant".equals(type)) {
+            assistant(event);
+        } else if ("result".equals(type)) {
+            result = string(event, "result");
+            error = event.has("is_error") && event.get("is_error").getAsBoolean();
+            usage = Usage.from(event);
+        }
+    }
+
+    /**
+     * Événement partiel: début d'un message, ou fragment de texte transmis aussitôt.
+     */
+    private void streamEvent(JsonObject event) {
+        JsonObject inner = object(event, "event");
+        if (inner == null) {
+            return;
+        }
+        String type = string(inner, "type");
+        if ("message_start".equals(type)) {
+            newMessage = true;
+            messageStreamed = false;
+            return;
+        }
+        if (!"content_block_delta".equals(type)) {
+            return;
+        }
+        JsonObject delta = object(inner, "delta");
+        if (delta == null || !"text_delta".equals(string(delta, "type"))) {
+            return;
+        }
+        String text = string(delta, "text");
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        emit(newMessage && streamed.length() > 0 ? "\n\n" + text : text);
+        newMessage = false;
+        messageStreamed = true;
+    }
+
+    /**
+     * Message de l'assistant: seul un message sans appel d'outil est une réponse (les autres
+     * sont des étapes intermédiaires, qui n'ont pas à atterrir dans l'éditeur).
+     */
+    private void assistant(JsonObject event) {
+        if (messageStreamed) {
+            return; // Déjà transmis fragment par fragment
+        }
+        JsonElement message = event.get("message");
+        if (message == null || !message.isJsonObject()) {
+            return;
+        }
+        JsonElement content = message.getAsJsonObject().get("content");
+        if (content == null || !content.isJsonArray()) {
+            return;
+        }
+        JsonArray blocks = content.getAsJsonArray();
+        StringBuilder text = new StringBuilder();
+        for (JsonElement block : blocks) {
+            if (!block.isJsonObject()) {
+                continue;
+            }
+            String blockType = string(block.getAsJsonObject(), "type");
+            if ("tool_use".equals(blockType)) {
+                return;
+            }
+            if ("text".equals(blockType)) {
+                text.append(string(block.getAsJsonObject(), "text"));
+            }
+        }
+        if (text.length() == 0) {
+            return;
+        }
+        emit(streamed.length() > 0 ? "\n\n" + text : text.toString());
+    }
+
+    private void emit(String chunk) {
+        streamed.append(chunk);
+        if (onOutput != null) {
+            onOutput.accept(chunk);
+        }
+    }
+
+    /**
+     * Réponse finale, ou à défaut le texte reçu au fil de l'eau, ou la sortie brute.
+     */
+    String getText() {
+        if (result != null) {
+            return result;
+        }
+        return streamed.length() > 0 ? streamed.toString() : raw.toString();
+    }
+
+    /**
+     * Vrai si le CLI a signalé une erreur dans son événement final.
+     */
+    boolean isError() {
+        return error;
+    }
+
+    /**
+     * Consommation rapportée par le CLI, ou null s'il n'a pas produit d'événement final.
+     */
+    Usage getUsage() {
+        return usage;
+    }
+
+    private static JsonObject parse(String line) {
+        String trimmed = line.trim();
+        if (!trimmed.startsWith("{")) {
+            return null;
+        }
+        try {
+            JsonElement element = JsonParser.parseString(trimmed);
+            return element.isJsonObject() ? element.getAsJsonObject() : null;
+        } catch (JsonSyntaxException e) {
+            return null;
+        }
+    }
+
+    private static JsonObject object(JsonObject object, String name) {
+        JsonElement element = object.get(name);
+        return element != null && element.isJsonObject() ? element.getAsJsonObject() : null;
+    }
+
+    private static String string(JsonObject object, String name) {
+        JsonElement element = object.get(name);
+        return element != null && element.isJsonPrimitive() ? element.getAsString() : null;
+    }
+
+    /**
+     * Consommation d'une requête: tokens d'entrée facturés pleinement, écrits dans le cache,
+     * lus depuis le cache, tokens de sortie, et coût estimé par le CLI (en dollars).
+     */
+    static final class Usage {
+        final long inputTokens;
+        final long cacheCreationTokens;
+        final long cacheReadTokens;
+        final long outputTokens;
+        final double costUsd;
+
+        Usage(long inputTokens, long cacheCreationTokens, long cacheReadTokens, long outputTokens, double costUsd) {
+            this.inputTokens = inputTokens;
+            this.cacheCreationTokens = cacheCreationTokens;
+            this.cacheReadTokens = cacheReadTokens;
+            this.outputTokens = outputTokens;
+            this.costUsd = costUsd;
+        }
+
+        static Usage from(JsonObject result) {
+            JsonElement element = result.get("usage");
+            if (element == null || !element.isJsonObject()) {
+                return null;
+            }
+            JsonObject usage = element.getAsJsonObject();
+            JsonElement cost = result.get("total_cost_usd");
+            return new Usage(count(usage, "input_tokens"), count(usage, "cache_creation_input_tokens"),
+                    count(usage, "cache_read_input_tokens"), count(usage, "output_tokens"),
+                    cost != null && cost.isJsonPrimitive() ? cost.getAsDouble() : 0);
+        }
+
+        private static long count(JsonObject usage, String name) {
+            JsonElement element = usage.get(name);
+            return element != null && element.isJsonPrimitive() ? element.getAsLong() : 0;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.denis.claude.netbeans.api;
+
+import com.denis.claude.netbeans.util.PluginStorage;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Consommation du CLI (requêtes, durée, tokens, coût) agrégée par jour, action et projet.
+ * Une requête ne crée pas de ligne: elle incrémente le compteur de son jour, ce qui garde
+ * le fichier petit ({@code usage/daily.json}, 90 jours conservés). L'écriture est différée
+ * de quelques secondes pour regrouper les requêtes rapprochées.
+ */
+public class UsageStore {
+
+    private static final Logger LOG = Logger.getLogger(UsageStore.class.getName());
+
+    private static final int RETENTION_DAYS = 90;
+    private static final int SAVE_DELAY_SECONDS = 5;
+    private static final String NO_PROJECT = "(aucun projet)";
+    private static final File HOME = new File(System.getProperty("user.home"));
+
+    /**
+     * Regroupement des lignes du tableau de bord.
+     */
+    public enum GroupBy {
+        ACTION("Action"),
+        PROJECT("Projet"),
+        DAY("Jour");
+
+        private final String label;
+
+        GroupBy(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private static UsageStore instance;
+
+    private final File file;
+    private final Gson gson = new Gson();
+    private final Map<String, Bucket> buckets = new LinkedHashMap<>();
+    private final ScheduledExecutorService saver;
+    private ScheduledFuture<?> pendingSave;
+
+    private UsageStore() {
+        file = new File(PluginStorage.getDirectory("usage"), "daily.json");
+        saver = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Claude usage");
+            t.setDaemon(true);
+            return t;
+        });
+        load();
+    }
+
+    public static synchronized UsageStore getInstance() {
+        if (instance == null) {
+            instance = new UsageStore();
+        }
+        return instance;
+    }
+
+    /**
+     * Enregistre une requête terminée. {@code usage} est null si le CLI n'a rien rapporté
+     * (échec, délai dépassé): seules la durée et l'échec sont alors comptés.
+     */
+    synchronized void record(PromptTemplate template, File workingDir, long durationMillis, boolean failed,
+            StreamJsonReader.Usage usage) {
+        String day = LocalDate.now().toString();
+        String project = projectName(workingDir);
+        Bucket bucket = buckets.computeIfAbsent(day + '|' + template.name() + '|' + project,
+                k -> new Bucket(day, template.name(), project));
+        bucket.requests++;
+        bucket.durationMillis += durationMillis;
+        if (failed) {
+            bucket.failures++;
+        }
+        if (usage != null) {
+            bucket.costUsd += usage.costUsd;
+            bucket.inputTokens += usage.inputTokens;
+            bucket.cacheCreationTokens += usage.cacheCreationTokens;
+            bucket.cacheReadTokens += usage.cacheReadTokens;
+            bucket.outputTokens += usage.outputTokens;
+        }
+        scheduleSave();
+    }
+
+    /**
+     * Totaux des {@code days} derniers jours (aujourd'hui compris), regroupés, par coût décroissant
+     * (par date décroissante pour un regroupement par jour).
+     */
+    public synchronized List<Row> summarize(int days, GroupBy groupBy) {
+        String since = LocalDate.now().minusDays(days - 1L).toString();
+        Map<String, Row> rows = new LinkedHashMap<>();
+        for (Bucket bucket : buckets.values()) {
+            if (bucket.day.compareTo(since) < 0) {
+                continue;
+            }
+            String key;
+            switch (groupBy) {
+                case PROJECT:
+                    key = bucket.project;
+                    break;
+                case DAY:
+                    key = bucket.day;
+                    break;
+                default:
+                    key = labelOf(bucket.action);
+                    break;
+            }
+            rows.computeIfAbsent(key, Row::new).add(bucket);
+        }
+        List<Row> result = new ArrayList<>(rows.values());
+        result.sort(groupBy == GroupBy.DAY
+                ? Comparator.comparing(Row::getKey).reversed()
+                : Comparator.comparingDouble(Row::getCostUsd).reversed().thenComparing(Row::getRequests,
+                        Comparator.reverseOrder()));
+        return result;
+    }
+
+    private static String labelOf(String action) {
+        try {
+            return PromptTemplate.valueOf(action).getLabel();
+        } catch (IllegalArgumentException e) {
+            return action; // Action d'une autre version du plugin
+        }
+    }
+
+    private static String projectName(File workingDir) {
+        if (workingDir == null || workingDir.equals(HOME)) {
+            return NO_PROJECT;
+        }
+        return workingDir.getName();
+    }
+
+    /**
+     * Enregistre immédiatement (fin d'une exécution autonome, avant l'arrêt de la JVM).
+     */
+    public void flush() {
+        synchronized (this) {
+            if (pendingSave != null) {
+                pendingSave.cancel(false);
+            }
+        }
+        save();
+    }
+
+    private void scheduleSave() {
+        if (pendingSave == null || pendingSave.isDone()) {
+            pendingSave = saver.schedule(this::save, SAVE_DELAY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private void load() {
+        if (!file.isFile()) {
+            return;
+        }
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            List<Bucket> list = gson.fromJson(reader, new TypeToken<List<Bucket>>() { }.getType());
+            if (list == null) {
+                return;
+            }
+            String oldest = LocalDate.now().minusDays(RETENTION_DAYS).toString();
+            for (Bucket bucket : list) {
+                if (bucket.day != null && bucket.action != null && bucket.day.compareTo(oldest) >= 0) {
+                    buckets.put(bucket.day + '|' + bucket.action + '|' + bucket.project, bucket);
+                }
+            }
+        } catch (IOException | JsonParseException e) {
+            LOG.log(Level.WARNING, "Lecture impossible: " + file, e);
+        }
+    }
+
+    /**
+     * Réécrit le fichier (fichier temporaire puis déplacement atomique).
+     */
+    private void save() {
+        String json;
+        synchronized (this) {
+            json = gson.toJson(new ArrayList<>(buckets.values()));
+        }
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try {
+            try (Writer out = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+                out.write(json);
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Enregistrement impossible: " + file, e);
+        }
+    }
+
+    private static final class Bucket {
+        final String day;
+        final String action;
+        final String project;
+        long requests;
+        long failures;
+        long durationMillis;
+        double costUsd;
+        long inputTokens;
+        long cacheCreationTokens;
+        long cacheReadTokens;
+        long outputTokens;
+
+        Bucket(String day, String action, String project) {
+            this.day = day;
+            this.action = action;
+            this.project = project;
+        }
+    }
+
+    /**
+     * Ligne du tableau de bord: totaux d'un regroupement.
+     */
+    public static final class Row {
+        private final String key;
+        private long requests;
+        private long failures;
+        private long durationMillis;
+        private double costUsd;
+        private long inputTokens;
+        private long cacheReadTokens;
+        private long outputTokens;
+
+        private Row(String key) {
+            this.key = key;
+        }
+
+        private void add(Bucket bucket) {
+            requests += bucket.requests;
+            failures += bucket.failures;
+            durationMillis += bucket.durationMillis;
+            costUsd += bucket.costUsd;
+            inputTokens += bucket.inputTokens + bucket.cacheCreationTokens + bucket.cacheReadTokens;
+            cacheReadTokens += bucket.cacheReadTokens;
+            outputTokens += bucket.outputTokens;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public long getAverageMillis() {
+            return requests == 0 ? 0 : durationMillis / requests;
+        }
+
+        public double getCostUsd() {
+            return costUsd;
+        }
+
+        /**
+         * Tokens d'entrée, y compris ceux écrits dans le cache ou relus depuis celui-ci.
+         */
+        public long getInputTokens() {
+            return inputTokens;
+        }
+
+        /**
+         * Part (0 à 1) des tokens d'entrée relus depuis le cache de prompt.
+         */
+        public double getCacheHitRate() {
+            return inputTokens == 0 ? 0 : (double) cacheReadTokens / inputTokens;
+        }
+
+        public long getOutputTokens() {
+            return outputTokens;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.denis.claude.netbeans.context;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Assemble le prompt envoyé au CLI en respectant un budget de tokens
+ * (le paramètre "Tokens maximum"). Chaque morceau de contexte est estimé, puis
+ * les morceaux sont retenus par ordre d'importance: instruction, sélection,
+ * code environnant, fichiers joints, historique. Un morceau qui ne tient pas
+ * est tronqué à une fin de ligne, ou abandonné s'il ne reste presque plus de place.
+ * Le résultat ne dépend que des entrées: un même contexte donne toujours le même prompt.
+ */
+public class ContextAssembler {
+
+    private static final Logger LOG = Logger.getLogger(ContextAssembler.class.getName());
+
+    // En dessous de ce reste, tronquer un morceau n'apporte plus rien
+    private static final int MIN_PIECE_TOKENS = 64;
+
+    /**
+     * Nature d'un morceau de contexte, par ordre décroissant d'importance.
+     */
+    public enum Kind {
+        INSTRUCTION,
+        SELECTION,
+        SURROUNDING,
+        FILE,
+        HISTORY
+    }
+
+    /**
+     * Côté conservé quand un morceau doit être tronqué.
+     */
+    public enum Trim {
+        NONE,
+        KEEP_HEAD,
+        KEEP_TAIL
+    }
+
+    private final int budget;
+    private final List<Piece> pieces = new ArrayList<>();
+    private int estimatedTokens;
+    private int trimmedCount;
+    private int droppedCount;
+
+    public ContextAssembler(int budgetTokens) {
+        this.budget = budgetTokens;
+    }
+
+    public ContextAssembler add(Piece piece) {
+        if (piece != null && !piece.content.isEmpty()) {
+            pieces.add(piece);
+        }
+        return this;
+    }
+
+    public ContextAssembler addAll(List<Piece> list) {
+        list.forEach(this::add);
+        return this;
+    }
+
+    /**
+     * Estimation du nombre de tokens d'un texte (environ 3,5 caractères par token
+     * pour un mélange de code et de prose). Volontairement simple et déterministe.
+     */
+    public static int estimateTokens(String text) {
+        return text == null ? 0 : (text.length() * 2 + 6) / 7;
+    }
+
+    /**
+     * Construit le prompt: les morceaux retenus sont émis dans leur ordre d'ajout.
+     */
+    public String assemble() {
+        List<Piece> byImportance = new ArrayList<>(pieces);
+        byImportance.sort(Comparator.comparing((Piece p) -> p.kind)); // tri stable
+
+        String[] rendered = new String[pieces.size()];
+        int remaining = budget;
+        estimatedTokens = 0;
+        trimmedCount = 0;
+        droppedCount = 0;
+
+        for (Piece piece : byImportance) {
+            String text = piece.render(piece.content);
+            int tokens = estimateTokens(text);
+            if (tokens > remaining && piece.kind != Kind.INSTRUCTION) {
+                int available = remaining - estimateTokens(piece.render(""));
+                if (piece.trim == Trim.NONE || available < MIN_PIECE_TOKENS) {
+                    droppedCount++;
+                    continue;
+                }
+                text = piece.render(truncate(piece.content, available, piece.trim));
+                tokens = estimateTokens(text);
+                trimmedCount++;
+            }
+            rendered[pieces.indexOf(piece)] = text;
+            remaining -= tokens;
+            estimatedTokens += tokens;
+        }
+
+        StringBuilder prompt = new StringBuilder();
+        for (String text : rendered) {
+            if (text == null) {
+                continue;
+            }
+            if (prompt.length() > 0) {
+                prompt.append("\n\n");
+            }
+            prompt.append(text);
+        }
+
+        if (trimmedCount > 0 || droppedCount > 0) {
+            LOG.log(Level.FINE, "Contexte ajusté au budget de {0} tokens: {1} tronqué(s), {2} abandonné(s)",
+                    new Object[]{budget, trimmedCount, droppedCount});
+        }
+        return prompt.toString();
+    }
+
+    /**
+     * Tokens estimés du dernier prompt assemblé.
+     */
+    public int getEstimatedTokens() {
+        return estimatedTokens;
+    }
+
+    public int getTrimmedCount() {
+        return trimmedCount;
+    }
+
+    public int getDroppedCount() {
+        return droppedCount;
+    }
+
+    private static String truncate(String content, int tokens, Trim trim) {
+        int maxChars = Math.max(0, tokens * 7 / 2 - 40); // réserve pour le marqueur
+        if (content.length() <= maxChars) {
+            return content;
+        }
+        if (trim == Trim.KEEP_HEAD) {
+            int cut = content.lastIndexOf('\n', maxChars);
+            cut = cut > 0 ? cut : maxChars;
+            return content.substring(0, cut) + "\n[... " + countLines(content, cut, content.length()) + " lignes tronquées ...]";
+        }
+        int from = content.length() - maxChars;
+        int cut = content.indexOf('\n', from);
+        cut = cut >= 0 && cut < content.length() - 1 ? cut + 1 : from;
+        return "[... " + countLines(content, 0, cut) + " lignes tronquées ...]\n" + content.substring(cut);
+    }
+
+    private static int countLines(String text, int from, int to) {
+        int lines = 1;
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Morceau de contexte: contenu brut plus un gabarit d'en-tête.
+     */
+    public static final class Piece {
+        final Kind kind;
+        final Trim trim;
+        final String header;
+        final String footer;
+        final String content;
+
+        private Piece(Kind kind, Trim trim, String header, String footer, String content) {
+            this.kind = kind;
+            this.trim = trim;
+            this.header = header;
+            this.footer = footer;
+            this.content = content == null ? "" : content;
+        }
+
+        String render(String body) {
+            return header + body + footer;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Tokens estimés du morceau complet, en-tête compris.
+         */
+        public int getEstimatedTokens() {
+            return estimateTokens(render(content));
+        }
+
+        public static Piece instruction(String text) {
+            return new Piece(Kind.INSTRUCTION, Trim.NONE, "", "", text);
+        }
+
+        /**
+         * Texte libre de l'utilisateur (message de chat, description): tronqué en fin si nécessaire.
+         */
+        public static Piece request(String text) {
+            return new Piece(Kind.SELECTION, Trim.KEEP_HEAD, "", "", text);
+        }
+
+        public static Piece selection(String code, String language) {
+            return new Piece(Kind.SELECTION, Trim.KEEP_HEAD,
+                    "Voici du code " + language + " à analyser:\n\n```" + language + "\n", "\n```", code);
+        }
+
+        /**
+         * Document complet servant de base à un diff: jamais tronqué (abandonné s'il ne tient pas).
+         * L'appelant l'exclut du budget (voir {@link #getEstimatedTokens()}) et vérifie qu'il a été retenu.
+         */
+        public static Piece document(String fileName, String language, String content) {
+            return new Piece(Kind.SELECTION, Trim.NONE,
+                    "Contenu actuel du fichier " + fileName + ":\n\n```" + language.toLowerCase() + "\n", "\n```", content);
+        }
+
+        public static Piece codeBefore(String code, String language) {
+            return new Piece(Kind.SURROUNDING, Trim.KEEP_TAIL,
+                    "Code qui précède:\n```" + language + "\n", "\n```", code);
+        }
+
+        public static Piece codeAfter(String code, String language) {
+            return new Piece(Kind.SURROUNDING, Trim.KEEP_HEAD,
+                    "Code qui suit:\n```" + language + "\n", "\n```", code);
+        }
+
+        public static Piece file(String path, String language, String content) {
+            return new Piece(Kind.FILE, Trim.KEEP_HEAD,
+                    "Fichier lié " + path + ":\n```" + language.toLowerCase() + "\n", "\n```", content);
+        }
+
+        public static Piece history(String text) {
+            return new Piece(Kind.HISTORY, Trim.KEEP_TAIL, "Échanges précédents:\n", "", text);
+        }
+    }
+}
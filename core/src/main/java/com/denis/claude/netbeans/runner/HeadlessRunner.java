@@ -0,0 +1,283 @@
+package com.denis.claude.netbeans.runner;
+
+import com.denis.claude.netbeans.api.ClaudeApiClient;
+import com.denis.claude.netbeans.api.RequestScheduler;
+import com.denis.claude.netbeans.api.UsageStore;
+import com.denis.claude.netbeans.context.ContextAssembler;
+import com.denis.claude.netbeans.settings.ClaudeSettings;
+import com.denis.claude.netbeans.util.HostEnvironment;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exécution des prompts du plugin hors de l'IDE (scripts, traitements de nuit).
+ *
+ * Lit une requête JSON par ligne, les exécute en parallèle via l'ordonnanceur du plugin
+ * et écrit un résultat JSON par ligne, dans l'ordre où les requêtes se terminent:
+ * <pre>
+ * {"id": "1", "template": "explain", "language": "java", "text": "...", "context": ["src/A.java"]}
+ * {"id": "1", "template": "explain", "ok": true, "response": "...", "durationMillis": 8123}
+ * </pre>
+ * Modèles: {@code explain}, {@code analyze} (avec {@code instruction}), {@code generate}
+ * ({@code text} = description), {@code edit} ({@code file}, {@code instruction}; le contenu
+ * est lu depuis le fichier si {@code text} est absent) et {@code chat} (sans historique).
+ */
+public final class HeadlessRunner {
+
+    private static final String USAGE = "Usage: java -jar claude-netbeans-core.jar [options]\n"
+            + "  --input <fichier>    requêtes JSONL (défaut: entrée standard)\n"
+            + "  --output <fichier>   résultats JSONL (défaut: sortie standard)\n"
+            + "  --parallel <n>       processus Claude Code simultanés (défaut: réglage du plugin)\n"
+            + "  --dir <répertoire>   répertoire de travail des requêtes (défaut: répertoire courant)\n"
+            + "  --claude <chemin>    chemin du CLI (enregistré pour les exécutions suivantes)";
+
+    private final Gson gson = new Gson();
+    private final ClaudeApiClient client;
+    private final File workingDir;
+    private final PrintWriter out;
+    private final Semaphore inFlight;
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private HeadlessRunner(File workingDir, int parallel, PrintWriter out) {
+        this.client = ClaudeApiClient.getInstance();
+        this.workingDir = workingDir;
+        this.out = out;
+        // Lecture au rythme de l'exécution: quelques requêtes d'avance par processus, pas tout le fichier
+        this.inFlight = new Semaphore(parallel * 4);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String input = null;
+        String output = null;
+        String claudePath = null;
+        int parallel = 0;
+        File dir = new File(System.getProperty("user.dir"));
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            if (value == null || !args[i].startsWith("--")) {
+                exit(args[i]);
+            }
+            switch (args[i++]) {
+                case "--input":
+                    input = value;
+                    break;
+                case "--output":
+                    output = value;
+                    break;
+                case "--parallel":
+                    try {
+                        parallel = Integer.parseInt(value);
+                    } catch (NumberFormatException e) {
+                        exit(value);
+                    }
+                    break;
+                case "--dir":
+                    dir = new File(value).getAbsoluteFile();
+                    break;
+                case "--claude":
+                    claudePath = value;
+                    break;
+                default:
+                    exit(args[i - 1]);
+            }
+        }
+
+        File projectDir = dir;
+        HostEnvironment.setDefault(new HostEnvironment() {
+            @Override
+            public File getProjectDirectory() {
+                return projectDir;
+            }
+        });
+        if (claudePath != null) {
+            ClaudeSettings.getInstance().setClaudePath(claudePath);
+        }
+        if (parallel <= 0) {
+            parallel = ClaudeSettings.getInstance().getMaxConcurrentRequests();
+        }
+        RequestScheduler.getInstance().setMaxConcurrent(parallel);
+
+        try (BufferedReader reader = new BufferedReader(input == null
+                ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : Files.newBufferedReader(new File(input).toPath(), StandardCharsets.UTF_8));
+                PrintWriter writer = new PrintWriter(output == null
+                        ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+                        : Files.newBufferedWriter(new File(output).toPath(), StandardCharsets.UTF_8))) {
+            HeadlessRunner runner = new HeadlessRunner(dir, parallel, writer);
+            int failed = runner.run(reader);
+            UsageStore.getInstance().flush();
+            if (failed > 0) {
+                System.err.println(failed + " requête(s) en échec");
+                System.exit(1);
+            }
+        }
+    }
+
+    private static void exit(String argument) {
+        System.err.println("Argument invalide: " + argument);
+        System.err.println(USAGE);
+        System.exit(2);
+    }
+
+    /**
+     * Exécute toutes les requêtes et attend la dernière; retourne le nombre d'échecs.
+     */
+    private int run(BufferedReader reader) throws IOException, InterruptedException {
+        List<CompletableFuture<Void>> running = new ArrayList<>();
+        String line;
+        int number = 0;
+        while ((line = reader.readLine()) != null) {
+            number++;
+            if (line.isBlank()) {
+                continue;
+            }
+            Job job;
+            try {
+                job = gson.fromJson(line, Job.class);
+            } catch (JsonParseException e) {
+                job = null;
+            }
+            if (job == null) {
+                write(new Result(String.valueOf(number), null, 0, null, "Ligne " + number + ": JSON invalide"));
+                continue;
+            }
+            if (job.id == null) {
+                job.id = String.valueOf(number);
+            }
+            inFlight.acquire();
+            running.add(execute(job).whenComplete((r, e) -> inFlight.release()));
+        }
+        CompletableFuture.allOf(running.toArray(new CompletableFuture<?>[0])).join();
+        return failures.get();
+    }
+
+    private CompletableFuture<Void> execute(Job job) {
+        long start = System.currentTimeMillis();
+        CompletableFuture<String> request;
+        try {
+            request = submit(job);
+        } catch (IOException | RuntimeException e) {
+            request = CompletableFuture.failedFuture(e);
+        }
+        return request.handle((response, error) -> {
+            long duration = System.currentTimeMillis() - start;
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                write(new Result(job.id, job.template, duration, null,
+                        cause.getMessage() != null ? cause.getMessage() : cause.toString()));
+            } else {
+                write(new Result(job.id, job.template, duration, response, null));
+            }
+            return null;
+        });
+    }
+
+    private CompletableFuture<String> submit(Job job) throws IOException {
+        String template = job.template != null ? job.template.toLowerCase() : "";
+        String language = job.language != null ? job.language : "text";
+        switch (template) {
+            case "explain":
+                return client.explainCode(required(job.text, "text"), language, context(job));
+            case "analyze":
+                return client.analyzeCode(required(job.text, "text"), language, job.instruction, context(job));
+            case "generate":
+                return client.generateCode(required(job.text, "text"), language, context(job));
+            case "edit":
+                String fileName = required(job.file, "file");
+                String content = job.text != null ? job.text : read(fileName);
+                return client.requestEdit(fileName, language, content, required(job.instruction, "instruction"),
+                        null);
+            case "chat":
+                return client.sendMessageWithoutHistory(required(job.text, "text"), null);
+            default:
+                throw new IllegalArgumentException("Modèle inconnu: " + job.template);
+        }
+    }
+
+    private static String required(String value, String field) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Champ manquant: " + field);
+        }
+        return value;
+    }
+
+    /**
+     * Fichiers liés, relatifs au répertoire de travail.
+     */
+    private List<ContextAssembler.Piece> context(Job job) throws IOException {
+        if (job.context == null || job.context.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<ContextAssembler.Piece> pieces = new ArrayList<>();
+        for (String path : job.context) {
+            String name = new File(path).getName();
+            int dot = name.lastIndexOf('.');
+            pieces.add(ContextAssembler.Piece.file(path, dot > 0 ? name.substring(dot + 1) : "", read(path)));
+        }
+        return pieces;
+    }
+
+    private String read(String path) throws IOException {
+        File file = new File(path);
+        if (!file.isAbsolute()) {
+            file = new File(workingDir, path);
+        }
+        return Files.readString(file.toPath(), StandardCharsets.UTF_8);
+    }
+
+    private void write(Result result) {
+        if (!result.ok) {
+            failures.incrementAndGet();
+        }
+        String json = gson.toJson(result);
+        synchronized (out) {
+            out.println(json);
+            out.flush();
+        }
+    }
+
+    private static final class Job {
+        String id;
+        String template;
+        String language;
+        String text;
+        String instruction;
+        String file;
+        List<String> context;
+    }
+
+    private static final class Result {
+        final String id;
+        final String template;
+        final boolean ok;
+        final String response;
+        final String error;
+        final long durationMillis;
+
+        Result(String id, String template, long durationMillis, String response, String error) {
+            this.id = id;
+            this.template = template;
+            this.ok = error == null;
+            this.response = response;
+            this.error = error;
+            this.durationMillis = durationMillis;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.denis.claude.netbeans.settings;
+
+import com.denis.claude.netbeans.util.HostEnvironment;
+
+import java.io.File;
+import java.util.prefs.Preferences;
+
+/**
+ * Gestion des paramètres du plugin Claude.
+ * Stocke le chemin vers Claude Code CLI et autres préférences.
+ */
+public class ClaudeSettings {
+
+    private static final String PREF_CLAUDE_PATH = "claudePath";
+    private static final String PREF_MAX_TOKENS = "maxTokens";
+    private static final String PREF_MAX_CONCURRENT_REQUESTS = "maxConcurrentRequests";
+    private static final String PREF_PREFETCH_EXPLANATIONS = "prefetchExplanations";
+    private static final String PREF_STREAM_GENERATED_CODE = "streamGeneratedCode";
+    private static final String PREF_INLINE_COMPLETION = "inlineCompletion";
+    private static final String PREF_REVIEW_ON_SAVE = "reviewOnSave";
+    private static final String PREF_RATE_WINDOW_MINUTES = "rateWindowMinutes";
+    private static final String PREF_RATE_REQUESTS = "rateRequests";
+    private static final String PREF_RATE_TOKENS = "rateTokens";
+
+    // Chemin par défaut sur macOS (installation via npm global ou homebrew)
+    private static final String DEFAULT_CLAUDE_PATH = "/usr/local/bin/claude";
+    private static final int DEFAULT_MAX_TOKENS = 4096;
+    private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 3;
+    private static final int DEFAULT_RATE_WINDOW_MINUTES = 60;
+    private static final int DEFAULT_RATE_REQUESTS = 150;
+    private static final int DEFAULT_RATE_TOKENS = 1500000;
+
+    private static ClaudeSettings instance;
+    private final Preferences prefs;
+
+    private ClaudeSettings() {
+        prefs = HostEnvironment.getDefault().getPreferences(ClaudeSettings.class);
+    }
+
+    public static synchronized ClaudeSettings getInstance() {
+        if (instance == null) {
+            instance = new ClaudeSettings();
+        }
+        return instance;
+    }
+
+    public String getClaudePath() {
+        return prefs.get(PREF_CLAUDE_PATH, detectClaudePath());
+    }
+
+    public void setClaudePath(String claudePath) {
+        prefs.put(PREF_CLAUDE_PATH, claudePath);
+    }
+
+    public int getMaxTokens() {
+        return prefs.getInt(PREF_MAX_TOKENS, DEFAULT_MAX_TOKENS);
+    }
+
+    public void setMaxTokens(int maxTokens) {
+        prefs.putInt(PREF_MAX_TOKENS, maxTokens);
+    }
+
+    /**
+     * Nombre maximal de processus Claude Code lancés en parallèle par le plugin.
+     */
+    public int getMaxConcurrentRequests() {
+        return prefs.getInt(PREF_MAX_CONCURRENT_REQUESTS, DEFAULT_MAX_CONCURRENT_REQUESTS);
+    }
+
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        prefs.putInt(PREF_MAX_CONCURRENT_REQUESTS, maxConcurrentRequests);
+    }
+
+    /**
+     * Préchargement des explications quand une sélection reste stable (désactivé par défaut:
+     * consomme des requêtes pour des explications qui ne seront pas toujours demandées).
+     */
+    public boolean isPrefetchExplanations() {
+        return prefs.getBoolean(PREF_PREFETCH_EXPLANATIONS, false);
+    }
+
+    public void setPrefetchExplanations(boolean prefetchExplanations) {
+        prefs.putBoolean(PREF_PREFETCH_EXPLANATIONS, prefetchExplanations);
+    }
+
+    /**
+     * Insertion du code généré directement dans l'éditeur, au fil de la génération
+     * (sinon: aperçu dans une fenêtre une fois la génération terminée).
+     */
+    public boolean isStreamGeneratedCode() {
+        return prefs.getBoolean(PREF_STREAM_GENERATED_CODE, false);
+    }
+
+    public void setStreamGeneratedCode(boolean streamGeneratedCode) {
+        prefs.putBoolean(PREF_STREAM_GENERATED_CODE, streamGeneratedCode);
+    }
+
+    /**
+     * Propositions de Claude dans la complétion de code de l'éditeur (désactivé par défaut).
+     */
+    public boolean isInlineCompletion() {
+        return prefs.getBoolean(PREF_INLINE_COMPLETION, false);
+    }
+
+    public void setInlineCompletion(boolean inlineCompletion) {
+        prefs.putBoolean(PREF_INLINE_COMPLETION, inlineCompletion);
+    }
+
+    /**
+     * Relecture des zones modifiées à l'enregistrement (désactivée par défaut).
+     */
+    public boolean isReviewOnSave() {
+        return prefs.getBoolean(PREF_REVIEW_ON_SAVE, false);
+    }
+
+    public void setReviewOnSave(boolean reviewOnSave) {
+        prefs.putBoolean(PREF_REVIEW_ON_SAVE, reviewOnSave);
+    }
+
+    /**
+     * Fenêtre des budgets de requêtes et de tokens, en minutes: les budgets se rechargent
+     * progressivement sur cette durée.
+     */
+    public int getRateWindowMinutes() {
+        return prefs.getInt(PREF_RATE_WINDOW_MINUTES, DEFAULT_RATE_WINDOW_MINUTES);
+    }
+
+    public void setRateWindowMinutes(int rateWindowMinutes) {
+        prefs.putInt(PREF_RATE_WINDOW_MINUTES, rateWindowMinutes);
+    }
+
+    /**
+     * Requêtes au CLI par fenêtre (0: pas de limite).
+     */
+    public int getRateRequests() {
+        return prefs.getInt(PREF_RATE_REQUESTS, DEFAULT_RATE_REQUESTS);
+    }
+
+    public void setRateRequests(int rateRequests) {
+        prefs.putInt(PREF_RATE_REQUESTS, rateRequests);
+    }
+
+    /**
+     * Tokens estimés (prompts et réponses) par fenêtre (0: pas de limite).
+     */
+    public int getRateTokens() {
+        return prefs.getInt(PREF_RATE_TOKENS, DEFAULT_RATE_TOKENS);
+    }
+
+    public void setRateTokens(int rateTokens) {
+        prefs.putInt(PREF_RATE_TOKENS, rateTokens);
+    }
+
+    /**
+     * Détecte automatiquement le chemin de Claude Code CLI.
+     */
+    private String detectClaudePath() {
+        String path = findInstalledPath();
+        // Retourner le chemin par défaut même s'il n'existe pas
+        return path != null ? path : DEFAULT_CLAUDE_PATH;
+    }
+
+    /**
+     * Premier emplacement d'installation connu où Claude Code est présent, ou null.
+     * Accède au système de fichiers: à éviter depuis l'EDT.
+     */
+    public static String findInstalledPath() {
+        // Chemins possibles sur macOS
+        String[] possiblePaths = {
+            System.getProperty("user.home") + "/.local/bin/claude",  // Installation standard
+            System.getProperty("user.home") + "/.claude/local/claude",
+            "/usr/local/bin/claude",
+            "/opt/homebrew/bin/claude",
+            System.getProperty("user.home") + "/.npm-global/bin/claude",
+            System.getProperty("user.home") + "/node_modules/.bin/claude",
+            "/usr/bin/claude"
+        };
+
+        for (String path : possiblePaths) {
+            File file = new File(path);
+            if (file.exists() && file.canExecute()) {
+                return path;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Vérifie si Claude Code est configuré et accessible.
+     */
+    public boolean isConfigured() {
+        String claudePath = getClaudePath();
+        if (claudePath == null || claudePath.trim().isEmpty()) {
+            return false;
+        }
+        File file = new File(claudePath);
+        return file.exists() && file.canExecute();
+    }
+
+    /**
+     * Vérifie si le chemin donné est valide.
+     */
+    public static boolean isValidClaudePath(String path) {
+        if (path == null || path.trim().isEmpty()) {
+            return false;
+        }
+        File file = new File(path);
+        return file.exists() && file.canExecute();
+    }
+
+    // Méthodes de compatibilité (obsolètes, gardées pour la transition)
+    @Deprecated
+    public String getApiKey() {
+        return "";
+    }
+
+    @Deprecated
+    public void setApiKey(String apiKey) {
+        // Ignoré
+    }
+
+    @Deprecated
+    public String getModel() {
+        return "claude-code";
+    }
+
+    @Deprecated
+    public void setModel(String model) {
+        // Ignoré - Claude Code utilise le modèle configuré dans l'abonnement
+    }
+
+    @Deprecated
+    public double getTemperature() {
+        return 0.7;
+    }
+
+    @Deprecated
+    public void setTemperature(double temperature) {
+        // Ignoré
+    }
+}
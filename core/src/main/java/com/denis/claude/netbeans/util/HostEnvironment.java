@@ -0,0 +1,55 @@
+package com.denis.claude.netbeans.util;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.ServiceLoader;
+import java.util.prefs.Preferences;
+
+/**
+ * Ce que le cœur (client, prompts, stockage) attend de l'application qui l'héberge:
+ * préférences, répertoire de données et projet courant.
+ *
+ * L'implémentation par défaut convient à une exécution autonome (scripts, traitements de nuit).
+ * Dans l'IDE, le plugin enregistre la sienne comme service ({@code META-INF/services}).
+ */
+public class HostEnvironment {
+
+    private static HostEnvironment instance;
+
+    public static synchronized HostEnvironment getDefault() {
+        if (instance == null) {
+            Iterator<HostEnvironment> it = ServiceLoader.load(HostEnvironment.class,
+                    HostEnvironment.class.getClassLoader()).iterator();
+            instance = it.hasNext() ? it.next() : new HostEnvironment();
+        }
+        return instance;
+    }
+
+    /**
+     * Remplace l'environnement (exécution autonome); à appeler avant le premier usage du client.
+     */
+    public static synchronized void setDefault(HostEnvironment environment) {
+        instance = environment;
+    }
+
+    /**
+     * Nœud de préférences d'un composant.
+     */
+    public Preferences getPreferences(Class<?> owner) {
+        return Preferences.userNodeForPackage(owner);
+    }
+
+    /**
+     * Racine des données persistantes (historique, index, files d'attente).
+     */
+    public File getStorageDirectory() {
+        return new File(System.getProperty("user.home"), ".claude-netbeans");
+    }
+
+    /**
+     * Répertoire de travail des requêtes qui ne précisent pas le leur.
+     */
+    public File getProjectDirectory() {
+        return new File(System.getProperty("user.dir"));
+    }
+}
@@ -0,0 +1,22 @@
+package com.denis.claude.netbeans.util;
+
+import java.io.File;
+
+/**
+ * Emplacement des données persistantes du plugin (historique, index, files d'attente).
+ * Les fichiers sont rangés sous le répertoire de données de l'hôte ({@link HostEnvironment}):
+ * le répertoire utilisateur de NetBeans dans l'IDE.
+ */
+public class PluginStorage {
+
+    /**
+     * Retourne (et crée si besoin) un sous-répertoire de stockage du plugin.
+     */
+    public static File getDirectory(String name) {
+        File dir = new File(HostEnvironment.getDefault().getStorageDirectory(), name);
+        if (!dir.isDirectory()) {
+            dir.mkdirs();
+        }
+        return dir;
+    }
+}
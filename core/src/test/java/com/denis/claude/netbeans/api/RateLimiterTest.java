@@ -0,0 +1,231 @@
+package com.denis.claude.netbeans.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.denis.claude.netbeans.api.RequestScheduler.Priority;
+import com.denis.claude.netbeans.settings.ClaudeSettings;
+import com.denis.claude.netbeans.util.HostEnvironment;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.prefs.BackingStoreException;
+import java.util.prefs.Preferences;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Budget de test: 10 requêtes et 10000 tokens sur 10 minutes, soit une requête
+ * toutes les 60 s et un token toutes les 60 ms.
+ */
+class RateLimiterTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private static Preferences prefs;
+
+    @TempDir
+    Path storage;
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private File file;
+    private RateLimiter limiter;
+
+    @BeforeAll
+    static void configure() {
+        prefs = Preferences.userRoot().node("claude-netbeans-test-" + System.nanoTime());
+        HostEnvironment.setDefault(new HostEnvironment() {
+            @Override
+            public Preferences getPreferences(Class<?> owner) {
+                return prefs;
+            }
+        });
+        ClaudeSettings settings = ClaudeSettings.getInstance();
+        settings.setRateRequests(10);
+        settings.setRateTokens(10000);
+        settings.setRateWindowMinutes(10);
+    }
+
+    @AfterAll
+    static void cleanUp() throws BackingStoreException {
+        prefs.removeNode();
+        HostEnvironment.setDefault(null);
+    }
+
+    @BeforeEach
+    void createLimiter() {
+        file = storage.resolve("state.json").toFile();
+        limiter = new RateLimiter(file, now::get);
+    }
+
+    private void advance(long millis) {
+        now.addAndGet(millis);
+        limiter.wake();
+    }
+
+    private List<CompletableFuture<Void>> acquire(Priority priority, int count) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            futures.add(limiter.acquire(priority, 0));
+        }
+        return futures;
+    }
+
+    private JsonObject savedState() throws IOException {
+        return JsonParser.parseString(Files.readString(file.toPath(), StandardCharsets.UTF_8)).getAsJsonObject();
+    }
+
+    @Test
+    void requestBucketRefillsOverTheWindow() {
+        assertTrue(acquire(Priority.INTERACTIVE, 10).stream().allMatch(CompletableFuture::isDone));
+
+        CompletableFuture<Void> next = limiter.acquire(Priority.INTERACTIVE, 0);
+        assertFalse(next.isDone());
+        assertEquals(1, limiter.getWaitingCount());
+        // La requête en attente passe d'abord: la suivante attend deux recharges
+        assertEquals(2 * MINUTE, limiter.expectedWaitMillis(Priority.INTERACTIVE, 0));
+
+        advance(MINUTE / 2);
+        assertFalse(next.isDone());
+        advance(MINUTE / 2 + 1000);
+        assertTrue(next.isDone());
+        assertEquals(0, limiter.getWaitingCount());
+    }
+
+    @Test
+    void tokenBucketCoversEstimatesAndReportedUsage() {
+        assertTrue(limiter.acquire(Priority.INTERACTIVE, 6000).isDone());
+        limiter.recordSuccess(new StreamJsonReader.Usage(0, 0, 0, 2000, 0));
+        assertEquals(0, limiter.expectedWaitMillis(Priority.INTERACTIVE, 2000));
+        assertEquals(3000 * 60, limiter.expectedWaitMillis(Priority.INTERACTIVE, 5000));
+
+        CompletableFuture<Void> large = limiter.acquire(Priority.INTERACTIVE, 5000);
+        assertFalse(large.isDone());
+        advance(3000 * 60);
+        assertTrue(large.isDone());
+    }
+
+    @Test
+    void requestLargerThanBudgetWaitsForFullBucket() {
+        assertTrue(limiter.acquire(Priority.INTERACTIVE, 1000).isDone());
+        CompletableFuture<Void> huge = limiter.acquire(Priority.INTERACTIVE, 50000);
+        assertFalse(huge.isDone());
+        advance(1000 * 60);
+        assertTrue(huge.isDone());
+    }
+
+    @Test
+    void lowerPrioritiesLeaveReserve() {
+        // Arrière-plan: 30 % de réserve, soit 7 requêtes sur 10
+        List<CompletableFuture<Void>> background = acquire(Priority.BACKGROUND, 8);
+        assertEquals(7, background.stream().filter(CompletableFuture::isDone).count());
+        assertFalse(background.get(7).isDone());
+
+        // Les requêtes interactives passent devant celle qui attend, sans réserve
+        assertTrue(limiter.acquire(Priority.INTERACTIVE, 0).isDone());
+        // Normale: 10 % de réserve, soit un seul des deux restants
+        List<CompletableFuture<Void>> normal = acquire(Priority.NORMAL, 2);
+        assertTrue(normal.get(0).isDone());
+        assertFalse(normal.get(1).isDone());
+        assertTrue(limiter.acquire(Priority.INTERACTIVE, 0).isDone());
+
+        // Recharge: la requête normale est servie avant celle d'arrière-plan arrivée plus tôt
+        advance(2 * MINUTE + 1000);
+        assertTrue(normal.get(1).isDone());
+        assertFalse(background.get(7).isDone());
+    }
+
+    @Test
+    void cancelledRequestLeavesTheQueue() {
+        acquire(Priority.INTERACTIVE, 10);
+        CompletableFuture<Void> first = limiter.acquire(Priority.INTERACTIVE, 0);
+        CompletableFuture<Void> second = limiter.acquire(Priority.INTERACTIVE, 0);
+        first.cancel(true);
+        assertEquals(1, limiter.getWaitingCount());
+        advance(MINUTE + 1000);
+        assertTrue(second.isDone());
+        assertFalse(second.isCancelled());
+    }
+
+    @Test
+    void rateLimitBlocksWithGrowingBackoff() throws IOException {
+        long start = now.get();
+        assertEquals(start + MINUTE, limiter.reportRateLimited("429 Too Many Requests"));
+        assertTrue(limiter.isBlocked());
+        assertEquals(0.75, savedState().get("factor").getAsDouble(), 1e-9);
+
+        // Les requêtes parties avant le blocage échouent aussi: ni nouvelle réduction ni délai doublé
+        assertEquals(start + MINUTE, limiter.reportRateLimited("429 Too Many Requests"));
+        assertEquals(0.75, savedState().get("factor").getAsDouble(), 1e-9);
+
+        CompletableFuture<Void> waiting = limiter.acquire(Priority.INTERACTIVE, 0);
+        assertFalse(waiting.isDone());
+        assertTrue(limiter.describeWait(Priority.INTERACTIVE, 0).startsWith("Limite d'utilisation atteinte"));
+
+        // Seaux vidés et capacité réduite à 7,5 requêtes: une requête toutes les 80 s
+        advance(MINUTE + 1000);
+        assertFalse(limiter.isBlocked());
+        assertFalse(waiting.isDone());
+        advance(MINUTE / 3);
+        assertTrue(waiting.isDone());
+
+        // Nouveau blocage: délai doublé
+        assertEquals(now.get() + 2 * MINUTE, limiter.reportRateLimited("rate limit"));
+        assertEquals(0.5625, savedState().get("factor").getAsDouble(), 1e-9);
+    }
+
+    @Test
+    void rateLimitUsesAnnouncedResetTime() {
+        long reset = now.get() / 1000 + 3600;
+        assertEquals(reset * 1000, limiter.reportRateLimited("Claude AI usage limit reached|" + reset));
+        assertEquals(TimeUnit.HOURS.toMillis(1), limiter.expectedWaitMillis(Priority.INTERACTIVE, 0));
+    }
+
+    @Test
+    void successRestoresCapacityAndBackoff() throws IOException {
+        limiter.reportRateLimited("rate limit");
+        advance(MINUTE + 1000);
+        limiter.recordSuccess(null);
+        assertEquals(0.8, savedState().get("factor").getAsDouble(), 1e-9);
+
+        // Délai revenu au minimum
+        assertEquals(now.get() + MINUTE, limiter.reportRateLimited("rate limit"));
+    }
+
+    @Test
+    void learnedStateSurvivesRestart() {
+        long until = limiter.reportRateLimited("rate limit");
+        RateLimiter restarted = new RateLimiter(file, now::get);
+        assertTrue(restarted.isBlocked());
+        assertEquals(until - now.get(), restarted.expectedWaitMillis(Priority.INTERACTIVE, 0));
+    }
+
+    @Test
+    void recognizesRateLimitErrors() {
+        assertTrue(RateLimiter.isRateLimitError("Error: 429"));
+        assertTrue(RateLimiter.isRateLimitError("Claude AI usage limit reached|1730000000"));
+        assertTrue(RateLimiter.isRateLimitError("Rate-limited, retry later"));
+        assertFalse(RateLimiter.isRateLimitError("file not found"));
+        assertFalse(RateLimiter.isRateLimitError(null));
+    }
+
+    @Test
+    void formatsDurations() {
+        assertEquals("45 s", RateLimiter.formatDuration(44_200));
+        assertEquals("3 min", RateLimiter.formatDuration(150_000));
+        assertEquals("1 h 20", RateLimiter.formatDuration(TimeUnit.MINUTES.toMillis(80)));
+    }
+}
@@ -0,0 +1,132 @@
+package com.denis.claude.netbeans.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ResponseProcessorTest {
+
+    /**
+     * Passe le texte caractère par caractère: toute séquence ou balise est coupée entre deux morceaux.
+     */
+    private static String feedByChar(ResponseProcessor processor, String text) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            out.append(processor.accept(text.substring(i, i + 1)));
+        }
+        processor.finish();
+        return out.toString();
+    }
+
+    @Test
+    void stripsColorAndCursorSequences() {
+        assertEquals("rouge normal", ResponseProcessor.strip("\u001B[31mrouge\u001B[0m \u001B[2Knormal"));
+    }
+
+    @Test
+    void stripsEscapesSplitAcrossChunks() {
+        ResponseProcessor processor = ResponseProcessor.escapes();
+        StringBuilder out = new StringBuilder();
+        out.append(processor.accept("avant \u001B"));
+        out.append(processor.accept("[1;3"));
+        out.append(processor.accept("2mvert\u001B["));
+        out.append(processor.accept("0m après"));
+        assertEquals("avant vert après", out.toString());
+    }
+
+    @Test
+    void stripsOscTitleAndHyperlink() {
+        String text = "\u001B]0;titre\u0007lien: \u001B]8;;https://example.org\u001B\\ici\u001B]8;;\u001B\\ fin";
+        assertEquals("lien: ici fin", feedByChar(ResponseProcessor.escapes(), text));
+    }
+
+    @Test
+    void stripsC1Csi() {
+        assertEquals("ab", ResponseProcessor.strip("a\u009B1mb"));
+    }
+
+    @Test
+    void keepsTextAfterMalformedEscape() {
+        assertEquals("a\nb", ResponseProcessor.strip("a\u001B\nb"));
+    }
+
+    @Test
+    void extractsBlocksSplitAcrossChunks() {
+        ResponseProcessor processor = ResponseProcessor.codeBlocks();
+        processor.accept("Voici:\n``");
+        processor.accept("`ja");
+        processor.accept("va\nint a = 1;\nint b");
+        processor.accept(" = 2;\n`");
+        assertTrue(processor.isInsideFence());
+        processor.accept("``\nfin\n");
+        assertFalse(processor.isInsideFence());
+        processor.finish();
+
+        List<ResponseProcessor.CodeBlock> blocks = processor.getBlocks();
+        assertEquals(1, blocks.size());
+        assertEquals("java", blocks.get(0).getLanguage());
+        assertEquals("int a = 1;\nint b = 2;", blocks.get(0).getCode());
+    }
+
+    @Test
+    void handlesCrlfLineEndings() {
+        ResponseProcessor processor = ResponseProcessor.codeBlocks();
+        feedByChar(processor, "texte\r\n```xml\r\n<a/>\r\n<b/>\r\n```\r\n");
+        assertEquals(1, processor.getBlocks().size());
+        assertEquals("xml", processor.getBlocks().get(0).getLanguage());
+        assertEquals("<a/>\n<b/>", processor.getBlocks().get(0).getCode());
+    }
+
+    @Test
+    void handlesTildeFencesAndNestedBackticks() {
+        ResponseProcessor processor = ResponseProcessor.codeBlocks();
+        feedByChar(processor, "~~~markdown\n```java\nx();\n```\n~~~\n");
+        assertEquals(1, processor.getBlocks().size());
+        assertEquals("markdown", processor.getBlocks().get(0).getLanguage());
+        assertEquals("```java\nx();\n```", processor.getBlocks().get(0).getCode());
+    }
+
+    @Test
+    void closingFenceMustBeAsLongAsOpening() {
+        ResponseProcessor processor = ResponseProcessor.codeBlocks();
+        feedByChar(processor, "````\na\n```\nb\n````\n");
+        assertEquals("a\n```\nb", processor.getBlocks().get(0).getCode());
+    }
+
+    @Test
+    void ignoresInlineCodeAndTakesLanguageFirstWord() {
+        ResponseProcessor processor = ResponseProcessor.codeBlocks();
+        feedByChar(processor, "```pas une balise```\n```java title=\"A\"\nx\n```\n");
+        assertEquals(1, processor.getBlocks().size());
+        assertEquals("java", processor.getBlocks().get(0).getLanguage());
+    }
+
+    @Test
+    void closesUnterminatedBlockOnFinish() {
+        ResponseProcessor processor = ResponseProcessor.codeBlocks();
+        processor.accept("```python\nprint(1)\nprint(2)");
+        assertTrue(processor.getBlocks().isEmpty());
+        processor.finish();
+        assertEquals(1, processor.getBlocks().size());
+        assertEquals("print(1)\nprint(2)", processor.getBlocks().get(0).getCode());
+        assertFalse(processor.isInsideFence());
+    }
+
+    @Test
+    void reportsLineKinds() {
+        List<String> seen = new ArrayList<>();
+        ResponseProcessor processor = ResponseProcessor.lines((line, kind) -> seen.add(kind + ":" + line));
+        feedByChar(processor, "intro\n  ```js\n\u001B[1mf()\u001B[0m\n  ```\nfin");
+        assertEquals(List.of("TEXT:intro", "FENCE_OPEN:  ```js", "CODE:f()", "FENCE_CLOSE:  ```", "TEXT:fin"), seen);
+    }
+
+    @Test
+    void extractCodeJoinsBlocksOrFallsBackToText() {
+        assertEquals("a\n\nb", ResponseProcessor.extractCode("x\n```\na\n```\ny\n```\nb\n```\n"));
+        assertEquals("int x;", ResponseProcessor.extractCode("\n int x;\n"));
+    }
+}
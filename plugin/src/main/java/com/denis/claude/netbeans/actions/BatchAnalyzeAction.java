@@ -0,0 +1,195 @@
+package com.denis.claude.netbeans.actions;
+
+import com.denis.claude.netbeans.batch.BatchEngine;
+import com.denis.claude.netbeans.batch.BatchJob;
+import com.denis.claude.netbeans.batch.BatchKind;
+import com.denis.claude.netbeans.context.FileEntry;
+import com.denis.claude.netbeans.context.ProjectFileIndex;
+import com.denis.claude.netbeans.settings.ClaudeSettings;
+import org.netbeans.api.project.FileOwnerQuery;
+import org.netbeans.api.project.Project;
+import org.netbeans.api.queries.VisibilityQuery;
+import org.openide.awt.ActionID;
+import org.openide.awt.ActionReference;
+import org.openide.awt.ActionReferences;
+import org.openide.awt.ActionRegistration;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+import org.openide.loaders.DataObject;
+import org.openide.util.NbBundle.Messages;
+
+import javax.swing.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Action pour lancer une analyse par lots (revue, bugs, documentation) sur des dossiers.
+ * Le traitement est confié à {@link BatchEngine}: il survit à un redémarrage de l'IDE
+ * et ne réanalyse que les fichiers modifiés depuis la dernière exécution.
+ */
+@ActionID(
+        category = "Edit",
+        id = "com.denis.claude.netbeans.actions.BatchAnalyzeAction"
+)
+@ActionRegistration(
+        displayName = "#CTL_BatchAnalyzeAction"
+)
+@ActionReferences({
+        @ActionReference(path = "Loaders/folder/any/Actions", position = 1520)
+})
+@Messages("CTL_BatchAnalyzeAction=Analyser le dossier avec Claude...")
+public final class BatchAnalyzeAction implements ActionListener {
+
+    private static final Logger LOG = Logger.getLogger(BatchAnalyzeAction.class.getName());
+    private static final int MAX_FILES = 1000;
+    private static final long MAX_FILE_SIZE = 256 * 1024;
+    private static final Set<String> SOURCE_LANGUAGES = new HashSet<>(Arrays.asList(
+            "Java", "PHP", "JavaScript", "TypeScript", "CSS", "HTML", "XML", "SQL", "Python"));
+
+    private final List<DataObject> context;
+
+    public BatchAnalyzeAction(List<DataObject> context) {
+        this.context = context;
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent ev) {
+        if (!ClaudeSettings.getInstance().isConfigured()) {
+            JOptionPane.showMessageDialog(null,
+                    "Veuillez configurer votre clé API dans Tools > Options > Claude AI",
+                    "Configuration requise",
+                    JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        BatchKind kind = (BatchKind) JOptionPane.showInputDialog(null,
+                "Type d'analyse à appliquer à chaque fichier:",
+                "Analyse par lots avec Claude",
+                JOptionPane.QUESTION_MESSAGE,
+                null,
+                BatchKind.values(),
+                BatchKind.REVIEW);
+        if (kind == null) {
+            return;
+        }
+
+        List<FileObject> folders = new ArrayList<>();
+        for (DataObject dataObject : context) {
+            folders.add(dataObject.getPrimaryFile());
+        }
+
+        // Le parcours des dossiers peut être long: hors de l'EDT
+        CompletableFuture.runAsync(() -> {
+            Selection selection = new Selection();
+            for (FileObject folder : folders) {
+                collect(folder, selection);
+            }
+            if (selection.paths.isEmpty()) {
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null,
+                        selection.tooLarge > 0
+                                ? "Aucun fichier source de moins de " + MAX_FILE_SIZE / 1024 + " Ko dans la sélection"
+                                : "Aucun fichier source dans la sélection",
+                        "Aucun fichier",
+                        JOptionPane.INFORMATION_MESSAGE));
+                return;
+            }
+            FileObject first = folders.get(0);
+            BatchEngine.getInstance().submit(new BatchJob(kind, title(folders), workingDirectory(first),
+                    new ArrayList<>(selection.paths), selection.tooLarge, selection.beyondLimit));
+        }).whenComplete((result, error) -> {
+            if (error != null) {
+                LOG.log(Level.WARNING, "Impossible de lancer l'analyse par lots", error);
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null,
+                        "Impossible de lancer l'analyse: " + error.getMessage(),
+                        "Erreur",
+                        JOptionPane.ERROR_MESSAGE));
+            }
+        });
+    }
+
+    /**
+     * Fichiers sources du dossier. L'index du projet les connaît déjà une fois son parcours
+     * terminé; sinon (index en cours de construction, dossier hors projet) le dossier est parcouru.
+     */
+    private void collect(FileObject folder, Selection selection) {
+        ProjectFileIndex index = ProjectFileIndex.forFile(folder);
+        File root = index != null ? FileUtil.toFile(index.getRoot()) : null;
+        String prefix = index != null ? FileUtil.getRelativePath(index.getRoot(), folder) : null;
+        if (index == null || !index.isReady() || root == null || prefix == null) {
+            walk(folder, selection);
+            return;
+        }
+        List<FileEntry> entries = new ArrayList<>(index.getEntries());
+        entries.sort(Comparator.comparing(FileEntry::getPath));
+        for (FileEntry entry : entries) {
+            if (SOURCE_LANGUAGES.contains(entry.getLanguage())
+                    && (prefix.isEmpty() || entry.getPath().startsWith(prefix + "/"))) {
+                selection.add(new File(root, entry.getPath()), entry.getSize());
+            }
+        }
+    }
+
+    private void walk(FileObject folder, Selection selection) {
+        for (FileObject child : folder.getChildren()) {
+            if (!VisibilityQuery.getDefault().isVisible(child)) {
+                continue;
+            }
+            if (child.isFolder()) {
+                if (!ProjectFileIndex.isIgnoredFolder(child.getNameExt())) {
+                    walk(child, selection);
+                }
+            } else if (SOURCE_LANGUAGES.contains(ProjectFileIndex.languageOf(child.getNameExt()))) {
+                File file = FileUtil.toFile(child);
+                if (file != null) {
+                    selection.add(file, child.getSize());
+                }
+            }
+        }
+    }
+
+    private static String title(List<FileObject> folders) {
+        String title = folders.get(0).getPath();
+        return folders.size() > 1 ? title + " (+" + (folders.size() - 1) + ")" : title;
+    }
+
+    private static String workingDirectory(FileObject folder) {
+        Project project = FileOwnerQuery.getOwner(folder);
+        FileObject root = project != null ? project.getProjectDirectory() : folder;
+        File dir = FileUtil.toFile(root);
+        return dir != null ? dir.getAbsolutePath() : null;
+    }
+
+    /**
+     * Fichiers retenus, et ceux écartés: trop volumineux ou au-delà de MAX_FILES.
+     */
+    private static final class Selection {
+        final Set<String> paths = new LinkedHashSet<>();
+        int tooLarge;
+        int beyondLimit;
+
+        void add(File file, long size) {
+            String path = file.getAbsolutePath();
+            if (paths.contains(path)) {
+                return; // Dossiers imbriqués dans la sélection
+            }
+            if (size > MAX_FILE_SIZE) {
+                tooLarge++;
+            } else if (paths.size() >= MAX_FILES) {
+                beyondLimit++;
+            } else {
+                paths.add(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.denis.claude.netbeans.actions;
+
+import com.denis.claude.netbeans.api.ClaudeApiClient;
+import com.denis.claude.netbeans.context.ProjectFileIndex;
+import com.denis.claude.netbeans.settings.ClaudeSettings;
+import org.netbeans.api.progress.ProgressHandle;
+import org.netbeans.api.queries.VisibilityQuery;
+import org.openide.awt.ActionID;
+import org.openide.awt.ActionReference;
+import org.openide.awt.ActionReferences;
+import org.openide.awt.ActionRegistration;
+import org.openide.filesystems.FileObject;
+import org.openide.loaders.DataObject;
+import org.openide.util.NbBundle.Messages;
+import org.openide.windows.IOProvider;
+import org.openide.windows.InputOutput;
+import org.openide.windows.OutputWriter;
+
+import javax.swing.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Action pour expliquer plusieurs fichiers à la fois depuis la vue Projets.
+ * Les requêtes partent en parallèle (dans la limite des requêtes simultanées) et
+ * chaque explication est ajoutée au rapport de la fenêtre Output dès qu'elle arrive.
+ */
+@ActionID(
+        category = "Edit",
+        id = "com.denis.claude.netbeans.actions.BatchExplainAction"
+)
+@ActionRegistration(
+        displayName = "#CTL_BatchExplainAction"
+)
+@ActionReferences({
+        @ActionReference(path = "Loaders/text/x-php5/Actions", position = 1510),
+        @ActionReference(path = "Loaders/text/html/Actions", position = 1510),
+        @ActionReference(path = "Loaders/text/javascript/Actions", position = 1510),
+        @ActionReference(path = "Loaders/text/css/Actions", position = 1510),
+        @ActionReference(path = "Loaders/text/x-java/Actions", position = 1510),
+        @ActionReference(path = "Loaders/text/plain/Actions", position = 1510),
+        @ActionReference(path = "Loaders/folder/any/Actions", position = 1510)
+})
+@Messages("CTL_BatchExplainAction=Expliquer les fichiers avec Claude")
+public final class BatchExplainAction implements ActionListener {
+
+    private static final int MAX_FILES = 50;
+    private static final long MAX_FILE_SIZE = 256 * 1024;
+    private static final String INSTRUCTION = "Explique ce fichier de manière concise: son rôle, "
+            + "son fonctionnement, et tout problème potentiel.";
+
+    private final List<DataObject> context;
+
+    public BatchExplainAction(List<DataObject> context) {
+        this.context = context;
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent ev) {
+        if (!ClaudeSettings.getInstance().isConfigured()) {
+            JOptionPane.showMessageDialog(null,
+                    "Veuillez configurer votre clé API dans Tools > Options > Claude AI",
+                    "Configuration requise",
+                    JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        List<FileObject> selection = new ArrayList<>();
+        for (DataObject dataObject : context) {
+            selection.add(dataObject.getPrimaryFile());
+        }
+
+        // Le parcours des dossiers peut être long: hors de l'EDT
+        CompletableFuture.runAsync(() -> {
+            Set<FileObject> files = new LinkedHashSet<>();
+            for (FileObject fo : selection) {
+                if (fo.isFolder()) {
+                    collect(fo, files);
+                } else if (isExplainable(fo)) {
+                    files.add(fo);
+                }
+            }
+            if (files.isEmpty()) {
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null,
+                        "Aucun fichier texte à expliquer dans la sélection",
+                        "Aucun fichier",
+                        JOptionPane.INFORMATION_MESSAGE));
+                return;
+            }
+            // Un fichier de plus que la limite signale une sélection tronquée
+            boolean truncated = files.size() > MAX_FILES;
+            List<FileObject> list = new ArrayList<>(files);
+            new BatchRun(truncated ? list.subList(0, MAX_FILES) : list, truncated).start();
+        });
+    }
+
+    /**
+     * Parcours récursif d'un dossier, sans les dossiers ignorés ou invisibles,
+     * arrêté au premier fichier au-delà de MAX_FILES.
+     */
+    private void collect(FileObject folder, Set<FileObject> files) {
+        for (FileObject child : folder.getChildren()) {
+            if (files.size() > MAX_FILES) {
+                return;
+            }
+            if (!VisibilityQuery.getDefault().isVisible(child)) {
+                continue;
+            }
+            if (child.isFolder()) {
+                if (!ProjectFileIndex.isIgnoredFolder(child.getNameExt())) {
+                    collect(child, files);
+                }
+            } else if (isExplainable(child)) {
+                files.add(child);
+            }
+        }
+    }
+
+    private boolean isExplainable(FileObject fo) {
+        return fo.isData() && fo.getSize() <= MAX_FILE_SIZE
+                && (fo.getMIMEType().startsWith("text/") || !"code".equals(ExplainCodeAction.detectLanguage(fo.getNameExt())));
+    }
+
+    /**
+     * Une exécution: file de fichiers consommée par un nombre limité de travailleurs.
+     */
+    private final class BatchRun {
+
+        private final List<FileObject> files;
+        private final boolean truncated;
+        private final Queue<FileObject> queue;
+        private final InputOutput io;
+        private final ProgressHandle progress;
+        private final AtomicInteger done = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final List<CompletableFuture<String>> running = new ArrayList<>();
+        // Requêtes du client: les annuler arrête le CLI ou les retire de l'attente
+        private final List<CompletableFuture<String>> requests = new ArrayList<>();
+        private long startTime;
+        private boolean finished;
+
+        BatchRun(List<FileObject> files, boolean truncated) {
+            this.files = files;
+            this.truncated = truncated;
+            this.queue = new ConcurrentLinkedQueue<>(files);
+            this.io = IOProvider.getDefault().getIO("Claude - Explications", true);
+            this.progress = ProgressHandle.createHandle("Claude explique " + files.size() + " fichier(s)", () -> {
+                cancelled.set(true);
+                queue.clear();
+                synchronized (running) {
+                    // Copies: chaque annulation retire aussitôt le futur de sa liste
+                    new ArrayList<>(requests).forEach(f -> f.cancel(true));
+                    new ArrayList<>(running).forEach(f -> f.cancel(false));
+                }
+                return true;
+            });
+        }
+
+        void start() {
+            startTime = System.currentTimeMillis();
+            io.select();
+            OutputWriter out = io.getOut();
+            out.println("Explication de " + files.size() + " fichier(s)");
+            if (truncated) {
+                out.println("Sélection limitée aux " + MAX_FILES + " premiers fichiers: "
+                        + "choisissez un dossier plus précis pour expliquer les autres.");
+            }
+            out.println();
+
+            progress.start(files.size());
+            // Laisser un créneau libre pour le chat et les actions interactives
+            int workers = Math.min(files.size(), Math.max(1, ClaudeSettings.getInstance().getMaxConcurrentRequests() - 1));
+            for (int i = 0; i < workers; i++) {
+                next();
+            }
+        }
+
+        private void next() {
+            FileObject file = queue.poll();
+            if (file == null || cancelled.get()) {
+                return;
+            }
+            CompletableFuture<String> future = CompletableFuture
+                    .supplyAsync(() -> readText(file))
+                    .thenCompose(text -> track(ClaudeApiClient.getInstance()
+                            .analyzeCode(text, ExplainCodeAction.detectLanguage(file.getNameExt()), INSTRUCTION)));
+            synchronized (running) {
+                running.add(future);
+            }
+            future.whenComplete((explanation, error) -> {
+                synchronized (running) {
+                    running.remove(future);
+                }
+                report(file, explanation, error);
+                next();
+            });
+        }
+
+        /**
+         * Retient la requête du client pour pouvoir l'annuler, ou l'annule si l'exécution l'est déjà.
+         */
+        private CompletableFuture<String> track(CompletableFuture<String> request) {
+            synchronized (running) {
+                if (cancelled.get()) {
+                    request.cancel(true);
+                    return request;
+                }
+                requests.add(request);
+            }
+            request.whenComplete((r, e) -> {
+                synchronized (running) {
+                    requests.remove(request);
+                }
+            });
+            return request;
+        }
+
+        private synchronized void report(FileObject file, String explanation, Throwable error) {
+            OutputWriter out = io.getOut();
+            if (error != null) {
+                if (!cancelled.get()) {
+                    failed.incrementAndGet();
+                    io.getErr().println("=== " + file.getPath() + " ===");
+                    io.getErr().println("Erreur: " + rootMessage(error));
+                    io.getErr().println();
+                }
+            } else {
+                out.println("=== " + file.getPath() + " ===");
+                out.println(explanation);
+                out.println();
+            }
+
+            int count = done.incrementAndGet();
+            progress.progress(file.getNameExt(), Math.min(count, files.size()));
+            if (!finished && (count == files.size() || (cancelled.get() && running.isEmpty()))) {
+                finished = true;
+                finish();
+            }
+        }
+
+        private void finish() {
+            long seconds = (System.currentTimeMillis() - startTime) / 1000;
+            OutputWriter out = io.getOut();
+            if (cancelled.get()) {
+                out.println("Annulé après " + done.get() + " fichier(s).");
+            } else {
+                out.println(String.format("Terminé: %d fichier(s), %d erreur(s), en %d s.",
+                        files.size(), failed.get(), seconds));
+            }
+            out.close();
+            progress.finish();
+        }
+    }
+
+    private static String readText(FileObject file) {
+        try {
+            return file.asText();
+        } catch (IOException e) {
+            throw new IllegalStateException("Lecture impossible: " + e.getMessage(), e);
+        }
+    }
+
+    private static String rootMessage(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.toString();
+    }
+}
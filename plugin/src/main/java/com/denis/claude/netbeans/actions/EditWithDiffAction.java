@@ -0,0 +1,244 @@
+package com.denis.claude.netbeans.actions;
+
+import com.denis.claude.netbeans.api.ClaudeApiClient;
+import com.denis.claude.netbeans.api.RateLimiter;
+import com.denis.claude.netbeans.api.RequestScheduler;
+import com.denis.claude.netbeans.context.ContextAssembler;
+import com.denis.claude.netbeans.diff.UnifiedDiff;
+import com.denis.claude.netbeans.settings.ClaudeSettings;
+import org.netbeans.api.progress.ProgressHandle;
+import org.openide.awt.ActionID;
+import org.openide.awt.ActionReference;
+import org.openide.awt.ActionReferences;
+import org.openide.awt.ActionRegistration;
+import org.openide.loaders.DataObject;
+import org.openide.text.NbDocument;
+import org.openide.util.NbBundle.Messages;
+import org.openide.windows.TopComponent;
+
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.JTextComponent;
+import javax.swing.text.StyledDocument;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.List;
+
+/**
+ * Action pour modifier le fichier courant avec Claude via un diff unifié.
+ * Claude ne renvoie que les blocs modifiés; le diff est vérifié localement puis
+ * appliqué au document en une seule modification atomique (un seul Annuler).
+ */
+@ActionID(
+        category = "Edit",
+        id = "com.denis.claude.netbeans.actions.EditWithDiffAction"
+)
+@ActionRegistration(
+        displayName = "#CTL_EditWithDiffAction"
+)
+@ActionReferences({
+        @ActionReference(path = "Editors/text/x-php5/Popup", position = 1530),
+        @ActionReference(path = "Editors/text/html/Popup", position = 1530),
+        @ActionReference(path = "Editors/text/javascript/Popup", position = 1530),
+        @ActionReference(path = "Editors/text/css/Popup", position = 1530),
+        @ActionReference(path = "Editors/text/x-java/Popup", position = 1530),
+        @ActionReference(path = "Editors/text/plain/Popup", position = 1530),
+        @ActionReference(path = "Menu/Edit", position = 2020)
+})
+@Messages("CTL_EditWithDiffAction=Modifier le fichier avec Claude...")
+public final class EditWithDiffAction implements ActionListener {
+
+    // Le prompt est un seul argument du CLI: Linux limite un argument à 128 Kio
+    private static final int MAX_DOCUMENT_CHARS = 96 * 1024;
+
+    private final DataObject context;
+
+    public EditWithDiffAction(DataObject context) {
+        this.context = context;
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent ev) {
+        if (!ClaudeSettings.getInstance().isConfigured()) {
+            JOptionPane.showMessageDialog(null,
+                    "Veuillez configurer votre clé API dans Tools > Options > Claude AI",
+                    "Configuration requise",
+                    JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        JTextComponent editor = findActiveEditor();
+        if (editor == null || !(editor.getDocument() instanceof StyledDocument)) {
+            JOptionPane.showMessageDialog(null,
+                    "Aucun éditeur actif trouvé",
+                    "Erreur",
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        StyledDocument doc = (StyledDocument) editor.getDocument();
+
+        String fileName = context.getPrimaryFile().getNameExt();
+        String language = ExplainCodeAction.detectLanguage(fileName);
+
+        String content;
+        try {
+            content = doc.getText(0, doc.getLength());
+        } catch (BadLocationException e) {
+            return;
+        }
+        // Le fichier est envoyé en entier, hors budget de tokens; seule la taille
+        // d'un argument de ligne de commande le limite
+        if (content.length() > MAX_DOCUMENT_CHARS) {
+            JOptionPane.showMessageDialog(null,
+                    "Le fichier (" + content.length() / 1024 + " Ko) dépasse la taille transmissible au CLI ("
+                    + MAX_DOCUMENT_CHARS / 1024 + " Ko).",
+                    "Fichier trop volumineux",
+                    JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        int estimated = ContextAssembler.estimateTokens(content);
+
+        String instruction = showInputDialog(fileName);
+        if (instruction == null || instruction.trim().isEmpty()) {
+            return;
+        }
+
+        ProgressHandle progress = ProgressHandle.createHandle("Claude prépare la modification de " + fileName);
+        progress.start();
+        String wait = RateLimiter.getInstance().describeWait(RequestScheduler.Priority.NORMAL, estimated);
+        if (wait != null) {
+            progress.progress(wait); // La modification partira à la fin de l'attente
+        }
+
+        ClaudeApiClient.getInstance()
+                .requestEdit(fileName, language, content, instruction.trim(), selectionHint(editor))
+                .whenComplete((response, ex) -> SwingUtilities.invokeLater(() -> {
+                    progress.finish();
+                    if (ex != null) {
+                        showError("Erreur: " + ex.getMessage());
+                        return;
+                    }
+                    try {
+                        UnifiedDiff diff = UnifiedDiff.parse(response);
+                        diff.plan(content); // Validation contre le texte envoyé
+                        showDiffDialog(response, diff, fileName, doc);
+                    } catch (IllegalArgumentException e) {
+                        showError("Diff inutilisable: " + e.getMessage());
+                    }
+                }));
+    }
+
+    private static String selectionHint(JTextComponent editor) {
+        if (editor.getSelectionStart() == editor.getSelectionEnd()) {
+            return null;
+        }
+        Element root = editor.getDocument().getDefaultRootElement();
+        int first = root.getElementIndex(editor.getSelectionStart()) + 1;
+        int last = root.getElementIndex(editor.getSelectionEnd() - 1) + 1;
+        return "La modification concerne principalement les lignes " + first + " à " + last + ".";
+    }
+
+    private String showInputDialog(String fileName) {
+        JTextArea textArea = new JTextArea(5, 40);
+        textArea.setLineWrap(true);
+        textArea.setWrapStyleWord(true);
+        JScrollPane scrollPane = new JScrollPane(textArea);
+
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.add(new JLabel("Décrivez la modification à apporter à " + fileName + ":"), BorderLayout.NORTH);
+        panel.add(scrollPane, BorderLayout.CENTER);
+
+        int result = JOptionPane.showConfirmDialog(null, panel,
+                "Modifier le fichier avec Claude",
+                JOptionPane.OK_CANCEL_OPTION,
+                JOptionPane.PLAIN_MESSAGE);
+
+        if (result == JOptionPane.OK_OPTION) {
+            return textArea.getText();
+        }
+        return null;
+    }
+
+    private void showDiffDialog(String response, UnifiedDiff diff, String fileName, StyledDocument doc) {
+        JDialog dialog = new JDialog((Frame) null, "Modification proposée - " + fileName, false);
+        dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+        dialog.setLayout(new BorderLayout());
+
+        JTextArea diffArea = new JTextArea(response.trim());
+        diffArea.setEditable(false);
+        diffArea.setFont(new Font("Consolas", Font.PLAIN, 13));
+        diffArea.setCaretPosition(0);
+        JScrollPane scrollPane = new JScrollPane(diffArea);
+        scrollPane.setPreferredSize(new Dimension(700, 400));
+
+        JButton applyButton = new JButton("Appliquer");
+        applyButton.addActionListener(e -> {
+            if (apply(diff, doc)) {
+                dialog.dispose();
+            }
+        });
+        JButton cancelButton = new JButton("Annuler");
+        cancelButton.addActionListener(e -> dialog.dispose());
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttonPanel.add(applyButton);
+        buttonPanel.add(cancelButton);
+
+        String summary = String.format("  %d bloc(s): +%d / -%d ligne(s)",
+                diff.getHunks().size(), diff.getAddedLines(), diff.getRemovedLines());
+        dialog.add(new JLabel(summary), BorderLayout.NORTH);
+        dialog.add(scrollPane, BorderLayout.CENTER);
+        dialog.add(buttonPanel, BorderLayout.SOUTH);
+
+        dialog.pack();
+        dialog.setLocationRelativeTo(null);
+        dialog.setVisible(true);
+    }
+
+    /**
+     * Applique le diff au contenu actuel du document, en une seule modification atomique.
+     */
+    private boolean apply(UnifiedDiff diff, StyledDocument doc) {
+        try {
+            NbDocument.runAtomicAsUser(doc, () -> {
+                try {
+                    // Le document a pu changer depuis la demande: on relocalise les blocs
+                    List<UnifiedDiff.Replacement> replacements = diff.plan(doc.getText(0, doc.getLength()));
+                    for (UnifiedDiff.Replacement r : replacements) {
+                        replace(doc, r);
+                    }
+                } catch (BadLocationException e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
+            });
+            return true;
+        } catch (BadLocationException | IllegalStateException | IllegalArgumentException e) {
+            showError("Impossible d'appliquer la modification: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void replace(Document doc, UnifiedDiff.Replacement r) throws BadLocationException {
+        if (r.getEnd() > r.getStart()) {
+            doc.remove(r.getStart(), r.getEnd() - r.getStart());
+        }
+        if (!r.getText().isEmpty()) {
+            doc.insertString(r.getStart(), r.getText(), null);
+        }
+    }
+
+    private static void showError(String message) {
+        JOptionPane.showMessageDialog(null, message, "Erreur", JOptionPane.ERROR_MESSAGE);
+    }
+
+    private JTextComponent findActiveEditor() {
+        TopComponent activated = TopComponent.getRegistry().getActivated();
+        if (activated == null) {
+            return null;
+        }
+        return activated.getLookup().lookup(JTextComponent.class);
+    }
+}
@@ -0,0 +1,187 @@
+package com.denis.claude.netbeans.actions;
+
+import com.denis.claude.netbeans.api.ClaudeApiClient;
+import com.denis.claude.netbeans.api.EnvironmentProbe;
+import com.denis.claude.netbeans.api.RateLimiter;
+import com.denis.claude.netbeans.api.RequestScheduler;
+import com.denis.claude.netbeans.context.ContextAssembler;
+import com.denis.claude.netbeans.context.EditorContext;
+import com.denis.claude.netbeans.context.ProjectFileIndex;
+import com.denis.claude.netbeans.settings.ClaudeSettings;
+import com.denis.claude.netbeans.ui.ExplainResultsTopComponent;
+import com.denis.claude.netbeans.ui.RenderCoalescer;
+import org.openide.awt.ActionID;
+import org.openide.awt.ActionReference;
+import org.openide.awt.ActionReferences;
+import org.openide.awt.ActionRegistration;
+import org.openide.cookies.EditorCookie;
+import org.openide.filesystems.FileObject;
+import org.openide.loaders.DataObject;
+import org.openide.util.NbBundle.Messages;
+import org.openide.windows.TopComponent;
+
+import javax.swing.*;
+import javax.swing.text.Element;
+import javax.swing.text.JTextComponent;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Action pour demander à Claude d'expliquer le code sélectionné.
+ * L'explication s'affiche dans la fenêtre des explications, au fil de la réponse.
+ */
+@ActionID(
+        category = "Edit",
+        id = "com.denis.claude.netbeans.actions.ExplainCodeAction"
+)
+@ActionRegistration(
+        displayName = "#CTL_ExplainCodeAction"
+)
+@ActionReferences({
+        @ActionReference(path = "Editors/text/x-php5/Popup", position = 1510),
+        @ActionReference(path = "Editors/text/html/Popup", position = 1510),
+        @ActionReference(path = "Editors/text/javascript/Popup", position = 1510),
+        @ActionReference(path = "Editors/text/css/Popup", position = 1510),
+        @ActionReference(path = "Editors/text/x-java/Popup", position = 1510),
+        @ActionReference(path = "Editors/text/plain/Popup", position = 1510)
+})
+@Messages("CTL_ExplainCodeAction=Expliquer avec Claude")
+public final class ExplainCodeAction implements ActionListener {
+
+    /**
+     * Type des explications mises en attente dans {@link com.denis.claude.netbeans.api.OfflineQueue}.
+     */
+    static final String LATER_KIND = "explain";
+
+    private final DataObject context;
+
+    public ExplainCodeAction(DataObject context) {
+        this.context = context;
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent ev) {
+        ClaudeSettings settings = ClaudeSettings.getInstance();
+        String claudePath = settings.getClaudePath();
+        if (claudePath == null || claudePath.trim().isEmpty()) {
+            JOptionPane.showMessageDialog(null,
+                    "Veuillez configurer votre clé API dans Tools > Options > Claude AI",
+                    "Configuration requise",
+                    JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        JTextComponent editor = findActiveEditor();
+        if (editor == null) {
+            return;
+        }
+
+        String selectedText = editor.getSelectedText();
+        if (selectedText == null || selectedText.trim().isEmpty()) {
+            JOptionPane.showMessageDialog(null,
+                    "Veuillez sélectionner du code à expliquer",
+                    "Aucune sélection",
+                    JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        String fileName = context.getPrimaryFile().getNameExt();
+        String language = detectLanguage(fileName);
+
+        // Contexte joint: code environnant (sur l'EDT) puis, hors EDT, fichiers cités
+        // (ajusté au budget de tokens; même contexte que le préchargement)
+        List<ContextAssembler.Piece> surrounding = EditorContext.surrounding(editor, language);
+        FileObject file = context.getPrimaryFile();
+        Supplier<List<ContextAssembler.Piece>> extraContext = () -> {
+            List<ContextAssembler.Piece> pieces = new ArrayList<>(surrounding);
+            pieces.addAll(EditorContext.relatedFiles(file, selectedText));
+            return pieces;
+        };
+
+        // CLI absent (mise à jour en cours...) ou déconnecté: proposer d'expliquer à son retour
+        EnvironmentProbe probe = EnvironmentProbe.getInstance();
+        if (!settings.isConfigured() || !probe.isAvailable()) {
+            explainLater(selectedText, language, extraContext,
+                    fileName + " " + lineRange(editor) + " - " + language, probe.getReason());
+            return;
+        }
+
+        // L'explication s'affiche au fil de l'eau dans la fenêtre des explications:
+        // plusieurs demandes peuvent être suivies en parallèle sans bloquer l'éditeur
+        ExplainResultsTopComponent.Entry entry = ExplainResultsTopComponent.startExplanation(
+                fileName + " " + lineRange(editor) + " - " + language);
+        RenderCoalescer coalescer = new RenderCoalescer(entry::append);
+        coalescer.start();
+
+        // Budget de débit épuisé: la demande attend son tour au lieu d'échouer
+        long wait = RateLimiter.getInstance().expectedWaitMillis(RequestScheduler.Priority.NORMAL,
+                ContextAssembler.estimateTokens(selectedText));
+        if (wait >= 1000) {
+            entry.setWaitUntil(System.currentTimeMillis() + wait);
+        }
+
+        // Envoyer à Claude pour explication (réponse immédiate si elle a été préchargée)
+        CompletableFuture.supplyAsync(extraContext)
+                .thenCompose(pieces -> ClaudeApiClient.getInstance()
+                        .explainCode(selectedText, language, pieces, coalescer::append))
+                .whenComplete((explanation, ex) -> SwingUtilities.invokeLater(() -> {
+                    coalescer.stop();
+                    if (ex == null) {
+                        entry.complete(explanation);
+                    } else {
+                        entry.fail(ex.getMessage());
+                    }
+                }));
+    }
+
+    private static void explainLater(String code, String language,
+            Supplier<List<ContextAssembler.Piece>> extraContext, String title, String reason) {
+        int choice = JOptionPane.showConfirmDialog(null,
+                "Claude Code est indisponible pour le moment" + (reason != null ? ":\n" + reason : ".")
+                        + "\n\nExpliquer cette sélection dès son retour ?",
+                "Claude Code indisponible",
+                JOptionPane.YES_NO_OPTION,
+                JOptionPane.WARNING_MESSAGE);
+        if (choice != JOptionPane.YES_OPTION) {
+            return;
+        }
+        CompletableFuture.supplyAsync(extraContext)
+                .thenCompose(pieces -> ClaudeApiClient.getInstance()
+                        .explainLater(code, language, pieces, LATER_KIND, title))
+                .whenComplete((explanation, ex) -> {
+                    if (ex == null) {
+                        SwingUtilities.invokeLater(() -> showLater(title, explanation));
+                    }
+                });
+    }
+
+    /**
+     * Affiche une explication différée, reçue au retour du CLI (EDT).
+     */
+    static void showLater(String title, String explanation) {
+        ExplainResultsTopComponent.startExplanation(title + " (différée)").complete(explanation);
+    }
+
+    private static String lineRange(JTextComponent editor) {
+        Element root = editor.getDocument().getDefaultRootElement();
+        int first = root.getElementIndex(editor.getSelectionStart()) + 1;
+        int last = root.getElementIndex(Math.max(editor.getSelectionStart(), editor.getSelectionEnd() - 1)) + 1;
+        return first == last ? "(ligne " + first + ")" : "(lignes " + first + "-" + last + ")";
+    }
+
+    private JTextComponent findActiveEditor() {
+        TopComponent activated = TopComponent.getRegistry().getActivated();
+        if (activated == null) {
+            return null;
+        }
+        return activated.getLookup().lookup(JTextComponent.class);
+    }
+
+    static String detectLanguage(String fileName) {
+        return ProjectFileIndex.languageOf(fileName);
+    }
+}
@@ -0,0 +1,152 @@
+package com.denis.claude.netbeans.actions;
+
+import com.denis.claude.netbeans.api.ClaudeApiClient;
+import com.denis.claude.netbeans.api.ResponseCache;
+import com.denis.claude.netbeans.context.ContextAssembler;
+import com.denis.claude.netbeans.context.EditorContext;
+import com.denis.claude.netbeans.settings.ClaudeSettings;
+import com.denis.claude.netbeans.util.NetBeansProjectUtils;
+import org.netbeans.api.editor.EditorRegistry;
+import org.openide.filesystems.FileObject;
+import org.openide.loaders.DataObject;
+import org.openide.modules.OnStart;
+
+import javax.swing.*;
+import javax.swing.event.CaretEvent;
+import javax.swing.event.CaretListener;
+import javax.swing.text.Document;
+import javax.swing.text.JTextComponent;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Préchargement spéculatif des explications (option "Précharger l'explication").
+ * Quand la sélection de l'éditeur actif ne bouge plus pendant {@link #DWELL_MILLIS},
+ * l'explication est demandée en priorité basse avec exactement le prompt de
+ * {@link ExplainCodeAction}: l'action trouve alors souvent la réponse déjà en cache.
+ * Le préchargement est abandonné dès que la sélection change.
+ */
+@OnStart
+public class ExplainPrefetcher implements Runnable, CaretListener {
+
+    private static final int DWELL_MILLIS = 1500;
+    private static final int MIN_SELECTION = 40;
+    private static final int MAX_SELECTION = 20000;
+
+    private final Timer dwellTimer;
+    private JTextComponent editor;
+    private CompletableFuture<String> prefetch;
+    private volatile String prefetchedText;
+
+    public ExplainPrefetcher() {
+        dwellTimer = new Timer(DWELL_MILLIS, e -> selectionSettled());
+        dwellTimer.setRepeats(false);
+    }
+
+    @Override
+    public void run() {
+        SwingUtilities.invokeLater(() -> {
+            EditorRegistry.addPropertyChangeListener(evt -> {
+                if (EditorRegistry.FOCUS_GAINED_PROPERTY.equals(evt.getPropertyName())) {
+                    attach(EditorRegistry.lastFocusedComponent());
+                }
+            });
+            attach(EditorRegistry.lastFocusedComponent());
+        });
+    }
+
+    private void attach(JTextComponent component) {
+        if (component == editor) {
+            return;
+        }
+        if (editor != null) {
+            editor.removeCaretListener(this);
+        }
+        editor = component;
+        selectionChanged();
+        if (editor != null) {
+            editor.addCaretListener(this);
+        }
+    }
+
+    @Override
+    public void caretUpdate(CaretEvent e) {
+        selectionChanged();
+    }
+
+    private void selectionChanged() {
+        String text = editor != null ? editor.getSelectedText() : null;
+        if (text != null && text.equals(prefetchedText)) {
+            return; // Même sélection (simple déplacement du curseur à l'intérieur)
+        }
+        cancelPrefetch();
+        if (ClaudeSettings.getInstance().isPrefetchExplanations() && isCandidate(text)) {
+            dwellTimer.restart();
+        } else {
+            dwellTimer.stop();
+        }
+    }
+
+    private void selectionSettled() {
+        if (editor == null || !ClaudeSettings.getInstance().isPrefetchExplanations()
+                || !ClaudeSettings.getInstance().isConfigured()) {
+            return;
+        }
+        String text = editor.getSelectedText();
+        FileObject file = fileOf(editor.getDocument());
+        if (!isCandidate(text) || file == null) {
+            return;
+        }
+
+        // Même contexte que l'action: code environnant (sur l'EDT) puis fichiers liés (hors EDT)
+        String language = ExplainCodeAction.detectLanguage(file.getNameExt());
+        List<ContextAssembler.Piece> surrounding = EditorContext.surrounding(editor, language);
+        File projectDir = NetBeansProjectUtils.getActiveProjectDirectory();
+        prefetchedText = text;
+        CompletableFuture<String> request = CompletableFuture
+                .supplyAsync(() -> {
+                    List<ContextAssembler.Piece> context = new ArrayList<>(surrounding);
+                    context.addAll(EditorContext.relatedFiles(file, text));
+                    return context;
+                })
+                .thenCompose(context -> {
+                    if (!text.equals(prefetchedText)) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    CompletableFuture<String> future = ClaudeApiClient.getInstance()
+                            .prefetchExplanation(text, language, context, projectDir);
+                    SwingUtilities.invokeLater(() -> {
+                        if (text.equals(prefetchedText)) {
+                            prefetch = future;
+                        } else {
+                            ResponseCache.getInstance().cancelPrefetch(future);
+                        }
+                    });
+                    return future;
+                });
+        request.exceptionally(ex -> null); // Échec silencieux: l'action relancera la requête
+    }
+
+    private void cancelPrefetch() {
+        prefetchedText = null;
+        if (prefetch != null) {
+            ResponseCache.getInstance().cancelPrefetch(prefetch);
+            prefetch = null;
+        }
+    }
+
+    private static boolean isCandidate(String text) {
+        if (text == null) {
+            return false;
+        }
+        int length = text.trim().length();
+        return length >= MIN_SELECTION && length <= MAX_SELECTION;
+    }
+
+    private static FileObject fileOf(Document doc) {
+        Object source = doc.getProperty(Document.StreamDescriptionProperty);
+        return source instanceof DataObject ? ((DataObject) source).getPrimaryFile() : null;
+    }
+}
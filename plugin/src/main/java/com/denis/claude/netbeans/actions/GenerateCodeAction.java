@@ -1,22 +1,33 @@
 package com.denis.claude.netbeans.actions;
 
 import com.denis.claude.netbeans.api.ClaudeApiClient;
+import com.denis.claude.netbeans.api.RateLimiter;
+import com.denis.claude.netbeans.api.RequestScheduler;
+import com.denis.claude.netbeans.api.ResponseProcessor;
+import com.denis.claude.netbeans.context.ContextAssembler;
+import com.denis.claude.netbeans.context.EditorContext;
 import com.denis.claude.netbeans.settings.ClaudeSettings;
+import org.netbeans.api.progress.ProgressHandle;
 import org.openide.awt.ActionID;
 import org.openide.awt.ActionReference;
 import org.openide.awt.ActionReferences;
 import org.openide.awt.ActionRegistration;
 import org.openide.cookies.EditorCookie;
 import org.openide.loaders.DataObject;
+import org.openide.text.NbDocument;
 import org.openide.util.NbBundle.Messages;
 import org.openide.windows.TopComponent;
 
 import javax.swing.*;
 import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
 import javax.swing.text.JTextComponent;
+import javax.swing.text.StyledDocument;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Action pour générer du code avec Claude.
@@ -75,15 +86,26 @@ public final class GenerateCodeAction implements ActionListener {
             return;
         }
 
+        // Code autour du curseur, pour un résultat cohérent avec le fichier
+        List<ContextAssembler.Piece> extraContext = EditorContext.surrounding(editor, language);
+
+        if (ClaudeSettings.getInstance().isStreamGeneratedCode()) {
+            StreamingCodeInserter inserter = StreamingCodeInserter.atCaret(editor);
+            if (inserter != null) {
+                generateIntoEditor(description, language, extraContext, inserter);
+                return;
+            }
+        }
+
         // Afficher une fenêtre de chargement
-        JDialog loadingDialog = createLoadingDialog();
+        JDialog loadingDialog = createLoadingDialog(describeWait(description));
 
         // Exécuter en arrière-plan
         SwingWorker<String, Void> worker = new SwingWorker<>() {
             @Override
             protected String doInBackground() throws Exception {
                 return ClaudeApiClient.getInstance()
-                        .generateCode(description, language)
+                        .generateCode(description, language, extraContext)
                         .get();
             }
 
@@ -92,8 +114,8 @@ public final class GenerateCodeAction implements ActionListener {
                 loadingDialog.dispose();
                 try {
                     String generatedCode = get();
-                    // Nettoyer le code (enlever les balises markdown si présentes)
-                    generatedCode = cleanGeneratedCode(generatedCode, language);
+                    // Garder le code des blocs markdown, sans le texte autour
+                    generatedCode = ResponseProcessor.extractCode(generatedCode);
                     showCodePreviewDialog(generatedCode, language, editor);
                 } catch (Exception ex) {
                     JOptionPane.showMessageDialog(null,
@@ -108,15 +130,65 @@ public final class GenerateCodeAction implements ActionListener {
         loadingDialog.setVisible(true);
     }
 
+    /**
+     * Génération insérée directement au curseur, au fil de la réponse.
+     * Un seul Annuler retire tout le code inséré.
+     */
+    private void generateIntoEditor(String description, String language,
+            List<ContextAssembler.Piece> extraContext, StreamingCodeInserter inserter) {
+        try {
+            inserter.start();
+        } catch (BadLocationException e) {
+            JOptionPane.showMessageDialog(null,
+                    "Erreur lors de l'insertion: " + e.getMessage(),
+                    "Erreur",
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        String wait = describeWait(description);
+        CompletableFuture<String> generation = ClaudeApiClient.getInstance()
+                .generateCode(description, language, extraContext, inserter::append);
+        // Annuler arrête aussi le CLI (ou retire la requête de l'attente du limiteur)
+        ProgressHandle progress = ProgressHandle.createHandle("Claude génère le code...", () -> {
+            generation.cancel(true);
+            SwingUtilities.invokeLater(inserter::stop);
+            return true;
+        });
+        progress.start();
+        if (wait != null) {
+            progress.progress(wait);
+        }
+
+        generation.whenComplete((code, ex) -> SwingUtilities.invokeLater(() -> {
+            progress.finish();
+            if (ex == null) {
+                inserter.finish();
+            } else {
+                inserter.stop();
+                if (!generation.isCancelled()) {
+                    JOptionPane.showMessageDialog(null,
+                            "Erreur: " + ex.getMessage(),
+                            "Erreur",
+                            JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }));
+    }
+
     private String showInputDialog(String language) {
         JTextArea textArea = new JTextArea(5, 40);
         textArea.setLineWrap(true);
         textArea.setWrapStyleWord(true);
         JScrollPane scrollPane = new JScrollPane(textArea);
 
+        JCheckBox streamCheckBox = new JCheckBox("Insérer directement au curseur pendant la génération",
+                ClaudeSettings.getInstance().isStreamGeneratedCode());
+
         JPanel panel = new JPanel(new BorderLayout(5, 5));
         panel.add(new JLabel("Décrivez le code " + language + " à générer:"), BorderLayout.NORTH);
         panel.add(scrollPane, BorderLayout.CENTER);
+        panel.add(streamCheckBox, BorderLayout.SOUTH);
 
         int result = JOptionPane.showConfirmDialog(null, panel,
                 "Générer du code avec Claude",
@@ -124,6 +196,7 @@ public final class GenerateCodeAction implements ActionListener {
                 JOptionPane.PLAIN_MESSAGE);
 
         if (result == JOptionPane.OK_OPTION) {
+            ClaudeSettings.getInstance().setStreamGeneratedCode(streamCheckBox.isSelected());
             return textArea.getText();
         }
         return null;
@@ -137,11 +210,20 @@ public final class GenerateCodeAction implements ActionListener {
         return activated.getLookup().lookup(JTextComponent.class);
     }
 
-    private JDialog createLoadingDialog() {
+    /**
+     * Attente prévue par le limiteur de débit pour cette génération, ou null.
+     */
+    private static String describeWait(String description) {
+        return RateLimiter.getInstance().describeWait(RequestScheduler.Priority.NORMAL,
+                ContextAssembler.estimateTokens(description));
+    }
+
+    private JDialog createLoadingDialog(String wait) {
         JDialog dialog = new JDialog((Frame) null, "Claude", false);
         dialog.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
         dialog.setLayout(new FlowLayout());
-        dialog.add(new JLabel("Claude génère le code..."));
+        dialog.add(new JLabel(wait != null ? "<html>Claude génère le code...<br>" + wait + "</html>"
+                : "Claude génère le code..."));
         JProgressBar progressBar = new JProgressBar();
         progressBar.setIndeterminate(true);
         dialog.add(progressBar);
@@ -150,15 +232,6 @@ public final class GenerateCodeAction implements ActionListener {
         return dialog;
     }
 
-    private String cleanGeneratedCode(String code, String language) {
-        // Enlever les balises de code markdown si présentes
-        String langLower = language.toLowerCase();
-        code = code.replaceAll("(?s)^```" + langLower + "\\s*\\n?", "");
-        code = code.replaceAll("(?s)^```\\w*\\s*\\n?", "");
-        code = code.replaceAll("(?s)\\n?```\\s*$", "");
-        return code.trim();
-    }
-
     private void showCodePreviewDialog(String code, String language, JTextComponent editor) {
         JDialog dialog = new JDialog((Frame) null, "Code généré - " + language, true);
         dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
@@ -204,8 +277,20 @@ public final class GenerateCodeAction implements ActionListener {
     private void insertCodeAtCaret(JTextComponent editor, String code) {
         try {
             int caretPos = editor.getCaretPosition();
-            editor.getDocument().insertString(caretPos, code, null);
-        } catch (BadLocationException e) {
+            Document doc = editor.getDocument();
+            if (doc instanceof StyledDocument) {
+                // Une seule modification atomique: un seul Annuler, pas de relecture intermédiaire
+                NbDocument.runAtomicAsUser((StyledDocument) doc, () -> {
+                    try {
+                        doc.insertString(caretPos, code, null);
+                    } catch (BadLocationException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+            } else {
+                doc.insertString(caretPos, code, null);
+            }
+        } catch (BadLocationException | IllegalStateException e) {
             JOptionPane.showMessageDialog(null,
                     "Erreur lors de l'insertion: " + e.getMessage(),
                     "Erreur",
@@ -0,0 +1,31 @@
+package com.denis.claude.netbeans.actions;
+
+import com.denis.claude.netbeans.ui.ClaudeChatTopComponent;
+import org.openide.awt.ActionID;
+import org.openide.awt.ActionReference;
+import org.openide.awt.ActionRegistration;
+import org.openide.util.NbBundle.Messages;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+/**
+ * Action pour ouvrir un nouvel onglet de chat Claude (nouvelle session).
+ */
+@ActionID(
+        category = "Window",
+        id = "com.denis.claude.netbeans.actions.NewClaudeChatAction"
+)
+@ActionRegistration(
+        displayName = "#CTL_NewClaudeChatAction",
+        iconBase = "com/denis/claude/netbeans/claude-icon.png"
+)
+@ActionReference(path = "Menu/Window", position = 334)
+@Messages("CTL_NewClaudeChatAction=Nouvelle conversation Claude")
+public final class NewClaudeChatAction implements ActionListener {
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        ClaudeChatTopComponent.openNewSession();
+    }
+}
@@ -0,0 +1,28 @@
+package com.denis.claude.netbeans.actions;
+
+import com.denis.claude.netbeans.api.OfflineQueue;
+import com.denis.claude.netbeans.review.SaveReviewer;
+import org.openide.modules.OnStart;
+import org.openide.windows.WindowManager;
+
+import javax.swing.*;
+
+/**
+ * Rejoue au démarrage de l'IDE les requêtes mises de côté pendant une indisponibilité
+ * de Claude Code (explications différées, relectures à l'enregistrement).
+ */
+@OnStart
+public class OfflineReplayStarter implements Runnable {
+
+    @Override
+    public void run() {
+        WindowManager.getDefault().invokeWhenUIReady(() -> {
+            OfflineQueue queue = OfflineQueue.getInstance();
+            queue.registerHandler(ExplainCodeAction.LATER_KIND,
+                    (title, explanation) -> SwingUtilities.invokeLater(() -> ExplainCodeAction.showLater(title, explanation)));
+            queue.registerHandler(SaveReviewer.REPLAY_KIND,
+                    (payload, response) -> SaveReviewer.getInstance().replayed(payload, response));
+            queue.start();
+        });
+    }
+}
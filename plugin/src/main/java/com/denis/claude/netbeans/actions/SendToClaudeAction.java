@@ -1,5 +1,7 @@
 package com.denis.claude.netbeans.actions;
 
+import com.denis.claude.netbeans.context.FileEntry;
+import com.denis.claude.netbeans.context.ProjectFileIndex;
 import com.denis.claude.netbeans.settings.ClaudeSettings;
 import com.denis.claude.netbeans.ui.ClaudeChatTopComponent;
 import org.openide.awt.ActionID;
@@ -15,6 +17,8 @@ import javax.swing.*;
 import javax.swing.text.JTextComponent;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Action pour envoyer du code sélectionné à Claude.
@@ -39,6 +43,8 @@ import java.awt.event.ActionListener;
 @Messages("CTL_SendToClaudeAction=Envoyer à Claude")
 public final class SendToClaudeAction implements ActionListener {
 
+    private static final int MAX_RELATED_FILES = 5;
+
     private final DataObject context;
 
     public SendToClaudeAction(DataObject context) {
@@ -77,9 +83,18 @@ public final class SendToClaudeAction implements ActionListener {
         String fileName = context.getPrimaryFile().getNameExt();
         String language = detectLanguage(fileName);
 
+        // Fichiers du projet cités dans la sélection (consultation de l'index, sans accès disque)
+        List<String> relatedFiles = new ArrayList<>();
+        ProjectFileIndex index = ProjectFileIndex.forFile(context.getPrimaryFile());
+        if (index != null) {
+            for (FileEntry entry : index.findRelated(selectedText, context.getPrimaryFile(), MAX_RELATED_FILES)) {
+                relatedFiles.add(entry.getPath());
+            }
+        }
+
         // Ouvrir le panneau de chat et y envoyer le code
         ClaudeChatTopComponent chatComponent = ClaudeChatTopComponent.openAndGetInstance();
-        chatComponent.getChatPanel().appendCodeForAnalysis(selectedText, language, fileName);
+        chatComponent.getChatPanel().appendCodeForAnalysis(selectedText, language, fileName, relatedFiles);
     }
 
     private JTextComponent findActiveEditor() {
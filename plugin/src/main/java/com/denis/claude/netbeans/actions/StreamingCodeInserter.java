@@ -0,0 +1,240 @@
+package com.denis.claude.netbeans.actions;
+
+import com.denis.claude.netbeans.api.ResponseProcessor;
+import org.netbeans.modules.editor.indent.api.Reformat;
+import org.openide.awt.UndoRedo;
+import org.openide.text.CloneableEditorSupport;
+import org.openide.text.NbDocument;
+import org.openide.windows.TopComponent;
+
+import javax.swing.*;
+import javax.swing.event.UndoableEditEvent;
+import javax.swing.event.UndoableEditListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.JTextComponent;
+import javax.swing.text.Position;
+import javax.swing.text.StyledDocument;
+import javax.swing.undo.UndoableEdit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Insère du code dans l'éditeur au fur et à mesure de sa génération.
+ * Le texte reçu est accumulé puis inséré par lots (un verrou atomique par lot, pas un
+ * par caractère), les balises markdown ``` sont retirées au passage ({@link ResponseProcessor}),
+ * et le tout forme une seule modification pour Annuler. Le reformatage n'a lieu qu'à la fin.
+ *
+ * Seul le code est inséré: ce qui précède la première balise est retenu jusqu'à ce qu'elle
+ * arrive (c'était de la prose, écartée) ou que la réponse se termine sans balise (c'était
+ * du code, inséré d'un bloc).
+ */
+final class StreamingCodeInserter {
+
+    private static final Logger LOG = Logger.getLogger(StreamingCodeInserter.class.getName());
+    private static final int FLUSH_MILLIS = 80;
+
+    private final JTextComponent editor;
+    private final StyledDocument doc;
+    private final UndoableEditListener undo;
+    private final Timer flushTimer;
+
+    // Accès depuis le thread de lecture du CLI, sous ce verrou
+    private final Object lock = new Object();
+    private final ResponseProcessor lines = ResponseProcessor.lines(this::acceptLine);
+    private final StringBuilder ready = new StringBuilder();
+    private final StringBuilder heldBlankLines = new StringBuilder();
+    private final StringBuilder heldText = new StringBuilder();
+    private boolean anyLine;
+    private boolean fenced;
+    private boolean closed;
+
+    // Accès sur l'EDT uniquement
+    private Position start;
+    private Position end;
+    private boolean started;
+    private boolean stopped;
+
+    private StreamingCodeInserter(JTextComponent editor, StyledDocument doc) {
+        this.editor = editor;
+        this.doc = doc;
+        this.undo = findUndoManager(editor);
+        this.flushTimer = new Timer(FLUSH_MILLIS, e -> flush());
+    }
+
+    /**
+     * Crée un inséreur à la position du curseur, ou null si le document ne s'y prête pas.
+     */
+    static StreamingCodeInserter atCaret(JTextComponent editor) {
+        Document doc = editor.getDocument();
+        return doc instanceof StyledDocument ? new StreamingCodeInserter(editor, (StyledDocument) doc) : null;
+    }
+
+    /**
+     * Démarre l'insertion (EDT): toutes les insertions suivantes forment un seul groupe d'annulation.
+     */
+    void start() throws BadLocationException {
+        end = doc.createPosition(editor.getCaretPosition());
+        fireUndo(CloneableEditorSupport.BEGIN_COMMIT_GROUP);
+        started = true;
+        flushTimer.start();
+    }
+
+    /**
+     * Texte reçu du CLI, depuis n'importe quel thread.
+     */
+    void append(String chunk) {
+        synchronized (lock) {
+            if (!closed) {
+                lines.accept(chunk);
+            }
+        }
+    }
+
+    /**
+     * Fin de la génération (EDT): insère le reste, reformate la zone insérée et ferme le groupe.
+     */
+    void finish() {
+        synchronized (lock) {
+            if (!closed) {
+                lines.finish();
+                if (!fenced) {
+                    // Réponse sans balise: tout était du code
+                    for (String line : heldText.toString().split("\n", -1)) {
+                        queue(line);
+                    }
+                }
+            }
+            closed = true;
+            // Pas de saut de ligne final: le code s'insère comme du texte collé
+            int last = ready.length() - 1;
+            if (last >= 0 && ready.charAt(last) == '\n') {
+                ready.setLength(last);
+            }
+        }
+        flush();
+        reformat();
+        stop();
+    }
+
+    /**
+     * Arrête l'insertion sans rien ajouter (échec ou annulation): le texte déjà inséré reste
+     * et s'annule en une fois.
+     */
+    void stop() {
+        synchronized (lock) {
+            closed = true;
+        }
+        flushTimer.stop();
+        if (started && !stopped) {
+            stopped = true;
+            fireUndo(CloneableEditorSupport.END_COMMIT_GROUP);
+        }
+    }
+
+    /**
+     * Filtre ligne à ligne: avant la première balise, les lignes sont retenues; ensuite,
+     * seul le code du premier bloc passe.
+     */
+    private void acceptLine(String line, ResponseProcessor.LineKind kind) {
+        if (closed) {
+            return;
+        }
+        if (!fenced) {
+            if (kind == ResponseProcessor.LineKind.FENCE_OPEN) {
+                fenced = true;
+                heldText.setLength(0); // Prose d'introduction
+            } else {
+                heldText.append(heldText.length() > 0 ? "\n" : "").append(line);
+            }
+            return;
+        }
+        if (kind == ResponseProcessor.LineKind.FENCE_CLOSE) {
+            closed = true;
+            return;
+        }
+        queue(line);
+    }
+
+    /**
+     * Ligne de code à insérer; lignes vides de début et de fin écartées.
+     */
+    private void queue(String line) {
+        if (line.trim().isEmpty()) {
+            if (anyLine) {
+                heldBlankLines.append(line).append('\n');
+            }
+            return;
+        }
+        anyLine = true;
+        ready.append(heldBlankLines).append(line).append('\n');
+        heldBlankLines.setLength(0);
+    }
+
+    private void flush() {
+        String text;
+        synchronized (lock) {
+            if (ready.length() == 0) {
+                return;
+            }
+            text = ready.toString();
+            ready.setLength(0);
+        }
+        if (stopped) {
+            return;
+        }
+        try {
+            NbDocument.runAtomicAsUser(doc, () -> {
+                try {
+                    int offset = end.getOffset();
+                    doc.insertString(offset, text, null);
+                    if (start == null) {
+                        // Créée après la première insertion: indépendant du sens d'ancrage des positions
+                        start = doc.createPosition(offset);
+                    }
+                    end = doc.createPosition(offset + text.length());
+                } catch (BadLocationException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            editor.setCaretPosition(end.getOffset());
+        } catch (BadLocationException | IllegalStateException e) {
+            // Section protégée ou document modifié sous nos pieds: on s'arrête là
+            LOG.log(Level.INFO, "Insertion du code généré interrompue", e);
+            stop();
+        }
+    }
+
+    private void reformat() {
+        if (stopped || start == null || start.getOffset() >= end.getOffset()) {
+            return;
+        }
+        Reformat reformat = Reformat.get(doc);
+        reformat.lock();
+        try {
+            NbDocument.runAtomicAsUser(doc, () -> {
+                try {
+                    reformat.reformat(start.getOffset(), end.getOffset());
+                } catch (BadLocationException e) {
+                    LOG.log(Level.FINE, "Reformatage impossible", e);
+                }
+            });
+        } catch (BadLocationException e) {
+            LOG.log(Level.FINE, "Reformatage impossible", e);
+        } finally {
+            reformat.unlock();
+        }
+    }
+
+    private void fireUndo(UndoableEdit marker) {
+        if (undo != null) {
+            undo.undoableEditHappened(new UndoableEditEvent(doc, marker));
+        }
+    }
+
+    private static UndoableEditListener findUndoManager(JTextComponent editor) {
+        TopComponent tc = (TopComponent) SwingUtilities.getAncestorOfClass(TopComponent.class, editor);
+        UndoRedo undoRedo = tc != null ? tc.getUndoRedo() : null;
+        return undoRedo instanceof UndoableEditListener ? (UndoableEditListener) undoRedo : null;
+    }
+}
@@ -0,0 +1,387 @@
+package com.denis.claude.netbeans.batch;
+
+import com.denis.claude.netbeans.api.ClaudeApiClient;
+import com.denis.claude.netbeans.context.ProjectFileIndex;
+import com.denis.claude.netbeans.settings.ClaudeSettings;
+import com.denis.claude.netbeans.util.ContentHash;
+import com.denis.claude.netbeans.util.PluginStorage;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.netbeans.api.progress.ProgressHandle;
+import org.openide.windows.IOProvider;
+import org.openide.windows.InputOutput;
+import org.openide.windows.OutputWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Moteur des traitements par lots (revue, bugs, documentation sur des dossiers entiers).
+ * Chaque traitement est enregistré dans une file persistante et mis à jour après chaque
+ * fichier: un traitement interrompu par la fermeture de l'IDE reprend au démarrage suivant
+ * là où il s'était arrêté. Les fichiers dont le contenu n'a pas changé depuis la dernière
+ * analyse du même type sont sautés.
+ */
+public class BatchEngine {
+
+    private static final Logger LOG = Logger.getLogger(BatchEngine.class.getName());
+    private static final String EXTENSION = ".json";
+
+    private static BatchEngine instance;
+
+    private final File jobsDirectory;
+    private final BatchResultStore store;
+    private final Gson gson;
+    private final ExecutorService io;
+    private final Map<String, Run> runs;
+
+    private BatchEngine() {
+        jobsDirectory = PluginStorage.getDirectory("batch/jobs");
+        store = new BatchResultStore();
+        gson = new Gson();
+        io = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "Claude batch");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        runs = new ConcurrentHashMap<>();
+    }
+
+    public static synchronized BatchEngine getInstance() {
+        if (instance == null) {
+            instance = new BatchEngine();
+        }
+        return instance;
+    }
+
+    /**
+     * Enregistre le traitement dans la file puis le lance.
+     */
+    public void submit(BatchJob job) {
+        io.execute(() -> {
+            checkpoint(job);
+            start(job);
+        });
+    }
+
+    /**
+     * Relance les traitements restés inachevés (appelé au démarrage de l'IDE).
+     */
+    public void resumePending() {
+        io.execute(() -> {
+            File[] files = jobsDirectory.listFiles((dir, name) -> name.endsWith(EXTENSION));
+            if (files == null) {
+                return;
+            }
+            for (File file : files) {
+                BatchJob job = read(file);
+                if (job == null || job.count(BatchItem.Status.PENDING) == 0) {
+                    file.delete();
+                } else {
+                    LOG.log(Level.INFO, "Reprise du traitement {0}: {1} fichier(s) restant(s)",
+                            new Object[]{job.getTitle(), job.count(BatchItem.Status.PENDING)});
+                    start(job);
+                }
+            }
+        });
+    }
+
+    private void start(BatchJob job) {
+        if (runs.putIfAbsent(job.getId(), new Run(job)) == null) {
+            runs.get(job.getId()).start();
+        }
+    }
+
+    private BatchJob read(File file) {
+        try {
+            String json = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+            return gson.fromJson(json, BatchJob.class);
+        } catch (IOException | JsonParseException e) {
+            LOG.log(Level.WARNING, "Traitement illisible, abandonné: " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Point de reprise: réécrit l'état du traitement (écriture atomique).
+     */
+    private void checkpoint(BatchJob job) {
+        String json;
+        synchronized (job) {
+            json = gson.toJson(job);
+        }
+        File file = jobFile(job);
+        File tmp = new File(jobsDirectory, job.getId() + ".tmp");
+        try {
+            Files.write(tmp.toPath(), json.getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Impossible d'enregistrer le traitement " + job.getId(), e);
+        }
+    }
+
+    private File jobFile(BatchJob job) {
+        return new File(jobsDirectory, job.getId() + EXTENSION);
+    }
+
+    /**
+     * Exécution d'un traitement: quelques travailleurs consomment les fichiers en attente.
+     */
+    private final class Run {
+
+        private final BatchJob job;
+        private final Iterator<BatchItem> pending;
+        private final int total;
+        private final InputOutput output;
+        private final ProgressHandle progress;
+        private final List<CompletableFuture<?>> inFlight = new ArrayList<>();
+        // Requêtes du client: les annuler arrête le CLI ou les retire de l'attente
+        private final List<CompletableFuture<String>> requests = new ArrayList<>();
+        private volatile boolean cancelled;
+        private int completed;
+        private int analyzed;
+        private int active;
+        private long startTime;
+
+        Run(BatchJob job) {
+            this.job = job;
+            this.total = job.getItems().size();
+            List<BatchItem> todo = new ArrayList<>();
+            for (BatchItem item : job.getItems()) {
+                if (item.getStatus() == BatchItem.Status.PENDING) {
+                    todo.add(item);
+                }
+            }
+            this.pending = todo.iterator();
+            this.completed = total - todo.size();
+            this.output = IOProvider.getDefault().getIO("Claude - " + job.getKind().getLabel(), true);
+            this.progress = ProgressHandle.createHandle("Claude: " + job.getKind().getLabel() + " - " + job.getTitle(),
+                    this::cancel);
+        }
+
+        void start() {
+            startTime = System.currentTimeMillis();
+            OutputWriter out = output.getOut();
+            out.println(job.getKind().getLabel() + ": " + job.getTitle()
+                    + (completed > 0 ? " (reprise, " + completed + "/" + total + " déjà traités)" : ""));
+            printOmitted(out);
+            out.println();
+            output.select();
+
+            progress.start(total);
+            progress.progress(completed);
+            // Laisser un créneau libre pour le chat et les actions interactives
+            int workers = Math.max(1, ClaudeSettings.getInstance().getMaxConcurrentRequests() - 1);
+            for (int i = 0; i < workers; i++) {
+                next();
+            }
+        }
+
+        private void next() {
+            BatchItem item;
+            synchronized (this) {
+                if (cancelled || !pending.hasNext()) {
+                    if (active == 0) {
+                        finish();
+                    }
+                    return;
+                }
+                item = pending.next();
+                active++;
+            }
+            process(item);
+        }
+
+        private void process(BatchItem item) {
+            File file = new File(item.getPath());
+            String[] hash = new String[1];
+            CompletableFuture<String> future = CompletableFuture.supplyAsync(() -> {
+                try {
+                    byte[] bytes = Files.readAllBytes(file.toPath());
+                    hash[0] = ContentHash.of(bytes);
+                    return new String(bytes, StandardCharsets.UTF_8);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Lecture impossible: " + e.getMessage(), e);
+                }
+            }, io).thenCompose(text -> {
+                BatchResultStore.Result previous = store.findUnchanged(job.getKind(), item.getPath(), hash[0]);
+                if (previous != null) {
+                    return CompletableFuture.completedFuture((String) null);
+                }
+                return track(ClaudeApiClient.getInstance().analyzeInBackground(text, ProjectFileIndex.languageOf(file.getName()),
+                        job.getKind().getInstruction(), workingDirectory()));
+            });
+            synchronized (this) {
+                inFlight.add(future);
+            }
+            future.whenComplete((result, error) -> {
+                synchronized (this) {
+                    inFlight.remove(future);
+                }
+                if (cancelled) {
+                    done();
+                    return;
+                }
+                synchronized (job) {
+                    if (error != null) {
+                        item.setStatus(BatchItem.Status.FAILED);
+                        item.setError(rootMessage(error));
+                    } else if (result == null) {
+                        item.setStatus(BatchItem.Status.SKIPPED);
+                    } else {
+                        item.setStatus(BatchItem.Status.DONE);
+                    }
+                }
+                if (result != null) {
+                    store.put(job.getKind(), item.getPath(), hash[0], result);
+                }
+                report(item, result);
+                io.execute(() -> checkpoint(job));
+                done();
+            });
+        }
+
+        /**
+         * Retient la requête du client pour pouvoir l'annuler, ou l'annule si le traitement l'est déjà.
+         */
+        private CompletableFuture<String> track(CompletableFuture<String> request) {
+            synchronized (this) {
+                if (cancelled) {
+                    request.cancel(true);
+                    return request;
+                }
+                requests.add(request);
+            }
+            request.whenComplete((r, e) -> {
+                synchronized (this) {
+                    requests.remove(request);
+                }
+            });
+            return request;
+        }
+
+        private void done() {
+            synchronized (this) {
+                active--;
+            }
+            next();
+        }
+
+        private synchronized void report(BatchItem item, String result) {
+            completed++;
+            if (item.getStatus() == BatchItem.Status.DONE) {
+                analyzed++;
+                OutputWriter out = output.getOut();
+                out.println("=== " + item.getPath() + " ===");
+                out.println(result);
+                out.println();
+            } else if (item.getStatus() == BatchItem.Status.FAILED) {
+                analyzed++;
+                OutputWriter err = output.getErr();
+                err.println("=== " + item.getPath() + " ===");
+                err.println("Erreur: " + item.getError());
+                err.println();
+            }
+            progress.progress(status(), completed);
+        }
+
+        /**
+         * Avancement, débit et temps restant estimé sur les fichiers réellement analysés.
+         */
+        private String status() {
+            StringBuilder text = new StringBuilder();
+            text.append(completed).append('/').append(total);
+            long elapsed = System.currentTimeMillis() - startTime;
+            if (analyzed > 0 && elapsed > 0) {
+                double perMinute = analyzed * 60000.0 / elapsed;
+                long remainingSeconds = Math.round((total - completed) * (elapsed / 1000.0) / analyzed);
+                text.append(String.format(Locale.FRENCH, " - %.1f fichiers/min", perMinute));
+                if (total > completed) {
+                    text.append(" - reste ~").append(formatDuration(remainingSeconds));
+                }
+            }
+            return text.toString();
+        }
+
+        private boolean cancel() {
+            cancelled = true;
+            synchronized (this) {
+                // Copies: chaque annulation retire aussitôt le futur de sa liste
+                new ArrayList<>(requests).forEach(f -> f.cancel(true));
+                new ArrayList<>(inFlight).forEach(f -> f.cancel(false));
+            }
+            return true;
+        }
+
+        private synchronized void finish() {
+            if (runs.remove(job.getId()) == null) {
+                return;
+            }
+            long seconds = (System.currentTimeMillis() - startTime) / 1000;
+            OutputWriter out = output.getOut();
+            if (cancelled) {
+                out.println("Traitement annulé après " + completed + "/" + total + " fichier(s).");
+            } else {
+                out.println(String.format("Terminé en %s: %d analysé(s), %d inchangé(s), %d erreur(s).",
+                        formatDuration(seconds), job.count(BatchItem.Status.DONE),
+                        job.count(BatchItem.Status.SKIPPED), job.count(BatchItem.Status.FAILED)));
+            }
+            printOmitted(out);
+            out.println();
+            progress.finish();
+            // Terminé ou annulé par l'utilisateur: rien à reprendre
+            io.execute(() -> jobFile(job).delete());
+        }
+
+        /**
+         * Signale les fichiers de la sélection qui ne font pas partie du traitement.
+         */
+        private void printOmitted(OutputWriter out) {
+            if (job.getTooLarge() > 0) {
+                out.println("Non analysés: " + job.getTooLarge() + " fichier(s) trop volumineux.");
+            }
+            if (job.getBeyondLimit() > 0) {
+                out.println("Non analysés: " + job.getBeyondLimit() + " fichier(s) au-delà de la limite de "
+                        + total + " fichiers; choisissez un dossier plus précis pour les analyser.");
+            }
+        }
+
+        private File workingDirectory() {
+            String dir = job.getWorkingDirectory();
+            return dir != null ? new File(dir) : new File(System.getProperty("user.home"));
+        }
+    }
+
+    private static String formatDuration(long seconds) {
+        if (seconds < 60) {
+            return seconds + " s";
+        }
+        if (seconds < 3600) {
+            return (seconds / 60) + " min " + (seconds % 60) + " s";
+        }
+        return (seconds / 3600) + " h " + ((seconds % 3600) / 60) + " min";
+    }
+
+    private static String rootMessage(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.toString();
+    }
+}
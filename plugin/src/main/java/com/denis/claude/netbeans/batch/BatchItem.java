@@ -0,0 +1,49 @@
+package com.denis.claude.netbeans.batch;
+
+/**
+ * Fichier d'un traitement par lots et son état (point de reprise).
+ */
+public class BatchItem {
+
+    /**
+     * État d'un fichier. Seuls les fichiers PENDING sont traités à la reprise.
+     */
+    public enum Status {
+        PENDING,
+        DONE,
+        SKIPPED,
+        FAILED
+    }
+
+    private final String path;
+    private Status status;
+    private String error;
+
+    BatchItem(String path) {
+        this.path = path;
+        this.status = Status.PENDING;
+    }
+
+    /**
+     * Chemin absolu du fichier.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    void setStatus(Status status) {
+        this.status = status;
+    }
+
+    void setError(String error) {
+        this.error = error;
+    }
+}
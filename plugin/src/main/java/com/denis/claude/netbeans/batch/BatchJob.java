@@ -0,0 +1,88 @@
+package com.denis.claude.netbeans.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Traitement par lots: une analyse appliquée à une liste de fichiers.
+ * Sérialisé tel quel (Gson) dans la file persistante de {@link BatchEngine}.
+ */
+public class BatchJob {
+
+    private final String id;
+    private final BatchKind kind;
+    private final String title;
+    private final String workingDirectory;
+    private final long created;
+    private final List<BatchItem> items;
+    // Fichiers de la sélection laissés de côté
+    private final int tooLarge;
+    private final int beyondLimit;
+
+    public BatchJob(BatchKind kind, String title, String workingDirectory, List<String> paths,
+            int tooLarge, int beyondLimit) {
+        this.id = UUID.randomUUID().toString();
+        this.kind = kind;
+        this.title = title;
+        this.workingDirectory = workingDirectory;
+        this.created = System.currentTimeMillis();
+        this.items = new ArrayList<>();
+        for (String path : paths) {
+            items.add(new BatchItem(path));
+        }
+        this.tooLarge = tooLarge;
+        this.beyondLimit = beyondLimit;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public BatchKind getKind() {
+        return kind;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Répertoire d'exécution du CLI (racine du projet analysé), ou null.
+     */
+    public String getWorkingDirectory() {
+        return workingDirectory;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    /**
+     * Fichiers de la sélection écartés car trop volumineux.
+     */
+    public int getTooLarge() {
+        return tooLarge;
+    }
+
+    /**
+     * Fichiers de la sélection écartés au-delà du nombre maximal de fichiers par traitement.
+     */
+    public int getBeyondLimit() {
+        return beyondLimit;
+    }
+
+    public List<BatchItem> getItems() {
+        return items;
+    }
+
+    public int count(BatchItem.Status status) {
+        int count = 0;
+        for (BatchItem item : items) {
+            if (item.getStatus() == status) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
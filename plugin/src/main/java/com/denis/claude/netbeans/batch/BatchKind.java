@@ -0,0 +1,37 @@
+package com.denis.claude.netbeans.batch;
+
+/**
+ * Type d'analyse appliquée à chaque fichier d'un traitement par lots.
+ */
+public enum BatchKind {
+
+    REVIEW("Revue de code",
+            "Fais une revue de ce fichier: lisibilité, conception, bonnes pratiques. "
+            + "Liste les remarques par ordre d'importance, sans réécrire le fichier."),
+    BUGS("Recherche de bugs",
+            "Cherche les bugs probables de ce fichier (erreurs de logique, cas limites, "
+            + "concurrence, ressources non libérées). Réponds \"Aucun problème détecté\" s'il n'y en a pas."),
+    DOCS("Résumé de documentation",
+            "Rédige un court résumé de documentation pour ce fichier: rôle, API publique, dépendances.");
+
+    private final String label;
+    private final String instruction;
+
+    BatchKind(String label, String instruction) {
+        this.label = label;
+        this.instruction = instruction;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getInstruction() {
+        return instruction;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,135 @@
+package com.denis.claude.netbeans.batch;
+
+import com.denis.claude.netbeans.util.PluginStorage;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Derniers résultats des traitements par lots, par type d'analyse et par fichier,
+ * avec l'empreinte du contenu analysé. Un fichier dont l'empreinte n'a pas changé
+ * n'est pas renvoyé à Claude. Stockage JSONL en ajout seul, compacté au chargement.
+ */
+class BatchResultStore {
+
+    private static final Logger LOG = Logger.getLogger(BatchResultStore.class.getName());
+
+    private final File file;
+    private final Gson gson = new Gson();
+    private final Map<String, Result> results = new ConcurrentHashMap<>();
+
+    BatchResultStore(File directory) {
+        this.file = new File(directory, "results.jsonl");
+        load();
+    }
+
+    BatchResultStore() {
+        this(PluginStorage.getDirectory("batch"));
+    }
+
+    /**
+     * Résultat enregistré pour ce fichier si son contenu n'a pas changé depuis, sinon null.
+     */
+    Result findUnchanged(BatchKind kind, String path, String hash) {
+        Result result = results.get(key(kind, path));
+        return result != null && result.hash.equals(hash) ? result : null;
+    }
+
+    synchronized void put(BatchKind kind, String path, String hash, String content) {
+        Result result = new Result(kind, path, hash, content, System.currentTimeMillis());
+        results.put(key(kind, path), result);
+        try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            out.write(gson.toJson(result));
+            out.write('\n');
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Impossible d'enregistrer le résultat: " + path, e);
+        }
+    }
+
+    private void load() {
+        if (!file.isFile()) {
+            return;
+        }
+        int lines = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                lines++;
+                try {
+                    Result result = gson.fromJson(line, Result.class);
+                    if (result != null && result.kind != null && result.hash != null) {
+                        results.put(key(result.kind, result.path), result);
+                    }
+                } catch (JsonParseException e) {
+                    // Ligne tronquée (arrêt brutal de l'IDE): on l'ignore
+                }
+            }
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Lecture impossible: " + file, e);
+            return;
+        }
+        if (lines > 2 * results.size() + 100) {
+            compact();
+        }
+    }
+
+    /**
+     * Réécrit le fichier avec la seule dernière version de chaque résultat.
+     */
+    private synchronized void compact() {
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (Writer out = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+            for (Result result : results.values()) {
+                out.write(gson.toJson(result));
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Compactage impossible: " + file, e);
+            return;
+        }
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Compactage impossible: " + file, e);
+        }
+    }
+
+    private static String key(BatchKind kind, String path) {
+        return kind.name() + ':' + path;
+    }
+
+    /**
+     * Résultat d'analyse d'un fichier.
+     */
+    static final class Result {
+        final BatchKind kind;
+        final String path;
+        final String hash;
+        final String content;
+        final long timestamp;
+
+        Result(BatchKind kind, String path, String hash, String content, long timestamp) {
+            this.kind = kind;
+            this.path = path;
+            this.hash = hash;
+            this.content = content;
+            this.timestamp = timestamp;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.denis.claude.netbeans.batch;
+
+import com.denis.claude.netbeans.settings.ClaudeSettings;
+import org.openide.modules.OnStart;
+import org.openide.windows.WindowManager;
+
+/**
+ * Reprend au démarrage de l'IDE les traitements par lots interrompus.
+ */
+@OnStart
+public class BatchResumer implements Runnable {
+
+    @Override
+    public void run() {
+        if (!ClaudeSettings.getInstance().isConfigured()) {
+            return;
+        }
+        // Attendre que la fenêtre principale soit prête (fenêtre Output, barre de progression)
+        WindowManager.getDefault().invokeWhenUIReady(() -> BatchEngine.getInstance().resumePending());
+    }
+}
@@ -0,0 +1,158 @@
+package com.denis.claude.netbeans.completion;
+
+import org.netbeans.api.editor.completion.Completion;
+import org.netbeans.spi.editor.completion.CompletionDocumentation;
+import org.netbeans.spi.editor.completion.CompletionItem;
+import org.netbeans.spi.editor.completion.CompletionResultSet;
+import org.netbeans.spi.editor.completion.CompletionTask;
+import org.netbeans.spi.editor.completion.support.AsyncCompletionQuery;
+import org.netbeans.spi.editor.completion.support.AsyncCompletionTask;
+import org.netbeans.spi.editor.completion.support.CompletionUtilities;
+import org.openide.text.NbDocument;
+
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.JTextComponent;
+import javax.swing.text.StyledDocument;
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.net.URL;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Proposition de Claude dans la liste de complétion: la première ligne est affichée,
+ * le texte complet apparaît dans la documentation et est inséré au curseur.
+ */
+final class ClaudeCompletionItem implements CompletionItem {
+
+    private static final Logger LOG = Logger.getLogger(ClaudeCompletionItem.class.getName());
+    private static final int MAX_LABEL_CHARS = 80;
+
+    private final String suggestion;
+    private final int caretOffset;
+
+    ClaudeCompletionItem(String suggestion, int caretOffset) {
+        this.suggestion = suggestion;
+        this.caretOffset = caretOffset;
+    }
+
+    @Override
+    public void defaultAction(JTextComponent component) {
+        Document doc = component.getDocument();
+        if (doc instanceof StyledDocument) {
+            int offset = Math.max(caretOffset, component.getCaretPosition());
+            try {
+                NbDocument.runAtomicAsUser((StyledDocument) doc, () -> {
+                    try {
+                        doc.insertString(offset, suggestion, null);
+                    } catch (BadLocationException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                component.setCaretPosition(offset + suggestion.length());
+            } catch (BadLocationException | IllegalStateException e) {
+                LOG.log(Level.INFO, "Insertion de la complétion impossible", e);
+            }
+        }
+        Completion.get().hideAll();
+    }
+
+    @Override
+    public void processKeyEvent(KeyEvent evt) {
+    }
+
+    @Override
+    public int getPreferredWidth(Graphics g, Font defaultFont) {
+        return CompletionUtilities.getPreferredWidth(label(), "Claude", g, defaultFont);
+    }
+
+    @Override
+    public void render(Graphics g, Font defaultFont, Color defaultColor, Color backgroundColor,
+            int width, int height, boolean selected) {
+        CompletionUtilities.renderHtml(null, label(), "Claude", g, defaultFont,
+                selected ? Color.WHITE : defaultColor, width, height, selected);
+    }
+
+    private String label() {
+        String text = suggestion.trim();
+        int newline = text.indexOf('\n');
+        String first = newline >= 0 ? text.substring(0, newline).trim() : text;
+        boolean truncated = newline >= 0;
+        if (first.length() > MAX_LABEL_CHARS) {
+            first = first.substring(0, MAX_LABEL_CHARS);
+            truncated = true;
+        }
+        return "<i>" + escape(first) + (truncated ? " &hellip;" : "") + "</i>";
+    }
+
+    @Override
+    public CompletionTask createDocumentationTask() {
+        return new AsyncCompletionTask(new AsyncCompletionQuery() {
+            @Override
+            protected void query(CompletionResultSet resultSet, Document doc, int caretOffset) {
+                resultSet.setDocumentation(new Documentation(suggestion));
+                resultSet.finish();
+            }
+        });
+    }
+
+    @Override
+    public CompletionTask createToolTipTask() {
+        return null;
+    }
+
+    @Override
+    public boolean instantSubstitution(JTextComponent component) {
+        return false;
+    }
+
+    @Override
+    public int getSortPriority() {
+        return -1000; // En tête de liste
+    }
+
+    @Override
+    public CharSequence getSortText() {
+        return suggestion;
+    }
+
+    @Override
+    public CharSequence getInsertPrefix() {
+        return ""; // Pas de complétion partielle par préfixe commun
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    private static final class Documentation implements CompletionDocumentation {
+
+        private final String suggestion;
+
+        Documentation(String suggestion) {
+            this.suggestion = suggestion;
+        }
+
+        @Override
+        public String getText() {
+            return "<b>Proposition de Claude</b><pre>" + escape(suggestion) + "</pre>";
+        }
+
+        @Override
+        public URL getURL() {
+            return null;
+        }
+
+        @Override
+        public CompletionDocumentation resolveLink(String link) {
+            return null;
+        }
+
+        @Override
+        public Action getGotoSourceAction() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.denis.claude.netbeans.completion;
+
+import com.denis.claude.netbeans.api.ClaudeApiClient;
+import com.denis.claude.netbeans.settings.ClaudeSettings;
+import org.netbeans.api.editor.mimelookup.MimeRegistration;
+import org.netbeans.api.editor.mimelookup.MimeRegistrations;
+import org.netbeans.spi.editor.completion.CompletionProvider;
+import org.netbeans.spi.editor.completion.CompletionResultSet;
+import org.netbeans.spi.editor.completion.CompletionTask;
+import org.netbeans.spi.editor.completion.support.AsyncCompletionQuery;
+import org.netbeans.spi.editor.completion.support.AsyncCompletionTask;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.JTextComponent;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Complétion de code par Claude (option, désactivée par défaut).
+ * La requête part après une pause de frappe; une frappe suivante annule la tâche en cours,
+ * ce qui annule la requête et arrête le CLI. Une réponse qui dépasse le budget de latence
+ * est abandonnée. Tout se passe hors de l'EDT: la frappe n'est jamais bloquée.
+ */
+@MimeRegistrations({
+        @MimeRegistration(mimeType = "text/x-java", service = CompletionProvider.class),
+        @MimeRegistration(mimeType = "text/x-php5", service = CompletionProvider.class),
+        @MimeRegistration(mimeType = "text/javascript", service = CompletionProvider.class),
+        @MimeRegistration(mimeType = "text/css", service = CompletionProvider.class),
+        @MimeRegistration(mimeType = "text/html", service = CompletionProvider.class)
+})
+public class ClaudeCompletionProvider implements CompletionProvider {
+
+    private static final Logger LOG = Logger.getLogger(ClaudeCompletionProvider.class.getName());
+
+    private static final int DEBOUNCE_MILLIS = 400;
+    private static final int LATENCY_BUDGET_MILLIS = 8000;
+    private static final int POLL_MILLIS = 50;
+    private static final int BEFORE_CHARS = 6000;
+    private static final int AFTER_CHARS = 2000;
+    // Déclenchement automatique: fin de ligne ou début d'expression
+    private static final String AUTO_TRIGGERS = "\n{(.=:";
+
+    private static final CompletionCache CACHE = new CompletionCache();
+
+    @Override
+    public CompletionTask createTask(int queryType, JTextComponent component) {
+        if ((queryType & COMPLETION_QUERY_TYPE) == 0 || !isEnabled()) {
+            return null;
+        }
+        return new AsyncCompletionTask(new Query(), component);
+    }
+
+    @Override
+    public int getAutoQueryTypes(JTextComponent component, String typedText) {
+        if (!isEnabled() || typedText == null || typedText.isEmpty()) {
+            return 0;
+        }
+        char last = typedText.charAt(typedText.length() - 1);
+        return AUTO_TRIGGERS.indexOf(last) >= 0 ? COMPLETION_QUERY_TYPE : 0;
+    }
+
+    private static boolean isEnabled() {
+        ClaudeSettings settings = ClaudeSettings.getInstance();
+        return settings.isInlineCompletion() && settings.isConfigured();
+    }
+
+    private static final class Query extends AsyncCompletionQuery {
+
+        private JTextComponent component;
+        private int queryOffset;
+        private String suggestion;
+
+        @Override
+        protected void prepareQuery(JTextComponent component) {
+            this.component = component;
+        }
+
+        @Override
+        protected void query(CompletionResultSet resultSet, Document doc, int caretOffset) {
+            try {
+                String[] context = readContext(doc, caretOffset);
+                if (context == null) {
+                    return;
+                }
+                String before = context[0];
+                String result = CACHE.lookup(before);
+                if (result == null) {
+                    if (!pause(DEBOUNCE_MILLIS)) {
+                        return; // Frappe suivante: requête remplacée
+                    }
+                    result = request(before, context[1], language(doc));
+                    if (result != null) {
+                        CACHE.put(before, result);
+                    }
+                }
+                if (result != null && !result.trim().isEmpty()) {
+                    queryOffset = caretOffset;
+                    suggestion = result;
+                    resultSet.addItem(new ClaudeCompletionItem(result, caretOffset));
+                }
+            } finally {
+                resultSet.finish();
+            }
+        }
+
+        /**
+         * Proposition toujours valable tant que le texte tapé depuis en est le début.
+         */
+        @Override
+        protected boolean canFilter(JTextComponent component) {
+            String typed = typedSinceQuery(component);
+            return typed != null && suggestion.startsWith(typed) && suggestion.length() > typed.length();
+        }
+
+        @Override
+        protected void filter(CompletionResultSet resultSet) {
+            String typed = typedSinceQuery(component);
+            if (typed != null && suggestion.startsWith(typed) && suggestion.length() > typed.length()) {
+                resultSet.addItem(new ClaudeCompletionItem(suggestion.substring(typed.length()),
+                        queryOffset + typed.length()));
+            }
+            resultSet.finish();
+        }
+
+        private String typedSinceQuery(JTextComponent component) {
+            if (suggestion == null || component == null) {
+                return null;
+            }
+            int caret = component.getCaretPosition();
+            if (caret < queryOffset) {
+                return null;
+            }
+            try {
+                return component.getDocument().getText(queryOffset, caret - queryOffset);
+            } catch (BadLocationException e) {
+                return null;
+            }
+        }
+
+        private String request(String before, String after, String language) {
+            CompletableFuture<String> future = ClaudeApiClient.getInstance().completeCode(before, after, language);
+            long deadline = System.currentTimeMillis() + LATENCY_BUDGET_MILLIS;
+            while (true) {
+                if (isTaskCancelled() || System.currentTimeMillis() > deadline) {
+                    future.cancel(true); // Arrête le CLI s'il est déjà lancé
+                    return null;
+                }
+                try {
+                    return clean(future.get(POLL_MILLIS, TimeUnit.MILLISECONDS));
+                } catch (TimeoutException e) {
+                    // On continue d'attendre
+                } catch (InterruptedException e) {
+                    future.cancel(true);
+                    Thread.currentThread().interrupt();
+                    return null;
+                } catch (ExecutionException e) {
+                    LOG.log(Level.FINE, "Complétion Claude en échec", e.getCause());
+                    return null;
+                }
+            }
+        }
+
+        private boolean pause(int millis) {
+            long end = System.currentTimeMillis() + millis;
+            while (System.currentTimeMillis() < end) {
+                if (isTaskCancelled()) {
+                    return false;
+                }
+                try {
+                    Thread.sleep(POLL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return !isTaskCancelled();
+        }
+    }
+
+    /**
+     * Texte avant et après le curseur, lu sous verrou de lecture.
+     */
+    private static String[] readContext(Document doc, int caretOffset) {
+        String[] result = new String[2];
+        doc.render(() -> {
+            try {
+                int length = doc.getLength();
+                int offset = Math.min(caretOffset, length);
+                int from = Math.max(0, offset - BEFORE_CHARS);
+                int to = Math.min(length, offset + AFTER_CHARS);
+                result[0] = doc.getText(from, offset - from);
+                result[1] = doc.getText(offset, to - offset);
+            } catch (BadLocationException e) {
+                result[0] = null;
+            }
+        });
+        return result[0] != null ? result : null;
+    }
+
+    /**
+     * Retire les balises markdown et la fin de ligne finale d'une réponse.
+     */
+    static String clean(String response) {
+        if (response == null) {
+            return null;
+        }
+        String text = response;
+        if (text.trim().startsWith("```")) {
+            text = text.trim();
+            int firstNewline = text.indexOf('\n');
+            text = firstNewline >= 0 ? text.substring(firstNewline + 1) : "";
+            int closing = text.lastIndexOf("```");
+            if (closing >= 0) {
+                text = text.substring(0, closing);
+            }
+        }
+        while (text.endsWith("\n") || text.endsWith("\r")) {
+            text = text.substring(0, text.length() - 1);
+        }
+        return text;
+    }
+
+    private static String language(Document doc) {
+        Object mimeType = doc.getProperty("mimeType");
+        if ("text/x-java".equals(mimeType)) {
+            return "Java";
+        } else if ("text/x-php5".equals(mimeType)) {
+            return "PHP";
+        } else if ("text/javascript".equals(mimeType)) {
+            return "JavaScript";
+        } else if ("text/css".equals(mimeType)) {
+            return "CSS";
+        } else if ("text/html".equals(mimeType)) {
+            return "HTML";
+        }
+        return "code";
+    }
+}
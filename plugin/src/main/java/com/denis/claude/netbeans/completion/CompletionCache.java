@@ -0,0 +1,51 @@
+package com.denis.claude.netbeans.completion;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Propositions récentes, indexées par la fin du texte qui précède le curseur.
+ * Une proposition reste valable pendant que l'utilisateur la tape: si le texte saisi
+ * depuis la requête en est le début, le reste est proposé sans nouvel appel.
+ */
+final class CompletionCache {
+
+    private static final int MAX_ENTRIES = 100;
+    private static final int KEY_CHARS = 1500;
+    // Caractères tapés depuis une proposition encore acceptés
+    private static final int MAX_TYPED = 40;
+
+    private final Map<String, String> entries = new LinkedHashMap<String, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * Suite à proposer pour ce texte précédant le curseur, ou null.
+     */
+    synchronized String lookup(String prefix) {
+        int maxTyped = Math.min(MAX_TYPED, prefix.length());
+        for (int typed = 0; typed <= maxTyped; typed++) {
+            int cut = prefix.length() - typed;
+            String suggestion = entries.get(key(prefix.substring(0, cut)));
+            if (suggestion != null) {
+                String typedText = prefix.substring(cut);
+                if (suggestion.startsWith(typedText) && suggestion.length() > typedText.length()) {
+                    return suggestion.substring(typedText.length());
+                }
+                return null; // L'utilisateur a tapé autre chose
+            }
+        }
+        return null;
+    }
+
+    synchronized void put(String prefix, String suggestion) {
+        entries.put(key(prefix), suggestion);
+    }
+
+    private static String key(String prefix) {
+        return prefix.length() > KEY_CHARS ? prefix.substring(prefix.length() - KEY_CHARS) : prefix;
+    }
+}
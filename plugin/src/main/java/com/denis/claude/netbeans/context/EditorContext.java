@@ -0,0 +1,80 @@
+package com.denis.claude.netbeans.context;
+
+import org.openide.filesystems.FileObject;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.JTextComponent;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collecte le contexte d'édition joint aux requêtes: code autour de la sélection
+ * et fichiers liés du projet. Le budget est appliqué ensuite par {@link ContextAssembler}.
+ */
+public class EditorContext {
+
+    private static final int SURROUNDING_LINES = 40;
+    private static final int MAX_RELATED_FILES = 3;
+    private static final long MAX_RELATED_FILE_SIZE = 64 * 1024;
+
+    /**
+     * Code qui précède et qui suit la sélection (ou le curseur), à appeler sur l'EDT.
+     */
+    public static List<ContextAssembler.Piece> surrounding(JTextComponent editor, String language) {
+        List<ContextAssembler.Piece> pieces = new ArrayList<>();
+        Document doc = editor.getDocument();
+        Element root = doc.getDefaultRootElement();
+        int start = editor.getSelectionStart();
+        int end = editor.getSelectionEnd();
+
+        int firstLine = root.getElementIndex(start);
+        int lastLine = root.getElementIndex(end);
+        int fromLine = Math.max(0, firstLine - SURROUNDING_LINES);
+        int toLine = Math.min(root.getElementCount() - 1, lastLine + SURROUNDING_LINES);
+
+        try {
+            int beforeStart = root.getElement(fromLine).getStartOffset();
+            int lineStart = root.getElement(firstLine).getStartOffset();
+            if (lineStart > beforeStart) {
+                pieces.add(ContextAssembler.Piece.codeBefore(doc.getText(beforeStart, lineStart - beforeStart), language));
+            }
+            int afterStart = Math.min(doc.getLength(), root.getElement(lastLine).getEndOffset());
+            int afterEnd = Math.min(doc.getLength(), root.getElement(toLine).getEndOffset());
+            if (afterEnd > afterStart) {
+                pieces.add(ContextAssembler.Piece.codeAfter(doc.getText(afterStart, afterEnd - afterStart), language));
+            }
+        } catch (BadLocationException e) {
+            // Pas de code environnant
+        }
+        return pieces;
+    }
+
+    /**
+     * Contenu des fichiers du projet cités dans le texte (via l'index de fichiers).
+     */
+    public static List<ContextAssembler.Piece> relatedFiles(FileObject file, String text) {
+        List<ContextAssembler.Piece> pieces = new ArrayList<>();
+        ProjectFileIndex index = ProjectFileIndex.forFile(file);
+        if (index == null) {
+            return pieces;
+        }
+        for (FileEntry entry : index.findRelated(text, file, MAX_RELATED_FILES)) {
+            if (entry.getSize() > MAX_RELATED_FILE_SIZE) {
+                continue;
+            }
+            FileObject fo = index.getRoot().getFileObject(entry.getPath());
+            if (fo == null) {
+                continue;
+            }
+            try {
+                pieces.add(ContextAssembler.Piece.file(entry.getPath(), entry.getLanguage(), fo.asText()));
+            } catch (IOException e) {
+                // Fichier illisible: ignoré
+            }
+        }
+        return pieces;
+    }
+}
@@ -0,0 +1,69 @@
+package com.denis.claude.netbeans.context;
+
+/**
+ * Entrée de l'index de fichiers d'un projet.
+ * L'empreinte du contenu est calculée à la demande puis conservée
+ * tant que la taille et la date de modification ne changent pas.
+ */
+public class FileEntry {
+
+    private final String path;
+    private final String language;
+    private volatile long size;
+    private volatile long lastModified;
+    private volatile String hash;
+
+    FileEntry(String path, String language, long size, long lastModified) {
+        this.path = path;
+        this.language = language;
+        this.size = size;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Chemin relatif à la racine du projet, séparé par des '/'.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Empreinte SHA-256 du contenu, ou null si elle n'a pas encore été calculée.
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    void update(long size, long lastModified) {
+        if (size != this.size || lastModified != this.lastModified) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = null;
+        }
+    }
+
+    /**
+     * Nom du fichier sans répertoire ni extension.
+     */
+    String getBaseName() {
+        int slash = path.lastIndexOf('/');
+        int dot = path.lastIndexOf('.');
+        return path.substring(slash + 1, dot > slash ? dot : path.length());
+    }
+}
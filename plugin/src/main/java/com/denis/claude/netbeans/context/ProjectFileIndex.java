@@ -0,0 +1,401 @@
+package com.denis.claude.netbeans.context;
+
+import com.denis.claude.netbeans.util.ContentHash;
+import org.netbeans.api.project.FileOwnerQuery;
+import org.netbeans.api.project.Project;
+import org.netbeans.api.project.ui.OpenProjects;
+import org.netbeans.api.queries.VisibilityQuery;
+import org.openide.filesystems.FileAttributeEvent;
+import org.openide.filesystems.FileChangeListener;
+import org.openide.filesystems.FileEvent;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileRenameEvent;
+import org.openide.filesystems.FileUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Index des fichiers d'un projet: chemins, tailles, empreintes et langages.
+ * Construit une fois en arrière-plan, puis tenu à jour par un écouteur récursif
+ * sur la racine du projet (jamais de nouveau parcours complet). Permet aux actions
+ * de joindre immédiatement les fichiers liés à une sélection.
+ */
+public class ProjectFileIndex {
+
+    private static final Logger LOG = Logger.getLogger(ProjectFileIndex.class.getName());
+    private static final long MAX_HASHED_SIZE = 2L * 1024 * 1024;
+    private static final Pattern IDENTIFIER = Pattern.compile("\\b[A-Za-z_][A-Za-z0-9_]{2,}\\b");
+    private static final Set<String> IGNORED_FOLDERS = new HashSet<>(Arrays.asList(
+            ".git", ".svn", ".hg", ".idea", "node_modules", "target", "build", "dist", "out", ".gradle"));
+    private static final Map<String, String> LANGUAGES = new HashMap<>();
+
+    static {
+        LANGUAGES.put("java", "Java");
+        LANGUAGES.put("php", "PHP");
+        LANGUAGES.put("js", "JavaScript");
+        LANGUAGES.put("ts", "TypeScript");
+        LANGUAGES.put("css", "CSS");
+        LANGUAGES.put("html", "HTML");
+        LANGUAGES.put("htm", "HTML");
+        LANGUAGES.put("xml", "XML");
+        LANGUAGES.put("json", "JSON");
+        LANGUAGES.put("sql", "SQL");
+        LANGUAGES.put("py", "Python");
+        LANGUAGES.put("properties", "Properties");
+        LANGUAGES.put("md", "Markdown");
+        LANGUAGES.put("yml", "YAML");
+        LANGUAGES.put("yaml", "YAML");
+    }
+
+    private static final Map<FileObject, ProjectFileIndex> INDEXES = new ConcurrentHashMap<>();
+    private static final ExecutorService SCANNER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "Claude project file index");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    static {
+        // Libérer l'index (et son écouteur) quand un projet est fermé
+        OpenProjects.getDefault().addPropertyChangeListener(evt -> {
+            if (OpenProjects.PROPERTY_OPEN_PROJECTS.equals(evt.getPropertyName())) {
+                Set<FileObject> open = new HashSet<>();
+                for (Project p : OpenProjects.getDefault().getOpenProjects()) {
+                    open.add(p.getProjectDirectory());
+                }
+                for (FileObject root : new ArrayList<>(INDEXES.keySet())) {
+                    if (!open.contains(root)) {
+                        ProjectFileIndex index = INDEXES.remove(root);
+                        if (index != null) {
+                            index.dispose();
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    private final FileObject root;
+    private final Map<String, FileEntry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> pathsByBaseName = new ConcurrentHashMap<>();
+    private final FileChangeListener listener = new RootListener();
+    private volatile boolean ready;
+    private volatile boolean disposed;
+    private File listenedRoot; // Accédé depuis SCANNER seulement
+
+    private ProjectFileIndex(FileObject root) {
+        this.root = root;
+    }
+
+    /**
+     * Retourne l'index du projet (créé et lancé en arrière-plan au premier appel).
+     */
+    public static ProjectFileIndex forProject(Project project) {
+        if (project == null || project.getProjectDirectory() == null) {
+            return null;
+        }
+        return INDEXES.computeIfAbsent(project.getProjectDirectory(), dir -> {
+            ProjectFileIndex index = new ProjectFileIndex(dir);
+            index.start();
+            return index;
+        });
+    }
+
+    /**
+     * Retourne l'index du projet propriétaire du fichier, ou null.
+     */
+    public static ProjectFileIndex forFile(FileObject file) {
+        return file == null ? null : forProject(FileOwnerQuery.getOwner(file));
+    }
+
+    private void start() {
+        SCANNER.execute(() -> {
+            // L'écouteur est posé avant le parcours, hors de l'EDT (il parcourt lui-même
+            // l'arborescence) et sans descendre dans les dossiers ignorés
+            File rootFile = FileUtil.toFile(root);
+            if (rootFile != null) {
+                FileUtil.addRecursiveListener(listener, rootFile, ProjectFileIndex::isWatchedFolder, () -> disposed);
+                listenedRoot = rootFile;
+            } else {
+                LOG.log(Level.FINE, "Projet hors disque, index sans suivi des modifications: {0}", root);
+            }
+            long start = System.currentTimeMillis();
+            scan(root);
+            ready = true;
+            LOG.log(Level.FINE, "Index {0}: {1} fichiers en {2} ms",
+                    new Object[]{root.getPath(), entries.size(), System.currentTimeMillis() - start});
+        });
+    }
+
+    private void dispose() {
+        disposed = true;
+        SCANNER.execute(() -> {
+            if (listenedRoot != null) {
+                FileUtil.removeRecursiveListener(listener, listenedRoot);
+                listenedRoot = null;
+            }
+        });
+        entries.clear();
+        pathsByBaseName.clear();
+    }
+
+    /**
+     * Langage d'un fichier d'après son extension ("code" si elle est inconnue).
+     */
+    public static String languageOf(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String ext = dot >= 0 ? fileName.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+        return LANGUAGES.getOrDefault(ext, "code");
+    }
+
+    /**
+     * Vrai pour les dossiers jamais parcourus: gestion de versions, dépendances, sorties de build.
+     */
+    public static boolean isIgnoredFolder(String name) {
+        return IGNORED_FOLDERS.contains(name);
+    }
+
+    /**
+     * Vrai quand le parcours initial est terminé.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public FileObject getRoot() {
+        return root;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public FileEntry get(String path) {
+        return entries.get(path);
+    }
+
+    public Collection<FileEntry> getEntries() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    /**
+     * Retourne l'empreinte du contenu, calculée si nécessaire (null pour les gros fichiers).
+     */
+    public String getHash(FileEntry entry) {
+        String hash = entry.getHash();
+        if (hash != null || entry.getSize() > MAX_HASHED_SIZE) {
+            return hash;
+        }
+        FileObject fo = root.getFileObject(entry.getPath());
+        if (fo == null) {
+            return null;
+        }
+        try {
+            hash = ContentHash.of(fo.asBytes());
+            entry.setHash(hash);
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "Lecture impossible: " + entry.getPath(), e);
+        }
+        return hash;
+    }
+
+    /**
+     * Fichiers du projet probablement liés au texte: ceux dont le nom (sans extension)
+     * correspond à un identifiant cité. Classés par nombre de mentions.
+     * Simple consultation de table: aucun accès disque.
+     */
+    public List<FileEntry> findRelated(String text, FileObject exclude, int limit) {
+        if (text == null || limit <= 0) {
+            return new ArrayList<>();
+        }
+        String excluded = exclude != null ? FileUtil.getRelativePath(root, exclude) : null;
+
+        Map<String, Integer> mentions = new LinkedHashMap<>();
+        Matcher matcher = IDENTIFIER.matcher(text);
+        while (matcher.find()) {
+            mentions.merge(matcher.group().toLowerCase(Locale.ROOT), 1, Integer::sum);
+        }
+
+        Map<FileEntry, Integer> scores = new HashMap<>();
+        for (Map.Entry<String, Integer> mention : mentions.entrySet()) {
+            Set<String> paths = pathsByBaseName.get(mention.getKey());
+            if (paths == null) {
+                continue;
+            }
+            for (String path : paths) {
+                FileEntry entry = entries.get(path);
+                if (entry != null && !path.equals(excluded)) {
+                    scores.merge(entry, mention.getValue(), Integer::sum);
+                }
+            }
+        }
+
+        List<FileEntry> related = new ArrayList<>(scores.keySet());
+        related.sort((a, b) -> {
+            int result = Integer.compare(scores.get(b), scores.get(a));
+            return result != 0 ? result : a.getPath().compareTo(b.getPath());
+        });
+        return related.size() > limit ? new ArrayList<>(related.subList(0, limit)) : related;
+    }
+
+    private void scan(FileObject folder) {
+        if (disposed) {
+            return; // Projet fermé pendant le parcours
+        }
+        for (FileObject child : folder.getChildren()) {
+            if (!isIndexable(child)) {
+                continue;
+            }
+            if (child.isFolder()) {
+                scan(child);
+            } else {
+                add(child);
+            }
+        }
+    }
+
+    private boolean isIndexable(FileObject fo) {
+        if (fo.isFolder() && IGNORED_FOLDERS.contains(fo.getNameExt())) {
+            return false;
+        }
+        return VisibilityQuery.getDefault().isVisible(fo);
+    }
+
+    private static boolean isWatchedFolder(File folder) {
+        return !IGNORED_FOLDERS.contains(folder.getName()) && VisibilityQuery.getDefault().isVisible(folder);
+    }
+
+    private boolean isUnderIgnoredFolder(FileObject fo) {
+        for (FileObject parent = fo.getParent(); parent != null && !parent.equals(root); parent = parent.getParent()) {
+            if (!isIndexable(parent)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void add(FileObject fo) {
+        String path = FileUtil.getRelativePath(root, fo);
+        if (path == null) {
+            return;
+        }
+        FileEntry existing = entries.get(path);
+        if (existing != null) {
+            existing.update(fo.getSize(), fo.lastModified().getTime());
+            return;
+        }
+        String language = languageOf(fo.getNameExt());
+        FileEntry entry = new FileEntry(path, language, fo.getSize(), fo.lastModified().getTime());
+        entries.put(path, entry);
+        pathsByBaseName.computeIfAbsent(entry.getBaseName().toLowerCase(Locale.ROOT),
+                k -> ConcurrentHashMap.newKeySet()).add(path);
+    }
+
+    private void remove(String path) {
+        FileEntry entry = entries.remove(path);
+        if (entry != null) {
+            Set<String> paths = pathsByBaseName.get(entry.getBaseName().toLowerCase(Locale.ROOT));
+            if (paths != null) {
+                paths.remove(path);
+            }
+        }
+    }
+
+    private void removeFolder(String folderPath) {
+        String prefix = folderPath + "/";
+        for (String path : new ArrayList<>(entries.keySet())) {
+            if (path.startsWith(prefix)) {
+                remove(path);
+            }
+        }
+    }
+
+    /**
+     * Maintient l'index à jour à partir des événements du système de fichiers.
+     */
+    private class RootListener implements FileChangeListener {
+
+        @Override
+        public void fileFolderCreated(FileEvent fe) {
+            FileObject folder = fe.getFile();
+            if (isIndexable(folder) && !isUnderIgnoredFolder(folder)) {
+                SCANNER.execute(() -> scan(folder));
+            }
+        }
+
+        @Override
+        public void fileDataCreated(FileEvent fe) {
+            FileObject fo = fe.getFile();
+            if (isIndexable(fo) && !isUnderIgnoredFolder(fo)) {
+                add(fo);
+            }
+        }
+
+        @Override
+        public void fileChanged(FileEvent fe) {
+            FileObject fo = fe.getFile();
+            String path = FileUtil.getRelativePath(root, fo);
+            FileEntry entry = path != null ? entries.get(path) : null;
+            if (entry != null) {
+                entry.update(fo.getSize(), fo.lastModified().getTime());
+            }
+        }
+
+        @Override
+        public void fileDeleted(FileEvent fe) {
+            FileObject fo = fe.getFile();
+            String path = FileUtil.getRelativePath(root, fo);
+            if (path == null) {
+                return;
+            }
+            if (fo.isFolder()) {
+                removeFolder(path);
+            } else {
+                remove(path);
+            }
+        }
+
+        @Override
+        public void fileRenamed(FileRenameEvent fe) {
+            FileObject fo = fe.getFile();
+            FileObject parent = fo.getParent();
+            String parentPath = parent != null ? FileUtil.getRelativePath(root, parent) : null;
+            if (parentPath == null) {
+                return;
+            }
+            String oldName = fe.getExt().isEmpty() ? fe.getName() : fe.getName() + "." + fe.getExt();
+            String oldPath = parentPath.isEmpty() ? oldName : parentPath + "/" + oldName;
+            if (fo.isFolder()) {
+                removeFolder(oldPath);
+                fileFolderCreated(fe);
+            } else {
+                remove(oldPath);
+                fileDataCreated(fe);
+            }
+        }
+
+        @Override
+        public void fileAttributeChanged(FileAttributeEvent fe) {
+            // Sans effet sur l'index
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.denis.claude.netbeans.diff;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Diff unifié (format {@code diff -u}) portant sur un seul fichier, tel que renvoyé par Claude.
+ * L'analyse est tolérante: balises markdown, en-têtes et comptes de lignes erronés sont
+ * acceptés, seuls le contenu des blocs et leur contexte comptent. {@link #plan(String)}
+ * vérifie que chaque bloc s'applique au texte actuel et produit les remplacements à effectuer.
+ */
+public class UnifiedDiff {
+
+    private static final Pattern HUNK_HEADER = Pattern.compile("^@@ -(\\d+)(?:,(\\d+))? \\+(\\d+)(?:,(\\d+))? @@.*");
+    // Recherche du contexte autour de la position annoncée quand les numéros de ligne sont décalés
+    private static final int MAX_DRIFT = 200;
+
+    private final List<Hunk> hunks;
+
+    private UnifiedDiff(List<Hunk> hunks) {
+        this.hunks = hunks;
+    }
+
+    /**
+     * Analyse la réponse de Claude.
+     *
+     * @throws IllegalArgumentException si aucun bloc {@code @@} n'est trouvé
+     */
+    public static UnifiedDiff parse(String response) {
+        List<Hunk> hunks = new ArrayList<>();
+        Hunk current = null;
+        boolean inFence = false;
+        boolean sawFence = false;
+
+        for (String line : response.split("\n", -1)) {
+            line = line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+            if (line.startsWith("```")) {
+                // Seul le contenu du premier bloc de code est pris en compte
+                if (sawFence && !inFence) {
+                    break;
+                }
+                inFence = !inFence;
+                sawFence = true;
+                current = null;
+                continue;
+            }
+            Matcher header = HUNK_HEADER.matcher(line);
+            if (header.matches()) {
+                current = new Hunk(Integer.parseInt(header.group(1)), header.group(2) != null
+                        ? Integer.parseInt(header.group(2)) : 1);
+                hunks.add(current);
+                continue;
+            }
+            if (current == null || line.startsWith("--- ") || line.startsWith("+++ ") || line.startsWith("\\")) {
+                continue;
+            }
+            if (line.startsWith("+")) {
+                current.newLines.add(line.substring(1));
+                current.sources.add(-1);
+            } else if (line.startsWith("-")) {
+                current.oldLines.add(line.substring(1));
+            } else if (line.startsWith(" ") || line.isEmpty()) {
+                // Ligne de contexte (les lignes vides ont souvent perdu leur espace initial)
+                String context = line.isEmpty() ? "" : line.substring(1);
+                current.sources.add(current.oldLines.size());
+                current.oldLines.add(context);
+                current.newLines.add(context);
+            } else {
+                current = null; // Texte hors diff
+            }
+        }
+
+        // Lignes vides finales ajoutées par erreur à la fin d'un bloc
+        for (Hunk hunk : hunks) {
+            hunk.trimTrailingBlankContext();
+        }
+        hunks.removeIf(h -> h.oldLines.equals(h.newLines));
+        if (hunks.isEmpty()) {
+            throw new IllegalArgumentException("La réponse ne contient aucun bloc de diff (@@ ... @@)");
+        }
+        return new UnifiedDiff(hunks);
+    }
+
+    public List<Hunk> getHunks() {
+        return Collections.unmodifiableList(hunks);
+    }
+
+    public int getAddedLines() {
+        int count = 0;
+        for (Hunk hunk : hunks) {
+            count += hunk.getAdded();
+        }
+        return count;
+    }
+
+    public int getRemovedLines() {
+        int count = 0;
+        for (Hunk hunk : hunks) {
+            count += hunk.getRemoved();
+        }
+        return count;
+    }
+
+    /**
+     * Localise chaque bloc dans le texte et retourne les remplacements à effectuer,
+     * du dernier au premier (les positions restent valides en les appliquant dans l'ordre).
+     *
+     * @throws IllegalArgumentException si un bloc ne correspond pas au texte
+     */
+    public List<Replacement> plan(String text) {
+        List<String> lines = new ArrayList<>();
+        List<Integer> lineStarts = new ArrayList<>();
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf('\n', start);
+            if (end < 0) {
+                end = text.length();
+            }
+            lineStarts.add(start);
+            lines.add(text.substring(start, end));
+            start = end + 1;
+        }
+        lineStarts.add(text.length());
+        boolean endsWithNewline = text.isEmpty() || text.endsWith("\n");
+
+        List<Replacement> replacements = new ArrayList<>();
+        int minLine = 0;
+        for (int i = 0; i < hunks.size(); i++) {
+            Hunk hunk = hunks.get(i);
+            int at = locate(hunk, lines, minLine);
+            if (at < 0) {
+                throw new IllegalArgumentException("Le bloc " + (i + 1) + " (@@ -" + hunk.oldStart
+                        + " @@) ne correspond pas au contenu actuel du document");
+            }
+            int count = hunk.oldLines.size();
+            minLine = at + count;
+
+            StringBuilder replacement = new StringBuilder();
+            for (int j = 0; j < hunk.newLines.size(); j++) {
+                // Les lignes de contexte gardent le texte du document (correspondance tolérante)
+                int source = hunk.sources.get(j);
+                replacement.append(source >= 0 ? lines.get(at + source) : hunk.newLines.get(j)).append('\n');
+            }
+            int atEnd = at + count;
+            if (!endsWithNewline && atEnd == lines.size()) {
+                if (count == 0) {
+                    replacement.insert(0, '\n'); // Ajout après une dernière ligne sans fin de ligne
+                }
+                if (replacement.length() > 0) {
+                    replacement.setLength(replacement.length() - 1);
+                }
+            }
+            replacements.add(new Replacement(lineStarts.get(at), lineStarts.get(atEnd), replacement.toString()));
+        }
+        Collections.reverse(replacements);
+        return replacements;
+    }
+
+    /**
+     * Position (ligne, base 0) où le contexte du bloc correspond, la plus proche de celle annoncée.
+     */
+    private static int locate(Hunk hunk, List<String> lines, int minLine) {
+        int count = hunk.oldLines.size();
+        // Pour un ajout pur, la ligne annoncée est celle après laquelle insérer
+        int expected = count == 0 ? hunk.oldStart : hunk.oldStart - 1;
+        expected = Math.max(minLine, Math.min(expected, lines.size() - count));
+        if (count == 0) {
+            return expected;
+        }
+        for (boolean lenient : new boolean[]{false, true}) {
+            for (int drift = 0; drift <= MAX_DRIFT; drift++) {
+                for (int candidate : new int[]{expected - drift, expected + drift}) {
+                    if (candidate >= minLine && candidate + count <= lines.size()
+                            && matches(hunk.oldLines, lines, candidate, lenient)) {
+                        return candidate;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static boolean matches(List<String> expected, List<String> lines, int at, boolean lenient) {
+        for (int i = 0; i < expected.size(); i++) {
+            String a = expected.get(i);
+            String b = lines.get(at + i);
+            if (lenient ? !a.stripTrailing().equals(b.stripTrailing()) : !a.equals(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Bloc d'un diff: lignes d'origine (contexte et suppressions) et lignes résultantes.
+     */
+    public static final class Hunk {
+        private final int oldStart;
+        private final int declaredOldCount;
+        private final List<String> oldLines = new ArrayList<>();
+        private final List<String> newLines = new ArrayList<>();
+        // Pour chaque ligne résultante: indice de la ligne de contexte d'origine, -1 si ajoutée
+        private final List<Integer> sources = new ArrayList<>();
+        private int added;
+        private int removed;
+
+        Hunk(int oldStart, int declaredOldCount) {
+            this.oldStart = oldStart;
+            this.declaredOldCount = declaredOldCount;
+        }
+
+        public int getOldStart() {
+            return oldStart;
+        }
+
+        public int getAdded() {
+            return added;
+        }
+
+        public int getRemoved() {
+            return removed;
+        }
+
+        void trimTrailingBlankContext() {
+            // Une ligne vide de contexte en trop en fin de bloc (souvent la séparation avant le
+            // bloc suivant) empêcherait la correspondance: on ne la garde que si elle est annoncée
+            while (oldLines.size() > declaredOldCount && !oldLines.isEmpty() && !newLines.isEmpty()
+                    && oldLines.get(oldLines.size() - 1).isEmpty() && newLines.get(newLines.size() - 1).isEmpty()) {
+                oldLines.remove(oldLines.size() - 1);
+                newLines.remove(newLines.size() - 1);
+                sources.remove(sources.size() - 1);
+            }
+            int common = 0;
+            while (common < oldLines.size() && common < newLines.size()
+                    && oldLines.get(common).equals(newLines.get(common))) {
+                common++;
+            }
+            int commonEnd = 0;
+            while (commonEnd < oldLines.size() - common && commonEnd < newLines.size() - common
+                    && oldLines.get(oldLines.size() - 1 - commonEnd).equals(newLines.get(newLines.size() - 1 - commonEnd))) {
+                commonEnd++;
+            }
+            removed = oldLines.size() - common - commonEnd;
+            added = newLines.size() - common - commonEnd;
+        }
+    }
+
+    /**
+     * Remplacement de la plage [start, end) du texte par {@code text}.
+     */
+    public static final class Replacement {
+        private final int start;
+        private final int end;
+        private final String text;
+
+        Replacement(int start, int end, String text) {
+            this.start = start;
+            this.end = end;
+            this.text = text;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        public String getText() {
+            return text;
+        }
+    }
+}
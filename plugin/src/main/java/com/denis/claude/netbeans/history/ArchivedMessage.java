@@ -0,0 +1,51 @@
+package com.denis.claude.netbeans.history;
+
+/**
+ * Message de conversation tel qu'il est stocké dans l'archive locale.
+ */
+public class ArchivedMessage {
+
+    public static final String ROLE_USER = "user";
+    public static final String ROLE_ASSISTANT = "assistant";
+
+    private final String sessionId;
+    private final int ordinal;
+    private final String role;
+    private final String content;
+    private final long timestamp;
+
+    public ArchivedMessage(String sessionId, int ordinal, String role, String content, long timestamp) {
+        this.sessionId = sessionId;
+        this.ordinal = ordinal;
+        this.role = role;
+        this.content = content;
+        this.timestamp = timestamp;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Position du message dans sa session (0 pour le premier).
+     */
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public boolean isUser() {
+        return ROLE_USER.equals(role);
+    }
+}
@@ -0,0 +1,143 @@
+package com.denis.claude.netbeans.history;
+
+import com.denis.claude.netbeans.util.PluginStorage;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Archive locale des conversations avec Claude.
+ * Chaque session est stockée dans un fichier JSONL (un message par ligne).
+ * Les écritures se font sur un thread dédié pour ne jamais bloquer l'EDT.
+ */
+public class ConversationArchive {
+
+    private static final Logger LOG = Logger.getLogger(ConversationArchive.class.getName());
+    private static final String EXTENSION = ".jsonl";
+
+    private static ConversationArchive instance;
+    private final File directory;
+    private final Gson gson;
+    private final ExecutorService writer;
+    private final Map<String, AtomicInteger> ordinals;
+
+    private ConversationArchive() {
+        directory = PluginStorage.getDirectory("conversations");
+        gson = new Gson();
+        writer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "Claude conversation archive");
+            t.setDaemon(true);
+            return t;
+        });
+        ordinals = new ConcurrentHashMap<>();
+    }
+
+    public static synchronized ConversationArchive getInstance() {
+        if (instance == null) {
+            instance = new ConversationArchive();
+        }
+        return instance;
+    }
+
+    /**
+     * Ajoute un message à la session et met à jour l'index de recherche.
+     */
+    public ArchivedMessage append(String sessionId, String role, String content) {
+        int ordinal = ordinals.computeIfAbsent(sessionId, id -> new AtomicInteger(countMessages(id)))
+                .getAndIncrement();
+        ArchivedMessage message = new ArchivedMessage(sessionId, ordinal, role, content, System.currentTimeMillis());
+        writer.execute(() -> {
+            write(message);
+            ConversationIndex.getInstance().add(message);
+        });
+        return message;
+    }
+
+    private void write(ArchivedMessage message) {
+        File file = sessionFile(message.getSessionId());
+        try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            out.write(gson.toJson(message));
+            out.write('\n');
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Impossible d'archiver le message", e);
+        }
+    }
+
+    /**
+     * Lit tous les messages d'une session, dans l'ordre.
+     */
+    public List<ArchivedMessage> readSession(String sessionId) {
+        List<ArchivedMessage> messages = new ArrayList<>();
+        readFile(sessionFile(sessionId), messages::add);
+        return messages;
+    }
+
+    /**
+     * Parcourt tous les messages archivés, session par session.
+     */
+    void forEachMessage(Consumer<ArchivedMessage> consumer) {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            readFile(file, consumer);
+        }
+    }
+
+    private void readFile(File file, Consumer<ArchivedMessage> consumer) {
+        if (!file.isFile()) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    ArchivedMessage message = gson.fromJson(line, ArchivedMessage.class);
+                    if (message != null && message.getContent() != null) {
+                        consumer.accept(message);
+                    }
+                } catch (JsonParseException e) {
+                    // Ligne tronquée (arrêt brutal de l'IDE): on l'ignore
+                }
+            }
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Lecture impossible: " + file, e);
+        }
+    }
+
+    private int countMessages(String sessionId) {
+        File file = sessionFile(sessionId);
+        if (!file.isFile()) {
+            return 0;
+        }
+        int[] count = {0};
+        readFile(file, m -> count[0]++);
+        return count[0];
+    }
+
+    private File sessionFile(String sessionId) {
+        return new File(directory, sessionId + EXTENSION);
+    }
+}
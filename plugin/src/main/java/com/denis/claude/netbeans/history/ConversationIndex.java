@@ -0,0 +1,284 @@
+package com.denis.claude.netbeans.history;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Index inversé en mémoire sur les conversations archivées.
+ * Chaque message est indexé, ainsi que chacun de ses blocs de code séparément.
+ * Le classement utilise BM25; le dernier terme de la requête est traité comme
+ * un préfixe pour permettre la recherche pendant la frappe.
+ */
+public class ConversationIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MIN_TERM_LENGTH = 2;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int SNIPPET_LENGTH = 160;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static ConversationIndex instance;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Postings> postings = new TreeMap<>();
+    private final List<IndexedDocument> documents = new ArrayList<>();
+    private final Set<String> indexedMessages = new HashSet<>();
+    private long totalLength;
+    private volatile boolean loaded;
+
+    private ConversationIndex() {
+    }
+
+    public static synchronized ConversationIndex getInstance() {
+        if (instance == null) {
+            instance = new ConversationIndex();
+            Thread loader = new Thread(instance::loadArchive, "Claude conversation index");
+            loader.setDaemon(true);
+            loader.setPriority(Thread.MIN_PRIORITY);
+            loader.start();
+        }
+        return instance;
+    }
+
+    /**
+     * Indique si l'archive complète a été chargée dans l'index.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    private void loadArchive() {
+        ConversationArchive.getInstance().forEachMessage(this::add);
+        loaded = true;
+    }
+
+    /**
+     * Ajoute un message à l'index (idempotent par session/position).
+     */
+    public void add(ArchivedMessage message) {
+        String key = message.getSessionId() + '#' + message.getOrdinal();
+        List<String> codeBlocks = extractCodeBlocks(message.getContent());
+
+        lock.writeLock().lock();
+        try {
+            if (!indexedMessages.add(key)) {
+                return;
+            }
+            addDocument(message, false, message.getContent());
+            for (String code : codeBlocks) {
+                addDocument(message, true, code);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addDocument(ArchivedMessage message, boolean code, String text) {
+        List<String> terms = tokenize(text);
+        if (terms.isEmpty()) {
+            return;
+        }
+        int docId = documents.size();
+        documents.add(new IndexedDocument(message, code, snippet(text), terms.size()));
+        totalLength += terms.size();
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : terms) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), t -> new Postings()).add(docId, entry.getValue());
+        }
+    }
+
+    /**
+     * Recherche les messages les plus pertinents pour la requête.
+     * Un seul résultat est retourné par message (le meilleur de ses documents).
+     */
+    public List<SearchHit> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            int docCount = documents.size();
+            if (docCount == 0) {
+                return new ArrayList<>();
+            }
+            double avgLength = (double) totalLength / docCount;
+            Map<Integer, Double> scores = new HashMap<>();
+
+            // Tous les termes sauf le dernier: correspondance exacte
+            Set<String> exactTerms = new LinkedHashSet<>(terms.subList(0, terms.size() - 1));
+            for (String term : exactTerms) {
+                score(postings.get(term), docCount, avgLength, 1.0, scores);
+            }
+
+            // Dernier terme: correspondance exacte ou préfixe (recherche pendant la frappe)
+            String last = terms.get(terms.size() - 1);
+            int expansions = 0;
+            for (Map.Entry<String, Postings> entry : postings.subMap(last, true, last + Character.MAX_VALUE, true).entrySet()) {
+                double weight = entry.getKey().equals(last) ? 1.0 : 0.6;
+                score(entry.getValue(), docCount, avgLength, weight, scores);
+                if (++expansions >= MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+            }
+
+            return topHits(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void score(Postings list, int docCount, double avgLength, double weight, Map<Integer, Double> scores) {
+        if (list == null) {
+            return;
+        }
+        double idf = Math.log(1 + (docCount - list.size + 0.5) / (list.size + 0.5));
+        for (int i = 0; i < list.size; i++) {
+            int docId = list.docs[i];
+            int tf = list.frequencies[i];
+            double norm = 1 - B + B * documents.get(docId).length / avgLength;
+            double value = weight * idf * (tf * (K1 + 1)) / (tf + K1 * norm);
+            scores.merge(docId, value, Double::sum);
+        }
+    }
+
+    private List<SearchHit> topHits(Map<Integer, Double> scores, int limit) {
+        // Meilleur document par message
+        Map<String, Integer> bestByMessage = new HashMap<>();
+        for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+            IndexedDocument doc = documents.get(entry.getKey());
+            bestByMessage.merge(doc.messageKey(), entry.getKey(),
+                    (a, b) -> scores.get(a) >= scores.get(b) ? a : b);
+        }
+
+        PriorityQueue<SearchHit> heap = new PriorityQueue<>(
+                (a, b) -> Double.compare(a.getScore(), b.getScore()));
+        for (int docId : bestByMessage.values()) {
+            IndexedDocument doc = documents.get(docId);
+            heap.add(new SearchHit(doc.sessionId, doc.ordinal, doc.role, doc.code,
+                    doc.timestamp, doc.snippet, scores.get(docId)));
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+
+        List<SearchHit> hits = new ArrayList<>(heap);
+        hits.sort((a, b) -> Double.compare(b.getScore(), a.getScore()));
+        return hits;
+    }
+
+    /**
+     * Découpe le texte en termes normalisés (minuscules, sans accents).
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase();
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length()
+                    && (Character.isLetterOrDigit(normalized.charAt(i)) || normalized.charAt(i) == '_');
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start >= MIN_TERM_LENGTH) {
+                    terms.add(normalized.substring(start, i));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private static List<String> extractCodeBlocks(String markdown) {
+        List<String> blocks = new ArrayList<>();
+        StringBuilder current = null;
+        for (String line : markdown.split("\n")) {
+            if (line.trim().startsWith("```")) {
+                if (current == null) {
+                    current = new StringBuilder();
+                } else {
+                    blocks.add(current.toString());
+                    current = null;
+                }
+            } else if (current != null) {
+                current.append(line).append('\n');
+            }
+        }
+        return blocks;
+    }
+
+    private static String snippet(String text) {
+        String compact = text.replaceAll("\\s+", " ").trim();
+        if (compact.length() <= SNIPPET_LENGTH) {
+            return compact;
+        }
+        return compact.substring(0, SNIPPET_LENGTH) + "...";
+    }
+
+    /**
+     * Liste de postings compacte (identifiants de documents croissants).
+     */
+    private static class Postings {
+        int[] docs = new int[4];
+        int[] frequencies = new int[4];
+        int size;
+
+        void add(int docId, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = docId;
+            frequencies[size] = frequency;
+            size++;
+        }
+    }
+
+    private static class IndexedDocument {
+        final String sessionId;
+        final int ordinal;
+        final String role;
+        final boolean code;
+        final long timestamp;
+        final String snippet;
+        final int length;
+
+        IndexedDocument(ArchivedMessage message, boolean code, String snippet, int length) {
+            this.sessionId = message.getSessionId();
+            this.ordinal = message.getOrdinal();
+            this.role = message.getRole();
+            this.timestamp = message.getTimestamp();
+            this.code = code;
+            this.snippet = snippet;
+            this.length = length;
+        }
+
+        String messageKey() {
+            return sessionId + '#' + ordinal;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.denis.claude.netbeans.history;
+
+/**
+ * Résultat d'une recherche dans l'historique des conversations.
+ */
+public class SearchHit {
+
+    private final String sessionId;
+    private final int ordinal;
+    private final String role;
+    private final boolean code;
+    private final long timestamp;
+    private final String snippet;
+    private final double score;
+
+    SearchHit(String sessionId, int ordinal, String role, boolean code, long timestamp, String snippet, double score) {
+        this.sessionId = sessionId;
+        this.ordinal = ordinal;
+        this.role = role;
+        this.code = code;
+        this.timestamp = timestamp;
+        this.snippet = snippet;
+        this.score = score;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    /**
+     * Vrai si le meilleur document du message est un bloc de code.
+     */
+    public boolean isCode() {
+        return code;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+
+    public double getScore() {
+        return score;
+    }
+}
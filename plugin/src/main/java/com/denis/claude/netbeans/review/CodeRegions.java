@@ -0,0 +1,99 @@
+package com.denis.claude.netbeans.review;
+
+import com.denis.claude.netbeans.util.ContentHash;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Découpage d'un fichier en zones (méthodes, règles, blocs) pour la relecture à l'enregistrement.
+ * Heuristique sur les accolades, sans analyse syntaxique: une zone se termine quand on revient
+ * au niveau des membres de classe (ou au niveau supérieur) après une accolade fermante ou une
+ * ligne vide. L'empreinte d'une zone ne dépend pas de sa position dans le fichier.
+ *
+ * Une zone qui ne revient pas à ce niveau (classe imbriquée, module JS enveloppé...) est
+ * coupée, passé MAX_LINES, à la ligne vide ou accolade fermante suivante: les coupures
+ * suivent le contenu, et une ligne insérée ne décale pas toutes les zones suivantes.
+ */
+final class CodeRegions {
+
+    private static final int MIN_LINES = 3;
+    private static final int MAX_LINES = 80;
+    // Texte sans point d'ancrage (code minifié...): coupure forcée
+    private static final int HARD_MAX_LINES = 400;
+
+    private CodeRegions() {
+    }
+
+    static List<Region> split(String text, String language) {
+        List<Region> regions = new ArrayList<>();
+        String[] lines = text.split("\n", -1);
+        StringBuilder current = new StringBuilder();
+        int start = 0;
+        int depth = 0;
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            current.append(line).append('\n');
+            for (int c = 0; c < line.length(); c++) {
+                char ch = line.charAt(c);
+                if (ch == '{') {
+                    depth++;
+                } else if (ch == '}') {
+                    depth = Math.max(0, depth - 1);
+                }
+            }
+            int size = i - start + 1;
+            String trimmed = line.trim();
+            boolean anchor = trimmed.endsWith("}") || trimmed.isEmpty();
+            boolean boundary = anchor && (depth <= 1 ? size >= MIN_LINES : size >= MAX_LINES);
+            if (boundary || size >= HARD_MAX_LINES || i == lines.length - 1) {
+                String code = current.toString().stripTrailing();
+                if (!code.isBlank()) {
+                    regions.add(new Region(start + 1, code, language));
+                }
+                current.setLength(0);
+                start = i + 1;
+            }
+        }
+        return regions;
+    }
+
+    /**
+     * Zone de code: première ligne (base 1), texte et empreinte.
+     */
+    static final class Region {
+        private final int startLine;
+        private final String code;
+        private final String hash;
+
+        Region(int startLine, String code, String language) {
+            this.startLine = startLine;
+            this.code = code;
+            this.hash = ContentHash.of(language + '\n' + code.strip());
+        }
+
+        int getStartLine() {
+            return startLine;
+        }
+
+        int getEndLine() {
+            return startLine + getLineCount() - 1;
+        }
+
+        int getLineCount() {
+            return code.split("\n", -1).length;
+        }
+
+        String getCode() {
+            return code;
+        }
+
+        String getHash() {
+            return hash;
+        }
+
+        boolean intersects(int firstLine, int lastLine) {
+            return firstLine <= getEndLine() && lastLine >= startLine;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.denis.claude.netbeans.review;
+
+import com.denis.claude.netbeans.settings.ClaudeSettings;
+import org.netbeans.api.editor.mimelookup.MimeRegistration;
+import org.netbeans.api.editor.mimelookup.MimeRegistrations;
+import org.netbeans.spi.editor.document.OnSaveTask;
+import org.openide.filesystems.FileObject;
+import org.openide.loaders.DataObject;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Déclenche la relecture Claude à l'enregistrement (option, désactivée par défaut).
+ * Sous le verrou de sauvegarde on ne fait que copier le texte et les lignes modifiées;
+ * le découpage et la requête ont lieu en arrière-plan.
+ */
+public class ReviewOnSaveTask implements OnSaveTask {
+
+    private final Context context;
+
+    ReviewOnSaveTask(Context context) {
+        this.context = context;
+    }
+
+    @Override
+    public void performTask() {
+        Document doc = context.getDocument();
+        ClaudeSettings settings = ClaudeSettings.getInstance();
+        // Pas de test de présence du CLI: s'il est indisponible, la relecture attend son retour
+        if (!settings.isReviewOnSave()) {
+            return;
+        }
+        Object stream = doc.getProperty(Document.StreamDescriptionProperty);
+        if (!(stream instanceof DataObject)) {
+            return;
+        }
+        FileObject file = ((DataObject) stream).getPrimaryFile();
+        try {
+            SaveReviewer.getInstance().saved(file, doc, doc.getText(0, doc.getLength()), modifiedLines(doc));
+        } catch (BadLocationException e) {
+            // Document vide ou modifié: rien à relire
+        }
+    }
+
+    /**
+     * Lignes (base 1) modifiées depuis le dernier enregistrement, ou null si inconnues.
+     */
+    private List<int[]> modifiedLines(Document doc) {
+        Element modifications = context.getModificationsRootElement();
+        if (modifications == null) {
+            return null;
+        }
+        Element lines = doc.getDefaultRootElement();
+        List<int[]> result = new ArrayList<>();
+        for (int i = 0; i < modifications.getElementCount(); i++) {
+            Element modified = modifications.getElement(i);
+            result.add(new int[]{
+                    lines.getElementIndex(modified.getStartOffset()) + 1,
+                    lines.getElementIndex(modified.getEndOffset()) + 1});
+        }
+        return result;
+    }
+
+    @Override
+    public void runLocked(Runnable run) {
+        run.run();
+    }
+
+    @Override
+    public boolean cancel() {
+        return true;
+    }
+
+    @MimeRegistrations({
+            @MimeRegistration(mimeType = "text/x-java", service = OnSaveTask.Factory.class),
+            @MimeRegistration(mimeType = "text/x-php5", service = OnSaveTask.Factory.class),
+            @MimeRegistration(mimeType = "text/javascript", service = OnSaveTask.Factory.class),
+            @MimeRegistration(mimeType = "text/css", service = OnSaveTask.Factory.class),
+            @MimeRegistration(mimeType = "text/html", service = OnSaveTask.Factory.class)
+    })
+    public static final class Factory implements OnSaveTask.Factory {
+        @Override
+        public OnSaveTask createTask(Context context) {
+            return new ReviewOnSaveTask(context);
+        }
+    }
+}
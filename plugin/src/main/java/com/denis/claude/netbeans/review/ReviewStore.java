@@ -0,0 +1,161 @@
+package com.denis.claude.netbeans.review;
+
+import com.denis.claude.netbeans.util.PluginStorage;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Remarques de relecture par empreinte de zone: une zone déjà relue n'est jamais renvoyée
+ * à Claude, quel que soit le fichier ou la position où elle se trouve.
+ * Stockage JSONL en ajout seul, compacté au chargement. Les relectures de plus de
+ * RETENTION_DAYS jours sont oubliées, et seules les MAX_ENTRIES plus récentes sont gardées.
+ */
+class ReviewStore {
+
+    private static final Logger LOG = Logger.getLogger(ReviewStore.class.getName());
+    private static final int RETENTION_DAYS = 90;
+    private static final int MAX_ENTRIES = 20000;
+
+    private final File file;
+    private final Gson gson = new Gson();
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    ReviewStore() {
+        this.file = new File(PluginStorage.getDirectory("review"), "regions.jsonl");
+        load();
+    }
+
+    /**
+     * Remarques enregistrées pour cette zone (éventuellement aucune), ou null si elle n'a pas été relue.
+     */
+    List<Finding> get(String hash) {
+        Entry entry = entries.get(hash);
+        return entry != null ? entry.findings : null;
+    }
+
+    synchronized void put(String hash, List<Finding> findings) {
+        Entry entry = new Entry(hash, findings, System.currentTimeMillis());
+        entries.put(hash, entry);
+        try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            out.write(gson.toJson(entry));
+            out.write('\n');
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Impossible d'enregistrer la relecture", e);
+        }
+        if (entries.size() > MAX_ENTRIES + MAX_ENTRIES / 10) {
+            // Marge de 10 %: une réécriture du fichier pour plusieurs milliers d'ajouts
+            evict();
+            compact();
+        }
+    }
+
+    private void load() {
+        if (!file.isFile()) {
+            return;
+        }
+        int lines = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                lines++;
+                try {
+                    Entry entry = gson.fromJson(line, Entry.class);
+                    if (entry != null && entry.hash != null && entry.findings != null) {
+                        entries.put(entry.hash, entry);
+                    }
+                } catch (JsonParseException e) {
+                    // Ligne tronquée (arrêt brutal de l'IDE): on l'ignore
+                }
+            }
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Lecture impossible: " + file, e);
+            return;
+        }
+        boolean evicted = evict();
+        if (evicted || lines > 2 * entries.size() + 100) {
+            compact();
+        }
+    }
+
+    /**
+     * Oublie les relectures expirées, puis les plus anciennes au-delà de MAX_ENTRIES.
+     * Retourne vrai si des entrées ont été retirées.
+     */
+    private synchronized boolean evict() {
+        int before = entries.size();
+        long oldest = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(RETENTION_DAYS);
+        entries.values().removeIf(entry -> entry.timestamp < oldest);
+        if (entries.size() > MAX_ENTRIES) {
+            List<Entry> byAge = new ArrayList<>(entries.values());
+            byAge.sort(Comparator.comparingLong(entry -> entry.timestamp));
+            for (Entry entry : byAge.subList(0, byAge.size() - MAX_ENTRIES)) {
+                entries.remove(entry.hash);
+            }
+        }
+        return entries.size() < before;
+    }
+
+    private synchronized void compact() {
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (Writer out = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+            for (Entry entry : entries.values()) {
+                out.write(gson.toJson(entry));
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Compactage impossible: " + file, e);
+            return;
+        }
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Compactage impossible: " + file, e);
+        }
+    }
+
+    /**
+     * Remarque sur une ligne d'une zone (base 1, relative au début de la zone).
+     */
+    static final class Finding {
+        final int line;
+        final String message;
+
+        Finding(int line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+    }
+
+    private static final class Entry {
+        final String hash;
+        final List<Finding> findings;
+        final long timestamp;
+
+        Entry(String hash, List<Finding> findings, long timestamp) {
+            this.hash = hash;
+            this.findings = findings;
+            this.timestamp = timestamp;
+        }
+    }
+}
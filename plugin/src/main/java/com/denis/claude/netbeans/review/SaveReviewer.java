@@ -0,0 +1,232 @@
+package com.denis.claude.netbeans.review;
+
+import com.denis.claude.netbeans.api.ClaudeApiClient;
+import com.denis.claude.netbeans.context.ProjectFileIndex;
+import com.denis.claude.netbeans.util.ActiveProjectTracker;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.netbeans.spi.editor.hints.ErrorDescription;
+import org.netbeans.spi.editor.hints.ErrorDescriptionFactory;
+import org.netbeans.spi.editor.hints.HintsController;
+import org.netbeans.spi.editor.hints.Severity;
+import org.openide.filesystems.FileObject;
+
+
+import javax.swing.text.Document;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Relecture en arrière-plan des zones modifiées à chaque enregistrement.
+ * Seules les zones dont l'empreinte est nouvelle partent vers Claude, en une seule requête
+ * de basse priorité; les remarques sont conservées par empreinte et affichées comme
+ * indications dans l'éditeur. Corriger une ligne d'un gros fichier coûte une petite requête.
+ */
+public class SaveReviewer {
+
+    private static final Logger LOG = Logger.getLogger(SaveReviewer.class.getName());
+
+    private static final String HINTS_LAYER = "claude-review";
+    /**
+     * Type des relectures mises en attente dans {@link com.denis.claude.netbeans.api.OfflineQueue}.
+     */
+    public static final String REPLAY_KIND = "review";
+    private static final int MAX_REGIONS_PER_REQUEST = 10;
+    private static final Pattern FINDING = Pattern.compile("^\\W*R(\\d+)\\s*:\\s*L(\\d+)\\s*:\\s*(.+)$");
+
+    private static SaveReviewer instance;
+
+    private final ReviewStore store;
+    private final Gson gson = new Gson();
+    private final ExecutorService executor;
+    // État par document ouvert, libéré avec le document
+    private final Map<Document, FileState> states = new WeakHashMap<>();
+
+    private SaveReviewer() {
+        store = new ReviewStore();
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "Claude review");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    public static synchronized SaveReviewer getInstance() {
+        if (instance == null) {
+            instance = new SaveReviewer();
+        }
+        return instance;
+    }
+
+    /**
+     * Enregistrement d'un document: le texte et les lignes modifiées depuis le dernier
+     * enregistrement (null si inconnues) sont traités hors du thread de sauvegarde.
+     */
+    void saved(FileObject file, Document doc, String text, List<int[]> modifiedLines) {
+        FileState state;
+        synchronized (states) {
+            state = states.computeIfAbsent(doc, d -> new FileState());
+        }
+        executor.execute(() -> review(state, file, doc, text, modifiedLines));
+    }
+
+    private void review(FileState state, FileObject file, Document doc, String text, List<int[]> modifiedLines) {
+        String language = ProjectFileIndex.languageOf(file.getNameExt());
+        List<CodeRegions.Region> regions = CodeRegions.split(text, language);
+
+        List<CodeRegions.Region> pending = new ArrayList<>();
+        synchronized (state) {
+            if (state.known == null) {
+                // Premier enregistrement de la session: les zones non modifiées servent de référence
+                state.known = new HashSet<>();
+                for (CodeRegions.Region region : regions) {
+                    if (modifiedLines != null && !isModified(region, modifiedLines)) {
+                        state.known.add(region.getHash());
+                    }
+                }
+            }
+            for (CodeRegions.Region region : regions) {
+                if (store.get(region.getHash()) == null && !state.known.contains(region.getHash())
+                        && pending.size() < MAX_REGIONS_PER_REQUEST) {
+                    pending.add(region);
+                }
+            }
+            if (state.inFlight != null) {
+                state.inFlight.cancel(true); // Zones remplacées par cet enregistrement
+                state.inFlight = null;
+            }
+        }
+        publish(doc, regions);
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<String> codes = new ArrayList<>();
+        List<RegionRef> refs = new ArrayList<>();
+        for (CodeRegions.Region region : pending) {
+            codes.add(region.getCode());
+            refs.add(new RegionRef(region.getHash(), region.getLineCount()));
+        }
+        // Si le CLI est indisponible, la relecture attend son retour, même après un redémarrage
+        CompletableFuture<String> future = ClaudeApiClient.getInstance().reviewRegions(file.getNameExt(),
+                language, codes, ActiveProjectTracker.getInstance().getProjectDirectory(),
+                REPLAY_KIND, gson.toJson(refs));
+        synchronized (state) {
+            state.inFlight = future;
+        }
+        future.whenCompleteAsync((response, error) -> {
+            synchronized (state) {
+                if (state.inFlight == future) {
+                    state.inFlight = null;
+                }
+            }
+            if (error != null) {
+                LOG.log(Level.FINE, "Relecture de " + file.getNameExt() + " interrompue", error);
+                return;
+            }
+            store(response, refs);
+            publish(doc, regions);
+        }, executor);
+    }
+
+    /**
+     * Réponse d'une relecture rejouée après un redémarrage: les remarques sont enregistrées
+     * et s'afficheront au prochain enregistrement du fichier.
+     */
+    public void replayed(String payload, String response) {
+        List<RegionRef> refs = gson.fromJson(payload, new TypeToken<List<RegionRef>>() { }.getType());
+        if (refs != null) {
+            executor.execute(() -> store(response, refs));
+        }
+    }
+
+    private void store(String response, List<RegionRef> refs) {
+        List<List<ReviewStore.Finding>> findings = parse(response, refs);
+        for (int i = 0; i < refs.size(); i++) {
+            store.put(refs.get(i).hash, findings.get(i));
+        }
+    }
+
+    private static boolean isModified(CodeRegions.Region region, List<int[]> modifiedLines) {
+        for (int[] range : modifiedLines) {
+            if (region.intersects(range[0], range[1])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remarques de la réponse, par zone ({@code R<zone>:L<ligne>: remarque}).
+     */
+    private static List<List<ReviewStore.Finding>> parse(String response, List<RegionRef> regions) {
+        List<List<ReviewStore.Finding>> result = new ArrayList<>();
+        for (int i = 0; i < regions.size(); i++) {
+            result.add(new ArrayList<>());
+        }
+        for (String line : response.split("\n")) {
+            Matcher m = FINDING.matcher(line.trim());
+            if (!m.matches()) {
+                continue;
+            }
+            int region = Integer.parseInt(m.group(1)) - 1;
+            if (region < 0 || region >= regions.size()) {
+                continue;
+            }
+            int regionLine = Math.max(1, Math.min(Integer.parseInt(m.group(2)), regions.get(region).lines));
+            result.get(region).add(new ReviewStore.Finding(regionLine, m.group(3).trim()));
+        }
+        return result;
+    }
+
+    /**
+     * Affiche les remarques connues des zones du texte enregistré.
+     */
+    private void publish(Document doc, List<CodeRegions.Region> regions) {
+        int lineCount = doc.getDefaultRootElement().getElementCount();
+        List<ErrorDescription> hints = new ArrayList<>();
+        for (CodeRegions.Region region : regions) {
+            List<ReviewStore.Finding> findings = store.get(region.getHash());
+            if (findings == null) {
+                continue;
+            }
+            for (ReviewStore.Finding finding : findings) {
+                int line = Math.min(region.getStartLine() + finding.line - 1, lineCount);
+                hints.add(ErrorDescriptionFactory.createErrorDescription(Severity.VERIFIER,
+                        "Claude: " + finding.message, doc, line));
+            }
+        }
+        HintsController.setErrors(doc, HINTS_LAYER, hints);
+    }
+
+    /**
+     * Zone envoyée en relecture: empreinte et nombre de lignes, de quoi interpréter la réponse.
+     */
+    private static final class RegionRef {
+        final String hash;
+        final int lines;
+
+        RegionRef(String hash, int lines) {
+            this.hash = hash;
+            this.lines = lines;
+        }
+    }
+
+    private static final class FileState {
+        // Empreintes déjà vues pour ce document (relues ou présentes à l'ouverture)
+        Set<String> known;
+        CompletableFuture<String> inFlight;
+    }
+}
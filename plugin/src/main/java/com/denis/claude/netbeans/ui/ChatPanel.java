@@ -0,0 +1,953 @@
+package com.denis.claude.netbeans.ui;
+
+import com.denis.claude.netbeans.api.ChatSession;
+import com.denis.claude.netbeans.api.ClaudeApiClient;
+import com.denis.claude.netbeans.api.RateLimiter;
+import com.denis.claude.netbeans.api.RequestScheduler;
+import com.denis.claude.netbeans.context.ContextAssembler;
+import com.denis.claude.netbeans.history.ArchivedMessage;
+import com.denis.claude.netbeans.history.ConversationArchive;
+import com.denis.claude.netbeans.history.SearchHit;
+import com.denis.claude.netbeans.settings.ClaudeSettings;
+import com.vladsch.flexmark.ast.FencedCodeBlock;
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.html.renderer.NodeRenderer;
+import com.vladsch.flexmark.html.renderer.NodeRenderingHandler;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Node;
+import org.netbeans.api.editor.EditorRegistry;
+import org.openide.text.NbDocument;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.event.HyperlinkEvent;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+import javax.swing.text.JTextComponent;
+import javax.swing.text.StyledDocument;
+import javax.swing.text.html.HTMLDocument;
+import javax.swing.text.html.HTMLEditorKit;
+import javax.swing.text.html.StyleSheet;
+import java.awt.*;
+import java.awt.datatransfer.StringSelection;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Panneau de chat avec Claude AI.
+ * Affiche l'historique des messages et permet d'envoyer de nouvelles requêtes.
+ */
+public class ChatPanel extends JPanel {
+
+    private static final int HIGHLIGHT_DELAY_MS = 120;
+
+    // Au-delà de ces seuils, une réponse est affichée repliée (aperçu + "Afficher tout")
+    private static final int COLLAPSE_THRESHOLD_CHARS = 12_000;
+    private static final int COLLAPSE_THRESHOLD_LINES = 300;
+    private static final int PREVIEW_LINES = 40;
+    private static final String LINK_PREFIX = "claude:";
+
+    private final JEditorPane chatDisplay;
+    private final JTextArea inputArea;
+    private final JButton sendButton;
+    private final JButton clearButton;
+    private final StringBuilder chatHistory;
+    private final Parser markdownParser;
+    private final HtmlRenderer htmlRenderer;
+    private ChatSession session;
+    private final List<PendingCodeBlock> pendingBlocks;
+    private final Timer highlightTimer;
+    private int nextBlockId;
+    private final Map<Integer, LargeMessage> largeMessages;
+    private final Map<Integer, List<IndexedCodeBlock>> messageBlocks;
+    private int nextMessageId;
+    private boolean streamingRender;
+    // Réponse en cours de réception: les messages d'état s'affichent avant elle
+    private StreamingMessage streamingMessage;
+    private int renderingMessage = -1;
+
+    public ChatPanel() {
+        this(new ChatSession());
+    }
+
+    public ChatPanel(ChatSession session) {
+        this.session = session;
+        setLayout(new BorderLayout(5, 5));
+        setBorder(new EmptyBorder(10, 10, 10, 10));
+
+        chatHistory = new StringBuilder();
+        markdownParser = Parser.builder().build();
+        htmlRenderer = HtmlRenderer.builder()
+                .nodeRendererFactory(options -> new CodeBlockNodeRenderer())
+                .build();
+        pendingBlocks = new ArrayList<>();
+        largeMessages = new HashMap<>();
+        messageBlocks = new HashMap<>();
+
+        // Coloration des blocs de code visibles, après stabilisation du défilement
+        highlightTimer = new Timer(HIGHLIGHT_DELAY_MS, e -> highlightVisibleBlocks());
+        highlightTimer.setRepeats(false);
+
+        // Zone d'affichage du chat
+        chatDisplay = new JEditorPane();
+        chatDisplay.setEditable(false);
+        chatDisplay.setContentType("text/html");
+        setupHtmlStyles();
+        chatDisplay.addHyperlinkListener(this::handleLink);
+
+        JScrollPane chatScroll = new JScrollPane(chatDisplay);
+        chatScroll.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
+        chatScroll.getViewport().addChangeListener(e -> highlightTimer.restart());
+
+        // Zone de saisie
+        inputArea = new JTextArea(3, 40);
+        inputArea.setLineWrap(true);
+        inputArea.setWrapStyleWord(true);
+        inputArea.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(Color.GRAY),
+                BorderFactory.createEmptyBorder(5, 5, 5, 5)
+        ));
+
+        // Raccourci Ctrl+Enter pour envoyer
+        inputArea.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, KeyEvent.CTRL_DOWN_MASK), "send");
+        inputArea.getActionMap().put("send", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                sendMessage();
+            }
+        });
+
+        JScrollPane inputScroll = new JScrollPane(inputArea);
+
+        // Boutons
+        sendButton = new JButton("Envoyer");
+        sendButton.addActionListener(e -> sendMessage());
+
+        clearButton = new JButton("Effacer");
+        clearButton.addActionListener(e -> clearChat());
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttonPanel.add(clearButton);
+        buttonPanel.add(sendButton);
+
+        // Panel du bas (input + boutons)
+        JPanel bottomPanel = new JPanel(new BorderLayout(5, 5));
+        bottomPanel.add(inputScroll, BorderLayout.CENTER);
+        bottomPanel.add(buttonPanel, BorderLayout.EAST);
+
+        // Assemblage
+        add(chatScroll, BorderLayout.CENTER);
+        add(bottomPanel, BorderLayout.SOUTH);
+
+        // Message initial
+        if (!ClaudeSettings.getInstance().isConfigured()) {
+            appendSystemMessage("Bienvenue! Veuillez configurer Claude Code dans NetBeans > Préférences > Claude AI");
+        } else {
+            appendSystemMessage("Bienvenue! Tapez votre message et appuyez sur Ctrl+Entrée pour envoyer.");
+        }
+    }
+
+    private void setupHtmlStyles() {
+        HTMLEditorKit kit = new HTMLEditorKit();
+        StyleSheet styleSheet = kit.getStyleSheet();
+        styleSheet.addRule("body { font-family: 'Segoe UI', Arial, sans-serif; font-size: 13px; margin: 10px; }");
+        styleSheet.addRule(".user { background-color: #e3f2fd; padding: 10px; border-radius: 10px; margin: 5px 0; }");
+        styleSheet.addRule(".assistant { background-color: #f5f5f5; padding: 10px; border-radius: 10px; margin: 5px 0; }");
+        styleSheet.addRule(".system { background-color: #fff3e0; padding: 10px; border-radius: 10px; margin: 5px 0; font-style: italic; }");
+        styleSheet.addRule(".error { background-color: #ffebee; padding: 10px; border-radius: 10px; margin: 5px 0; color: #c62828; }");
+        styleSheet.addRule("pre { background-color: #263238; color: #aed581; padding: 10px; border-radius: 5px; overflow-x: auto; }");
+        styleSheet.addRule(".collapsed { color: #607d8b; font-size: 12px; }");
+        styleSheet.addRule(".codeactions { color: #607d8b; font-size: 11px; margin-top: 0; }");
+        styleSheet.addRule("code { background-color: #eceff1; padding: 2px 5px; border-radius: 3px; font-family: 'Consolas', monospace; }");
+        chatDisplay.setEditorKit(kit);
+    }
+
+    private void sendMessage() {
+        String message = inputArea.getText().trim();
+        if (message.isEmpty()) {
+            return;
+        }
+
+        if (!ClaudeSettings.getInstance().isConfigured()) {
+            appendErrorMessage("Veuillez configurer Claude Code dans NetBeans > Préférences > Claude AI");
+            return;
+        }
+
+        // Afficher le message utilisateur
+        final ChatSession current = session;
+        appendUserMessage(message);
+        ConversationArchive.getInstance().append(current.getId(), ArchivedMessage.ROLE_USER, message);
+        inputArea.setText("");
+        inputArea.setEnabled(false);
+        sendButton.setEnabled(false);
+
+        // Indicateur de chargement, ou attente prévue si le budget de débit est épuisé
+        String wait = RateLimiter.getInstance().describeWait(RequestScheduler.Priority.INTERACTIVE,
+                ContextAssembler.estimateTokens(message));
+        StreamingMessage streaming = new StreamingMessage(nextMessageId++);
+        streaming.indicator = messageDiv("system",
+                wait != null ? wait + " (le message partira automatiquement)" : "Claude réfléchit...");
+        appendHtml(streaming.indicator);
+        streamingMessage = streaming;
+
+        // Envoyer à Claude; la sortie reçue s'affiche au fil de l'eau, par lots
+        RenderCoalescer coalescer = new RenderCoalescer(text -> appendStreamedText(streaming, text));
+        coalescer.start();
+
+        ClaudeApiClient.getInstance().sendMessage(current, message, coalescer::append)
+                .thenAccept(response -> {
+                    SwingUtilities.invokeLater(() -> {
+                        coalescer.stop();
+                        completeStreamingMessage(streaming, response); // À la place de l'aperçu
+                        ConversationArchive.getInstance().append(current.getId(), ArchivedMessage.ROLE_ASSISTANT, response);
+                        inputArea.setEnabled(true);
+                        sendButton.setEnabled(true);
+                        inputArea.requestFocus();
+                    });
+                })
+                .exceptionally(ex -> {
+                    SwingUtilities.invokeLater(() -> {
+                        coalescer.stop();
+                        removeStreamingMessage(streaming);
+                        appendErrorMessage("Erreur: " + ex.getMessage());
+                        inputArea.setEnabled(true);
+                        sendButton.setEnabled(true);
+                        inputArea.requestFocus();
+                    });
+                    return null;
+                });
+    }
+
+    /**
+     * Ajoute un lot de texte reçu à la réponse en cours et ne re-rend que son élément.
+     */
+    private void appendStreamedText(StreamingMessage streaming, String text) {
+        streaming.text.append(text);
+        if (streaming.placeholder == null) {
+            remove(streaming.indicator); // Retirer "Claude réfléchit..."
+            streaming.placeholder = assistantDiv(streaming.id, "...");
+            chatHistory.append(streaming.placeholder);
+            updateDisplay();
+        }
+
+        String content;
+        if (isLarge(streaming.text)) {
+            // Ne pas mettre en page une réponse énorme pendant sa réception
+            content = String.format("<p class='collapsed'>Réception en cours: %d Ko...</p>",
+                    streaming.text.length() / 1024);
+        } else {
+            streamingRender = true;
+            try {
+                // Paragraphes terminés convertis une seule fois: seul le dernier est re-rendu
+                int boundary = streaming.advance();
+                if (boundary > streaming.renderedUpTo) {
+                    streaming.html.append(markdownToHtml(streaming.text.substring(streaming.renderedUpTo, boundary)));
+                    streaming.renderedUpTo = boundary;
+                }
+                content = streaming.html + markdownToHtml(streaming.text.substring(streaming.renderedUpTo));
+            } finally {
+                streamingRender = false;
+            }
+        }
+
+        // Historique tenu à jour: un réaffichage complet ne revient pas à "..."
+        String div = assistantDiv(streaming.id, content);
+        int start = chatHistory.indexOf(streaming.placeholder);
+        if (start >= 0) {
+            chatHistory.replace(start, start + streaming.placeholder.length(), div);
+            streaming.placeholder = div;
+        }
+        if (chatDisplay.getDocument() instanceof HTMLDocument) {
+            HTMLDocument doc = (HTMLDocument) chatDisplay.getDocument();
+            Element element = doc.getElement("msg-" + streaming.id);
+            if (element != null) {
+                try {
+                    doc.setOuterHTML(element, div);
+                    chatDisplay.setCaretPosition(doc.getLength());
+                } catch (BadLocationException | IOException e) {
+                    // L'aperçu sera remplacé par la réponse complète
+                }
+            }
+        }
+    }
+
+    private void removeStreamingMessage(StreamingMessage streaming) {
+        if (streamingMessage == streaming) {
+            streamingMessage = null;
+        }
+        remove(streaming.placeholder != null ? streaming.placeholder : streaming.indicator);
+    }
+
+    /**
+     * Retire un élément de l'historique et réaffiche la conversation.
+     */
+    private void remove(String html) {
+        int start = chatHistory.indexOf(html);
+        if (start >= 0) {
+            chatHistory.delete(start, start + html.length());
+        }
+        updateDisplay();
+    }
+
+    private void appendUserMessage(String message) {
+        chatHistory.append("<div class='user'><strong>Vous:</strong><br/>")
+                .append(escapeHtml(message).replace("\n", "<br/>"))
+                .append("</div>");
+        updateDisplay();
+    }
+
+    private void appendAssistantMessage(String message) {
+        chatHistory.append(assistantHtml(message));
+        updateDisplay();
+    }
+
+    /**
+     * Remplace l'aperçu de la réponse (ou l'indicateur d'attente) par la réponse complète,
+     * à la même place: les messages d'état affichés pendant la réception restent avant elle.
+     */
+    private void completeStreamingMessage(StreamingMessage streaming, String message) {
+        if (streamingMessage == streaming) {
+            streamingMessage = null;
+        }
+        String current = streaming.placeholder != null ? streaming.placeholder : streaming.indicator;
+        String html = assistantHtml(message);
+        int start = chatHistory.indexOf(current);
+        if (start >= 0) {
+            chatHistory.replace(start, start + current.length(), html);
+        } else {
+            chatHistory.append(html);
+        }
+        updateDisplay();
+    }
+
+    private String assistantHtml(String message) {
+        int id = nextMessageId++;
+        if (isLarge(message)) {
+            // Très grande réponse: seul un aperçu est converti et mis en page
+            LargeMessage large = new LargeMessage(message);
+            large.html = renderCollapsed(id, message);
+            largeMessages.put(id, large);
+            return large.html;
+        }
+        return assistantDiv(id, renderMessage(id, message));
+    }
+
+    private String markdownToHtml(String markdown) {
+        // Convertir le Markdown en HTML
+        Node document = markdownParser.parse(markdown);
+        return htmlRenderer.render(document);
+    }
+
+    /**
+     * Rendu complet d'une réponse: ses blocs de code sont indexés au passage (un seul
+     * parcours de l'arbre markdown) et reçoivent leurs liens d'insertion.
+     */
+    private String renderMessage(int id, String markdown) {
+        List<IndexedCodeBlock> blocks = new ArrayList<>();
+        messageBlocks.put(id, blocks);
+        renderingMessage = id;
+        try {
+            return markdownToHtml(markdown);
+        } finally {
+            renderingMessage = -1;
+            if (blocks.isEmpty()) {
+                messageBlocks.remove(id);
+            }
+        }
+    }
+
+    private String assistantDiv(int id, String htmlContent) {
+        return "<div class='assistant' id='msg-" + id + "'><strong>Claude:</strong><br/>"
+                + htmlContent
+                + "</div>";
+    }
+
+    private static boolean isLarge(CharSequence message) {
+        if (message.length() > COLLAPSE_THRESHOLD_CHARS) {
+            return true;
+        }
+        int lines = 1;
+        for (int i = 0; i < message.length() && lines <= COLLAPSE_THRESHOLD_LINES; i++) {
+            if (message.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines > COLLAPSE_THRESHOLD_LINES;
+    }
+
+    private String renderCollapsed(int id, String message) {
+        int end = 0;
+        int lines = 0;
+        int fences = 0;
+        while (end < message.length() && lines < PREVIEW_LINES) {
+            int next = message.indexOf('\n', end);
+            next = next < 0 ? message.length() : next + 1;
+            if (message.substring(end, next).trim().startsWith("```")) {
+                fences++;
+            }
+            end = next;
+            lines++;
+        }
+        String preview = message.substring(0, end);
+        if (fences % 2 == 1) {
+            preview += "\n```"; // Refermer un bloc de code coupé par l'aperçu
+        }
+
+        int totalLines = message.split("\n", -1).length;
+        String hidden = String.format("%d lignes masquées sur %d (%d Ko). ",
+                Math.max(0, totalLines - lines), totalLines, message.length() / 1024);
+        return assistantDiv(id, markdownToHtml(preview)
+                + "<p class='collapsed'>" + hidden
+                + "<a href='" + LINK_PREFIX + "expand/" + id + "'>Afficher tout</a> | "
+                + sourceLinks(id) + "</p>");
+    }
+
+    private static String sourceLinks(int id) {
+        return "<a href='" + LINK_PREFIX + "copy/" + id + "'>Copier</a> | "
+                + "<a href='" + LINK_PREFIX + "insert/" + id + "'>Insérer dans l'éditeur</a>";
+    }
+
+    private void handleLink(HyperlinkEvent e) {
+        if (e.getEventType() != HyperlinkEvent.EventType.ACTIVATED || e.getDescription() == null
+                || !e.getDescription().startsWith(LINK_PREFIX)) {
+            return;
+        }
+        String[] parts = e.getDescription().substring(LINK_PREFIX.length()).split("/", 2);
+        if (parts.length != 2) {
+            return;
+        }
+        if (parts[0].startsWith("block-")) {
+            handleBlockLink(parts[0], parts[1]);
+            return;
+        }
+        int id;
+        try {
+            id = Integer.parseInt(parts[1]);
+        } catch (NumberFormatException ex) {
+            return;
+        }
+        LargeMessage large = largeMessages.get(id);
+        if (large == null) {
+            return;
+        }
+        switch (parts[0]) {
+            case "expand":
+                expandMessage(id, large);
+                break;
+            case "copy":
+                Toolkit.getDefaultToolkit().getSystemClipboard()
+                        .setContents(new StringSelection(large.source), null);
+                break;
+            case "insert":
+                List<IndexedCodeBlock> blocks = messageBlocks.get(id);
+                insertIntoEditor(blocks != null && blocks.size() == 1 ? blocks.get(0).code
+                        : extractSingleCodeBlock(large.source));
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Action sur un bloc de code indexé ({@code <message>.<bloc>}): le code vient de l'index,
+     * pas du HTML affiché.
+     */
+    private void handleBlockLink(String action, String ref) {
+        int dot = ref.indexOf('.');
+        IndexedCodeBlock block = null;
+        try {
+            List<IndexedCodeBlock> blocks = messageBlocks.get(Integer.parseInt(ref.substring(0, dot)));
+            int index = Integer.parseInt(ref.substring(dot + 1));
+            if (blocks != null && index < blocks.size()) {
+                block = blocks.get(index);
+            }
+        } catch (NumberFormatException | IndexOutOfBoundsException ex) {
+            return;
+        }
+        if (block == null) {
+            return;
+        }
+        switch (action) {
+            case "block-insert":
+                applyToEditor(block.code, false);
+                break;
+            case "block-replace":
+                applyToEditor(block.code, true);
+                break;
+            case "block-copy":
+                Toolkit.getDefaultToolkit().getSystemClipboard()
+                        .setContents(new StringSelection(block.code), null);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Rend le contenu complet d'une réponse repliée, à la demande de l'utilisateur.
+     */
+    private void expandMessage(int id, LargeMessage large) {
+        if (large.expanded) {
+            return;
+        }
+        String expanded = assistantDiv(id, renderMessage(id, large.source)
+                + "<p class='collapsed'>" + sourceLinks(id) + "</p>");
+        int start = chatHistory.indexOf(large.html);
+        if (start >= 0) {
+            chatHistory.replace(start, start + large.html.length(), expanded);
+        }
+        large.html = expanded;
+        large.expanded = true;
+
+        // Remplacer seulement ce message pour conserver la position de défilement
+        if (chatDisplay.getDocument() instanceof HTMLDocument) {
+            HTMLDocument doc = (HTMLDocument) chatDisplay.getDocument();
+            Element element = doc.getElement("msg-" + id);
+            if (element != null) {
+                try {
+                    doc.setOuterHTML(element, expanded);
+                    highlightTimer.restart();
+                    return;
+                } catch (BadLocationException | IOException ex) {
+                    // Rendu complet ci-dessous
+                }
+            }
+        }
+        updateDisplay();
+    }
+
+    /**
+     * Si la réponse se résume à un unique bloc de code, retourne son contenu;
+     * sinon retourne la source complète.
+     */
+    private static String extractSingleCodeBlock(String source) {
+        int open = source.indexOf("```");
+        if (open < 0) {
+            return source;
+        }
+        int contentStart = source.indexOf('\n', open);
+        int close = contentStart < 0 ? -1 : source.indexOf("\n```", contentStart);
+        if (close < 0 || source.indexOf("```", close + 4) >= 0) {
+            return source;
+        }
+        return source.substring(contentStart + 1, close + 1);
+    }
+
+    private void insertIntoEditor(String text) {
+        applyToEditor(text, false);
+    }
+
+    /**
+     * Insère le texte au curseur du dernier éditeur actif, ou à la place de sa sélection,
+     * en une seule modification annulable.
+     */
+    private void applyToEditor(String text, boolean replaceSelection) {
+        JTextComponent editor = EditorRegistry.lastFocusedComponent();
+        if (editor == null || !(editor.getDocument() instanceof StyledDocument)) {
+            appendErrorMessage("Aucun éditeur actif trouvé");
+            return;
+        }
+        StyledDocument doc = (StyledDocument) editor.getDocument();
+        int start = editor.getSelectionStart();
+        int end = editor.getSelectionEnd();
+        if (replaceSelection && start == end) {
+            appendErrorMessage("Aucune sélection dans l'éditeur");
+            return;
+        }
+        int from = replaceSelection ? start : editor.getCaretPosition();
+        int length = replaceSelection ? end - start : 0;
+        try {
+            // Une sélection sans fin de ligne est remplacée par un bloc sans fin de ligne
+            String replacement = text;
+            if (replaceSelection && text.endsWith("\n") && !doc.getText(end - 1, 1).equals("\n")) {
+                replacement = text.substring(0, text.length() - 1);
+            }
+            String inserted = replacement;
+            NbDocument.runAtomicAsUser(doc, () -> {
+                try {
+                    doc.remove(from, length);
+                    doc.insertString(from, inserted, null);
+                } catch (BadLocationException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            });
+        } catch (BadLocationException | IllegalStateException ex) {
+            appendErrorMessage("Erreur lors de l'insertion: " + ex.getMessage());
+        }
+    }
+
+    private void appendSystemMessage(String message) {
+        appendHtml(messageDiv("system", message));
+    }
+
+    private void appendErrorMessage(String message) {
+        appendHtml(messageDiv("error", message));
+    }
+
+    private String messageDiv(String cssClass, String message) {
+        return "<div class='" + cssClass + "'>" + escapeHtml(message) + "</div>";
+    }
+
+    /**
+     * Ajoute un message d'état, avant la réponse en cours de réception s'il y en a une
+     * (elle sera remplacée en place par la réponse complète).
+     */
+    private void appendHtml(String html) {
+        int start = streamingMessage != null && streamingMessage.placeholder != null
+                ? chatHistory.indexOf(streamingMessage.placeholder) : -1;
+        if (start >= 0) {
+            chatHistory.insert(start, html);
+        } else {
+            chatHistory.append(html);
+        }
+        updateDisplay();
+    }
+
+    private void updateDisplay() {
+        String html = "<html><body>" + chatHistory.toString() + "</body></html>";
+        chatDisplay.setText(html);
+        // Scroll vers le bas
+        SwingUtilities.invokeLater(() -> {
+            chatDisplay.setCaretPosition(chatDisplay.getDocument().getLength());
+        });
+        highlightTimer.restart();
+    }
+
+    /**
+     * Rendu d'un bloc de code: HTML coloré s'il est en cache, sinon texte brut
+     * enregistré pour une coloration différée quand il deviendra visible.
+     */
+    private String renderCodeBlock(FencedCodeBlock block) {
+        String info = block.getInfo().toString().trim();
+        String language = info.isEmpty() ? "" : info.split("\\s+")[0];
+        String code = block.getContentChars().toString();
+        return renderCodeHtml(language, code) + indexCodeBlock(block, language, code);
+    }
+
+    /**
+     * Ajoute le bloc à l'index du message en cours de rendu et retourne ses liens d'action
+     * (rien pendant la réception ou pour un aperçu replié, dont les blocs sont incomplets).
+     */
+    private String indexCodeBlock(FencedCodeBlock block, String language, String code) {
+        List<IndexedCodeBlock> blocks = renderingMessage >= 0 ? messageBlocks.get(renderingMessage) : null;
+        if (blocks == null || streamingRender) {
+            return "";
+        }
+        String ref = renderingMessage + "." + blocks.size();
+        blocks.add(new IndexedCodeBlock(language, code, block.getContentChars().getStartOffset(),
+                block.getContentChars().getEndOffset()));
+        return "<p class='codeactions'>" + (language.isEmpty() ? "" : escapeHtml(language) + " - ")
+                + "<a href='" + LINK_PREFIX + "block-insert/" + ref + "'>Insérer au curseur</a> | "
+                + "<a href='" + LINK_PREFIX + "block-replace/" + ref + "'>Remplacer la sélection</a> | "
+                + "<a href='" + LINK_PREFIX + "block-copy/" + ref + "'>Copier</a></p>";
+    }
+
+    private String renderCodeHtml(String language, String code) {
+        String plain = escapeHtml(code);
+
+        String mimeType = CodeHighlighter.mimeTypeFor(language);
+        // Pendant la réception, les blocs sont incomplets: texte brut, sans coloration
+        if (mimeType == null || streamingRender) {
+            return "<pre><code>" + plain + "</code></pre>";
+        }
+        String key = CodeHighlighter.cacheKey(code, mimeType);
+        String cached = CodeHighlighter.getInstance().getCached(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        String id = "cb" + (nextBlockId++);
+        String html = "<pre id=\"" + id + "\"><code>" + plain + "</code></pre>";
+        pendingBlocks.add(new PendingCodeBlock(id, key, code, mimeType, html));
+        return html;
+    }
+
+    /**
+     * Lance la coloration des blocs dans la zone visible (plus un écran de marge).
+     */
+    private void highlightVisibleBlocks() {
+        if (pendingBlocks.isEmpty() || !(chatDisplay.getDocument() instanceof HTMLDocument)) {
+            return;
+        }
+        HTMLDocument doc = (HTMLDocument) chatDisplay.getDocument();
+        Rectangle visible = chatDisplay.getVisibleRect();
+        Rectangle area = new Rectangle(visible.x, visible.y - visible.height,
+                visible.width, visible.height * 3);
+
+        for (PendingCodeBlock block : new ArrayList<>(pendingBlocks)) {
+            if (block.requested) {
+                continue;
+            }
+            Element element = doc.getElement(block.id);
+            if (element == null) {
+                if (chatHistory.indexOf(block.html) < 0) {
+                    pendingBlocks.remove(block); // Message retiré du chat
+                }
+                continue;
+            }
+            if (!intersects(element, area)) {
+                continue;
+            }
+            block.requested = true;
+            CodeHighlighter.getInstance().highlightAsync(block.key, block.code, block.mimeType,
+                    html -> applyHighlight(block, html));
+        }
+    }
+
+    private boolean intersects(Element element, Rectangle area) {
+        try {
+            Rectangle2D start = chatDisplay.modelToView2D(element.getStartOffset());
+            Rectangle2D end = chatDisplay.modelToView2D(Math.max(element.getStartOffset(), element.getEndOffset() - 1));
+            if (start == null || end == null) {
+                return false;
+            }
+            double top = start.getMinY();
+            double bottom = end.getMaxY();
+            return bottom >= area.getMinY() && top <= area.getMaxY();
+        } catch (BadLocationException e) {
+            return false;
+        }
+    }
+
+    private void applyHighlight(PendingCodeBlock block, String highlighted) {
+        pendingBlocks.remove(block);
+        if (highlighted == null) {
+            return;
+        }
+
+        // Mettre à jour la source HTML pour les prochains rendus complets
+        int start = chatHistory.indexOf(block.html);
+        if (start >= 0) {
+            chatHistory.replace(start, start + block.html.length(), highlighted);
+        }
+
+        // Remplacer uniquement l'élément concerné, sans re-rendre le document
+        if (chatDisplay.getDocument() instanceof HTMLDocument) {
+            HTMLDocument doc = (HTMLDocument) chatDisplay.getDocument();
+            Element element = doc.getElement(block.id);
+            if (element != null) {
+                try {
+                    doc.setOuterHTML(element, highlighted);
+                } catch (BadLocationException | IOException e) {
+                    // Le bloc reste en texte brut
+                }
+            }
+        }
+    }
+
+    private void clearChat() {
+        chatHistory.setLength(0);
+        pendingBlocks.clear();
+        largeMessages.clear();
+        messageBlocks.clear();
+        session = new ChatSession();
+        updateDisplay();
+        appendSystemMessage("Conversation effacée. Nouvelle conversation commencée.");
+    }
+
+    /**
+     * Retourne la session de conversation de ce panneau.
+     */
+    public ChatSession getSession() {
+        return session;
+    }
+
+    /**
+     * Reprend une session existante (restauration de l'onglet au démarrage)
+     * et réaffiche ses messages depuis l'archive locale.
+     */
+    public void restoreSession(ChatSession restored) {
+        this.session = restored;
+        CompletableFuture.supplyAsync(() -> ConversationArchive.getInstance().readSession(restored.getId()))
+                .thenAccept(messages -> SwingUtilities.invokeLater(() -> {
+                    if (session != restored || messages.isEmpty()) {
+                        return;
+                    }
+                    chatHistory.setLength(0);
+                    pendingBlocks.clear();
+                    largeMessages.clear();
+                    messageBlocks.clear();
+                    for (ArchivedMessage m : messages) {
+                        if (m.isUser()) {
+                            appendUserMessage(m.getContent());
+                        } else {
+                            appendAssistantMessage(m.getContent());
+                        }
+                    }
+                    appendSystemMessage("Conversation reprise.");
+                }));
+    }
+
+    /**
+     * Affiche un échange retrouvé dans l'historique, sans nouvel appel à Claude.
+     * Pour une question, la réponse qui la suit dans la session est affichée.
+     */
+    public void showArchivedExchange(SearchHit hit) {
+        CompletableFuture.supplyAsync(() -> ConversationArchive.getInstance().readSession(hit.getSessionId()))
+                .thenAccept(messages -> SwingUtilities.invokeLater(() -> displayArchivedExchange(hit, messages)));
+    }
+
+    private void displayArchivedExchange(SearchHit hit, List<ArchivedMessage> messages) {
+        ArchivedMessage question = null;
+        ArchivedMessage answer = null;
+        for (ArchivedMessage m : messages) {
+            if (m.getOrdinal() <= hit.getOrdinal() && m.isUser()) {
+                question = m;
+                answer = null;
+            } else if (question != null && answer == null && !m.isUser()) {
+                answer = m;
+            }
+            if (m.getOrdinal() >= hit.getOrdinal() && answer != null) {
+                break;
+            }
+        }
+        if (answer == null) {
+            appendErrorMessage("Conversation introuvable dans l'historique.");
+            return;
+        }
+
+        String date = new SimpleDateFormat("dd/MM/yyyy HH:mm").format(new Date(answer.getTimestamp()));
+        appendSystemMessage("Réponse retrouvée dans l'historique (" + date + ")");
+        appendUserMessage(question.getContent());
+        appendAssistantMessage(answer.getContent());
+    }
+
+    private String escapeHtml(String text) {
+        return text.replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;");
+    }
+
+    public void appendCodeForAnalysis(String code, String language, String fileName) {
+        appendCodeForAnalysis(code, language, fileName, Collections.emptyList());
+    }
+
+    /**
+     * Prépare une demande d'analyse; les fichiers liés sont cités par leur chemin
+     * pour que Claude les lise directement, sans les rechercher dans le projet.
+     */
+    public void appendCodeForAnalysis(String code, String language, String fileName, List<String> relatedFiles) {
+        String message = String.format("Analyse ce code %s (fichier: %s):\n\n```%s\n%s\n```",
+                language, fileName, language, code);
+        if (!relatedFiles.isEmpty()) {
+            message += "\n\nFichiers liés: " + String.join(", ", relatedFiles);
+        }
+        inputArea.setText(message);
+        inputArea.requestFocus();
+    }
+
+    /**
+     * Réponse en cours de réception.
+     */
+    private static class StreamingMessage {
+        final int id;
+        final StringBuilder text = new StringBuilder();
+        // Indicateur d'attente, puis élément de la réponse tel qu'il figure dans l'historique
+        String indicator;
+        String placeholder;
+        // Rendu incrémental: HTML des paragraphes terminés, jusqu'à renderedUpTo dans text
+        final StringBuilder html = new StringBuilder();
+        int renderedUpTo;
+        private int scannedUpTo;
+        private int boundary;
+        private boolean inFence;
+
+        StreamingMessage(int id) {
+            this.id = id;
+        }
+
+        /**
+         * Parcourt les lignes complètes reçues depuis le dernier appel et retourne la fin du
+         * dernier paragraphe terminé: ligne vide hors d'un bloc de code.
+         */
+        int advance() {
+            int end;
+            while ((end = text.indexOf("\n", scannedUpTo)) >= 0) {
+                String line = text.substring(scannedUpTo, end).trim();
+                if (line.startsWith("```") || line.startsWith("~~~")) {
+                    inFence = !inFence;
+                } else if (line.isEmpty() && !inFence) {
+                    boundary = end + 1;
+                }
+                scannedUpTo = end + 1;
+            }
+            return boundary;
+        }
+    }
+
+    /**
+     * Réponse volumineuse affichée repliée; la source complète reste disponible
+     * pour la copie et l'insertion sans être mise en page.
+     */
+    private static class LargeMessage {
+        final String source;
+        String html;
+        boolean expanded;
+
+        LargeMessage(String source) {
+            this.source = source;
+        }
+    }
+
+    /**
+     * Bloc de code en attente de coloration syntaxique.
+     */
+    private static class PendingCodeBlock {
+        final String id;
+        final String key;
+        final String code;
+        final String mimeType;
+        final String html;
+        boolean requested;
+
+        PendingCodeBlock(String id, String key, String code, String mimeType, String html) {
+            this.id = id;
+            this.key = key;
+            this.code = code;
+            this.mimeType = mimeType;
+            this.html = html;
+        }
+    }
+
+    /**
+     * Bloc de code d'une réponse, tel que lu dans l'arbre markdown: langage annoncé,
+     * contenu et position du contenu dans la source du message.
+     */
+    private static class IndexedCodeBlock {
+        final String language;
+        final String code;
+        final int startOffset;
+        final int endOffset;
+
+        IndexedCodeBlock(String language, String code, int startOffset, int endOffset) {
+            this.language = language;
+            this.code = code;
+            this.startOffset = startOffset;
+            this.endOffset = endOffset;
+        }
+    }
+
+    /**
+     * Rendu des blocs de code délimités (```) avec coloration différée.
+     */
+    private class CodeBlockNodeRenderer implements NodeRenderer {
+
+        @Override
+        public Set<NodeRenderingHandler<?>> getNodeRenderingHandlers() {
+            return Collections.singleton(new NodeRenderingHandler<>(FencedCodeBlock.class,
+                    (node, context, html) -> html.raw(renderCodeBlock(node))));
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.denis.claude.netbeans.ui;
+
+import com.denis.claude.netbeans.api.ChatSession;
+import org.netbeans.api.settings.ConvertAsProperties;
+import org.openide.awt.ActionID;
+import org.openide.awt.ActionReference;
+import org.openide.windows.Mode;
+import org.openide.windows.TopComponent;
+import org.openide.windows.WindowManager;
+import org.openide.util.NbBundle.Messages;
+
+import javax.swing.AbstractAction;
+import javax.swing.Action;
+import java.awt.BorderLayout;
+import java.awt.event.ActionEvent;
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TopComponent pour le panneau de chat Claude.
+ * S'affiche comme un panneau latéral dans NetBeans. Plusieurs instances peuvent
+ * être ouvertes, chacune avec sa propre session de conversation; toutes partagent
+ * l'ordonnanceur de requêtes du plugin.
+ */
+@ConvertAsProperties(
+        dtd = "-//com.denis.claude.netbeans.ui//ClaudeChat//EN",
+        autostore = false
+)
+@TopComponent.Description(
+        preferredID = "ClaudeChatTopComponent",
+        iconBase = "com/denis/claude/netbeans/claude-icon.png",
+        persistenceType = TopComponent.PERSISTENCE_ONLY_OPENED
+)
+@TopComponent.Registration(
+        mode = "output",
+        openAtStartup = false
+)
+@ActionID(
+        category = "Window",
+        id = "com.denis.claude.netbeans.ui.ClaudeChatTopComponent"
+)
+@ActionReference(
+        path = "Menu/Window",
+        position = 333
+)
+@TopComponent.OpenActionRegistration(
+        displayName = "#CTL_ClaudeChatTopComponent",
+        preferredID = "ClaudeChatTopComponent"
+)
+@Messages({
+        "CTL_ClaudeChatTopComponent=Claude Chat",
+        "HINT_ClaudeChatTopComponent=Panneau de chat avec Claude AI"
+})
+public final class ClaudeChatTopComponent extends TopComponent {
+
+    private static final AtomicInteger TAB_COUNTER = new AtomicInteger();
+    private static WeakReference<ClaudeChatTopComponent> lastActivated = new WeakReference<>(null);
+
+    private ChatPanel chatPanel;
+
+    public ClaudeChatTopComponent() {
+        this(new ChatSession());
+    }
+
+    private ClaudeChatTopComponent(ChatSession session) {
+        initComponents(session);
+        int number = TAB_COUNTER.incrementAndGet();
+        setName(number == 1 ? "Claude Chat" : "Claude Chat " + number);
+        setToolTipText("Panneau de chat avec Claude AI");
+    }
+
+    private void initComponents(ChatSession session) {
+        setLayout(new BorderLayout());
+        chatPanel = new ChatPanel(session);
+        add(new HistorySearchPanel(hit -> chatPanel.showArchivedExchange(hit)), BorderLayout.NORTH);
+        add(chatPanel, BorderLayout.CENTER);
+    }
+
+    @Override
+    public void componentOpened() {
+        // Appelé quand le composant est ouvert
+    }
+
+    @Override
+    public void componentClosed() {
+        // Appelé quand le composant est fermé
+    }
+
+    @Override
+    protected void componentActivated() {
+        lastActivated = new WeakReference<>(this);
+    }
+
+    @Override
+    public Action[] getActions() {
+        Action[] actions = super.getActions();
+        Action[] result = Arrays.copyOf(actions, actions.length + 1);
+        result[actions.length] = new AbstractAction("Nouvelle conversation") {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                openNewSession();
+            }
+        };
+        return result;
+    }
+
+    void writeProperties(java.util.Properties p) {
+        // Sauvegarde des propriétés
+        p.setProperty("version", "1.1");
+        ChatSession session = chatPanel.getSession();
+        p.setProperty("sessionId", session.getId());
+        p.setProperty("sessionStarted", Boolean.toString(session.isStarted()));
+        if (session.getProjectDirectory() != null) {
+            p.setProperty("projectDirectory", session.getProjectDirectory().getAbsolutePath());
+        }
+    }
+
+    void readProperties(java.util.Properties p) {
+        // Lecture des propriétés: reprise de la session de l'onglet
+        String sessionId = p.getProperty("sessionId");
+        if (sessionId == null) {
+            return;
+        }
+        String dir = p.getProperty("projectDirectory");
+        chatPanel.restoreSession(new ChatSession(sessionId,
+                dir != null ? new File(dir) : null,
+                Boolean.parseBoolean(p.getProperty("sessionStarted"))));
+    }
+
+    /**
+     * Retourne le panneau de chat pour interaction externe.
+     */
+    public ChatPanel getChatPanel() {
+        return chatPanel;
+    }
+
+    /**
+     * Trouve et retourne l'instance ouverte du TopComponent
+     * (de préférence le dernier onglet de chat activé).
+     */
+    public static ClaudeChatTopComponent findInstance() {
+        ClaudeChatTopComponent last = lastActivated.get();
+        if (last != null && last.isOpened()) {
+            return last;
+        }
+        return (ClaudeChatTopComponent) TopComponent.getRegistry()
+                .getOpened()
+                .stream()
+                .filter(tc -> tc instanceof ClaudeChatTopComponent)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Ouvre le TopComponent et retourne l'instance.
+     */
+    public static ClaudeChatTopComponent openAndGetInstance() {
+        ClaudeChatTopComponent tc = findInstance();
+        if (tc == null) {
+            tc = new ClaudeChatTopComponent();
+        }
+        tc.open();
+        tc.requestActive();
+        return tc;
+    }
+
+    /**
+     * Ouvre un nouvel onglet de chat avec une nouvelle session.
+     */
+    public static ClaudeChatTopComponent openNewSession() {
+        ClaudeChatTopComponent tc = new ClaudeChatTopComponent();
+        Mode mode = WindowManager.getDefault().findMode("output");
+        if (mode != null) {
+            mode.dockInto(tc);
+        }
+        tc.open();
+        tc.requestActive();
+        return tc;
+    }
+}
@@ -0,0 +1,244 @@
+package com.denis.claude.netbeans.ui;
+
+import com.denis.claude.netbeans.util.ContentHash;
+import org.netbeans.api.editor.mimelookup.MimeLookup;
+import org.netbeans.api.editor.settings.FontColorNames;
+import org.netbeans.api.editor.settings.FontColorSettings;
+import org.netbeans.api.lexer.Language;
+import org.netbeans.api.lexer.Token;
+import org.netbeans.api.lexer.TokenHierarchy;
+import org.netbeans.api.lexer.TokenId;
+import org.netbeans.api.lexer.TokenSequence;
+
+import javax.swing.SwingUtilities;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.StyleConstants;
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Coloration syntaxique des blocs de code du chat avec les lexers NetBeans.
+ * Le calcul se fait sur un thread d'arrière-plan; le HTML produit est mis en
+ * cache par empreinte du contenu pour ne jamais relexer deux fois le même bloc.
+ */
+public class CodeHighlighter {
+
+    private static final Logger LOG = Logger.getLogger(CodeHighlighter.class.getName());
+    private static final int CACHE_SIZE = 256;
+    private static final int MAX_HIGHLIGHT_LENGTH = 200_000;
+    private static final Map<String, String> MIME_TYPES = new HashMap<>();
+
+    static {
+        MIME_TYPES.put("java", "text/x-java");
+        MIME_TYPES.put("php", "text/x-php5");
+        MIME_TYPES.put("js", "text/javascript");
+        MIME_TYPES.put("javascript", "text/javascript");
+        MIME_TYPES.put("ts", "text/typescript");
+        MIME_TYPES.put("typescript", "text/typescript");
+        MIME_TYPES.put("css", "text/css");
+        MIME_TYPES.put("html", "text/html");
+        MIME_TYPES.put("xml", "text/xml");
+        MIME_TYPES.put("json", "text/x-json");
+        MIME_TYPES.put("sql", "text/x-sql");
+        MIME_TYPES.put("py", "text/x-python");
+        MIME_TYPES.put("python", "text/x-python");
+        MIME_TYPES.put("sh", "text/sh");
+        MIME_TYPES.put("bash", "text/sh");
+        MIME_TYPES.put("properties", "text/x-properties");
+        MIME_TYPES.put("yaml", "text/x-yaml");
+        MIME_TYPES.put("yml", "text/x-yaml");
+    }
+
+    private static CodeHighlighter instance;
+
+    private final Map<String, String> cache;
+    private final Map<String, List<Consumer<String>>> pending;
+    private final ExecutorService executor;
+
+    private CodeHighlighter() {
+        cache = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        };
+        pending = new HashMap<>();
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "Claude code highlighter");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    public static synchronized CodeHighlighter getInstance() {
+        if (instance == null) {
+            instance = new CodeHighlighter();
+        }
+        return instance;
+    }
+
+    /**
+     * Retourne le type MIME NetBeans correspondant au langage d'un bloc, ou null.
+     */
+    public static String mimeTypeFor(String language) {
+        if (language == null) {
+            return null;
+        }
+        return MIME_TYPES.get(language.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Clé de cache d'un bloc: empreinte du type MIME et du contenu.
+     */
+    public static String cacheKey(String code, String mimeType) {
+        return ContentHash.of(mimeType + '\n' + code);
+    }
+
+    /**
+     * Retourne le HTML coloré déjà calculé pour cette clé, ou null.
+     */
+    public synchronized String getCached(String key) {
+        return cache.get(key);
+    }
+
+    /**
+     * Demande la coloration d'un bloc en arrière-plan.
+     * Le callback est appelé sur l'EDT avec le HTML coloré (ou null si aucun lexer).
+     */
+    public void highlightAsync(String key, String code, String mimeType, Consumer<String> callback) {
+        synchronized (this) {
+            String cached = cache.get(key);
+            if (cached != null) {
+                SwingUtilities.invokeLater(() -> callback.accept(cached));
+                return;
+            }
+            List<Consumer<String>> callbacks = pending.get(key);
+            if (callbacks != null) {
+                callbacks.add(callback);
+                return;
+            }
+            callbacks = new ArrayList<>();
+            callbacks.add(callback);
+            pending.put(key, callbacks);
+        }
+
+        executor.execute(() -> {
+            String html = null;
+            try {
+                html = highlight(code, mimeType);
+            } catch (RuntimeException e) {
+                LOG.log(Level.FINE, "Coloration impossible pour " + mimeType, e);
+            }
+            List<Consumer<String>> callbacks;
+            synchronized (this) {
+                if (html != null) {
+                    cache.put(key, html);
+                }
+                callbacks = pending.remove(key);
+            }
+            String result = html;
+            SwingUtilities.invokeLater(() -> callbacks.forEach(c -> c.accept(result)));
+        });
+    }
+
+    /**
+     * Produit le bloc pre coloré, ou null si aucun lexer n'est disponible.
+     */
+    private String highlight(String code, String mimeType) {
+        if (code.length() > MAX_HIGHLIGHT_LENGTH) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        Language<TokenId> language = MimeLookup.getLookup(mimeType).lookup(Language.class);
+        if (language == null) {
+            return null;
+        }
+        FontColorSettings colors = MimeLookup.getLookup(mimeType).lookup(FontColorSettings.class);
+
+        StringBuilder html = new StringBuilder(code.length() * 2);
+        html.append("<pre").append(preStyle(colors)).append('>');
+
+        TokenHierarchy<String> hierarchy = TokenHierarchy.create(code, language);
+        TokenSequence<?> sequence = hierarchy.tokenSequence();
+        Map<String, String> styles = new HashMap<>();
+        while (sequence.moveNext()) {
+            Token<?> token = sequence.token();
+            String text = escape(token.text().toString());
+            String style = styles.computeIfAbsent(token.id().name(), name -> tokenStyle(colors, token.id()));
+            if (style.isEmpty()) {
+                html.append(text);
+            } else {
+                html.append("<span style=\"").append(style).append("\">").append(text).append("</span>");
+            }
+        }
+        html.append("</pre>");
+        return html.toString();
+    }
+
+    private static String preStyle(FontColorSettings colors) {
+        if (colors == null) {
+            return "";
+        }
+        // Fond et couleur par défaut de l'éditeur: les couleurs des tokens y sont lisibles
+        AttributeSet defaults = colors.getFontColors(FontColorNames.DEFAULT_COLORING);
+        if (defaults == null) {
+            return "";
+        }
+        StringBuilder style = new StringBuilder();
+        Object background = defaults.getAttribute(StyleConstants.Background);
+        Object foreground = defaults.getAttribute(StyleConstants.Foreground);
+        if (background instanceof Color) {
+            style.append("background-color: ").append(toHex((Color) background)).append("; ");
+        }
+        if (foreground instanceof Color) {
+            style.append("color: ").append(toHex((Color) foreground)).append(";");
+        }
+        return style.length() == 0 ? "" : " style=\"" + style.toString().trim() + "\"";
+    }
+
+    private static String tokenStyle(FontColorSettings colors, TokenId id) {
+        if (colors == null) {
+            return "";
+        }
+        AttributeSet attributes = colors.getTokenFontColors(id.name());
+        if (attributes == null && id.primaryCategory() != null) {
+            attributes = colors.getTokenFontColors(id.primaryCategory());
+        }
+        if (attributes == null) {
+            return "";
+        }
+        StringBuilder style = new StringBuilder();
+        Object foreground = attributes.getAttribute(StyleConstants.Foreground);
+        if (foreground instanceof Color) {
+            style.append("color: ").append(toHex((Color) foreground)).append("; ");
+        }
+        if (Boolean.TRUE.equals(attributes.getAttribute(StyleConstants.Bold))) {
+            style.append("font-weight: bold; ");
+        }
+        if (Boolean.TRUE.equals(attributes.getAttribute(StyleConstants.Italic))) {
+            style.append("font-style: italic; ");
+        }
+        return style.toString().trim();
+    }
+
+    private static String toHex(Color color) {
+        return String.format("#%02x%02x%02x", color.getRed(), color.getGreen(), color.getBlue());
+    }
+
+    static String escape(String text) {
+        return text.replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;");
+    }
+}
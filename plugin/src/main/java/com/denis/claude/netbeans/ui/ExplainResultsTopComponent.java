@@ -0,0 +1,267 @@
+package com.denis.claude.netbeans.ui;
+
+import com.denis.claude.netbeans.api.RateLimiter;
+import org.openide.awt.ActionID;
+import org.openide.awt.ActionReference;
+import org.openide.util.NbBundle.Messages;
+import org.openide.windows.TopComponent;
+import org.openide.windows.WindowManager;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import java.awt.*;
+
+/**
+ * Fenêtre des explications de code. Chaque demande d'explication y ajoute une entrée
+ * qui se remplit au fil de la réponse; plusieurs explications peuvent être en cours
+ * en même temps, sans bloquer l'édition.
+ */
+@TopComponent.Description(
+        preferredID = "ClaudeExplainTopComponent",
+        iconBase = "com/denis/claude/netbeans/claude-icon.png",
+        persistenceType = TopComponent.PERSISTENCE_NEVER
+)
+@TopComponent.Registration(
+        mode = "output",
+        openAtStartup = false
+)
+@ActionID(
+        category = "Window",
+        id = "com.denis.claude.netbeans.ui.ExplainResultsTopComponent"
+)
+@ActionReference(
+        path = "Menu/Window",
+        position = 335
+)
+@TopComponent.OpenActionRegistration(
+        displayName = "#CTL_ExplainResultsTopComponent",
+        preferredID = "ClaudeExplainTopComponent"
+)
+@Messages({
+        "CTL_ExplainResultsTopComponent=Explications Claude",
+        "HINT_ExplainResultsTopComponent=Explications de code par Claude"
+})
+public final class ExplainResultsTopComponent extends TopComponent {
+
+    private static final int MAX_ENTRIES = 50;
+
+    private final DefaultListModel<Entry> entries = new DefaultListModel<>();
+    private final JList<Entry> entryList = new JList<>(entries);
+    private final JTextArea textArea = new JTextArea();
+    private final Timer elapsedTimer;
+
+    public ExplainResultsTopComponent() {
+        setName("Explications Claude");
+        setToolTipText("Explications de code par Claude");
+        initComponents();
+        // Met à jour la durée affichée des explications en cours
+        elapsedTimer = new Timer(1000, e -> entryList.repaint());
+    }
+
+    private void initComponents() {
+        setLayout(new BorderLayout());
+
+        entryList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        entryList.setCellRenderer(new EntryRenderer());
+        entryList.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                showSelected();
+            }
+        });
+
+        textArea.setEditable(false);
+        textArea.setLineWrap(true);
+        textArea.setWrapStyleWord(true);
+        textArea.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        textArea.setMargin(new Insets(10, 10, 10, 10));
+
+        JSplitPane split = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT,
+                new JScrollPane(entryList), new JScrollPane(textArea));
+        split.setDividerLocation(260);
+        split.setResizeWeight(0.2);
+
+        JButton clearButton = new JButton("Effacer les terminées");
+        clearButton.addActionListener(e -> clearFinished());
+        JButton copyButton = new JButton("Copier");
+        copyButton.addActionListener(e -> {
+            textArea.selectAll();
+            textArea.copy();
+            textArea.select(0, 0);
+        });
+        JPanel toolbar = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 2));
+        toolbar.add(copyButton);
+        toolbar.add(clearButton);
+
+        add(toolbar, BorderLayout.NORTH);
+        add(split, BorderLayout.CENTER);
+    }
+
+    @Override
+    public void componentOpened() {
+        elapsedTimer.start();
+    }
+
+    @Override
+    public void componentClosed() {
+        elapsedTimer.stop();
+    }
+
+    /**
+     * Ajoute une explication en cours et affiche la fenêtre sans lui donner le focus
+     * (à appeler sur l'EDT).
+     */
+    public static Entry startExplanation(String title) {
+        ExplainResultsTopComponent tc = findInstance();
+        if (!tc.isOpened()) {
+            tc.open();
+        }
+        tc.requestVisible();
+        return tc.addEntry(title);
+    }
+
+    private Entry addEntry(String title) {
+        Entry entry = new Entry(this, title);
+        entries.addElement(entry);
+        while (entries.size() > MAX_ENTRIES && entries.get(0).isFinished()) {
+            entries.remove(0);
+        }
+        // Suivre la nouvelle explication, sauf si l'utilisateur en lit une autre encore en cours
+        Entry selected = entryList.getSelectedValue();
+        if (selected == null || selected.isFinished()) {
+            entryList.setSelectedValue(entry, true);
+        }
+        return entry;
+    }
+
+    private void clearFinished() {
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            if (entries.get(i).isFinished()) {
+                entries.remove(i);
+            }
+        }
+        showSelected();
+    }
+
+    private void showSelected() {
+        Entry selected = entryList.getSelectedValue();
+        textArea.setText(selected != null ? selected.text.toString() : "");
+        textArea.setCaretPosition(0);
+    }
+
+    private void entryChanged(Entry entry, String appended) {
+        int index = entries.indexOf(entry);
+        if (index < 0) {
+            return;
+        }
+        if (entryList.getSelectedValue() == entry) {
+            if (appended != null) {
+                textArea.append(appended);
+            } else {
+                showSelected();
+            }
+        }
+        entryList.repaint(entryList.getCellBounds(index, index));
+    }
+
+    private static ExplainResultsTopComponent findInstance() {
+        TopComponent tc = WindowManager.getDefault().findTopComponent("ClaudeExplainTopComponent");
+        if (tc instanceof ExplainResultsTopComponent) {
+            return (ExplainResultsTopComponent) tc;
+        }
+        return new ExplainResultsTopComponent();
+    }
+
+    /**
+     * Une explication: titre, texte reçu et état. Toutes les méthodes s'appellent sur l'EDT.
+     */
+    public static final class Entry {
+
+        private final ExplainResultsTopComponent owner;
+        private final String title;
+        private final long startTime = System.currentTimeMillis();
+        private final StringBuilder text = new StringBuilder();
+        private long endTime;
+        private long waitUntil;
+        private boolean failed;
+
+        private Entry(ExplainResultsTopComponent owner, String title) {
+            this.owner = owner;
+            this.title = title;
+        }
+
+        /**
+         * Ajoute un morceau de la réponse en cours.
+         */
+        public void append(String chunk) {
+            if (isFinished()) {
+                return;
+            }
+            text.append(chunk);
+            owner.entryChanged(this, chunk);
+        }
+
+        /**
+         * Réponse complète: remplace le texte reçu progressivement.
+         */
+        public void complete(String response) {
+            endTime = System.currentTimeMillis();
+            text.setLength(0);
+            text.append(response);
+            owner.entryChanged(this, null);
+        }
+
+        public void fail(String message) {
+            endTime = System.currentTimeMillis();
+            failed = true;
+            text.append(text.length() > 0 ? "\n\n" : "").append("Erreur: ").append(message);
+            owner.entryChanged(this, null);
+        }
+
+        public boolean isFinished() {
+            return endTime != 0;
+        }
+
+        /**
+         * Requête retenue par le limiteur de débit jusqu'à environ {@code time}: l'état
+         * affiche l'attente restante tant que la réponse n'a pas commencé.
+         */
+        public void setWaitUntil(long time) {
+            waitUntil = time;
+            owner.entryChanged(this, null);
+        }
+
+        String getStatus() {
+            long now = System.currentTimeMillis();
+            long seconds = ((isFinished() ? endTime : now) - startTime) / 1000;
+            if (failed) {
+                return "erreur";
+            }
+            if (!isFinished() && text.length() == 0 && waitUntil > now) {
+                return "en attente de la limite d'utilisation: " + RateLimiter.formatDuration(waitUntil - now);
+            }
+            return isFinished() ? "terminée en " + seconds + " s" : "en cours... " + seconds + " s";
+        }
+
+        @Override
+        public String toString() {
+            return title;
+        }
+    }
+
+    private static final class EntryRenderer extends DefaultListCellRenderer {
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                boolean isSelected, boolean cellHasFocus) {
+            Entry entry = (Entry) value;
+            String html = "<html><b>" + escape(entry.title) + "</b><br><font color='gray'>"
+                    + entry.getStatus() + "</font></html>";
+            JLabel label = (JLabel) super.getListCellRendererComponent(list, html, index, isSelected, cellHasFocus);
+            label.setBorder(new EmptyBorder(4, 6, 4, 6));
+            return label;
+        }
+
+        private static String escape(String text) {
+            return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+        }
+    }
+}
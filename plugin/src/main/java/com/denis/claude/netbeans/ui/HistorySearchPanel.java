@@ -0,0 +1,157 @@
+package com.denis.claude.netbeans.ui;
+
+import com.denis.claude.netbeans.history.ArchivedMessage;
+import com.denis.claude.netbeans.history.ConversationIndex;
+import com.denis.claude.netbeans.history.SearchHit;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Champ de recherche dans l'historique des conversations.
+ * Les résultats s'affichent dans une liste déroulante sous le champ.
+ */
+public class HistorySearchPanel extends JPanel {
+
+    private static final int MAX_RESULTS = 20;
+    private static final int SEARCH_DELAY_MS = 150;
+
+    private final JTextField searchField;
+    private final DefaultListModel<SearchHit> resultsModel;
+    private final JList<SearchHit> resultsList;
+    private final JPopupMenu resultsPopup;
+    private final Timer searchTimer;
+    private final Consumer<SearchHit> onSelect;
+
+    public HistorySearchPanel(Consumer<SearchHit> onSelect) {
+        this.onSelect = onSelect;
+        setLayout(new BorderLayout(5, 0));
+        setBorder(BorderFactory.createEmptyBorder(5, 10, 0, 10));
+
+        searchField = new JTextField();
+        searchField.setToolTipText("Rechercher dans les conversations précédentes");
+        add(new JLabel("Historique:"), BorderLayout.WEST);
+        add(searchField, BorderLayout.CENTER);
+
+        resultsModel = new DefaultListModel<>();
+        resultsList = new JList<>(resultsModel);
+        resultsList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        resultsList.setCellRenderer(new HitRenderer());
+        resultsList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                openSelected();
+            }
+        });
+
+        resultsPopup = new JPopupMenu();
+        resultsPopup.setFocusable(false);
+        JScrollPane scroll = new JScrollPane(resultsList);
+        scroll.setBorder(BorderFactory.createEmptyBorder());
+        resultsPopup.add(scroll);
+
+        // Recherche différée pendant la frappe
+        searchTimer = new Timer(SEARCH_DELAY_MS, e -> runSearch());
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            public void changedUpdate(DocumentEvent e) { searchTimer.restart(); }
+            public void removeUpdate(DocumentEvent e) { searchTimer.restart(); }
+            public void insertUpdate(DocumentEvent e) { searchTimer.restart(); }
+        });
+
+        // Navigation clavier dans les résultats
+        searchField.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_DOWN, 0), "next");
+        searchField.getActionMap().put("next", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                moveSelection(1);
+            }
+        });
+        searchField.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_UP, 0), "previous");
+        searchField.getActionMap().put("previous", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                moveSelection(-1);
+            }
+        });
+        searchField.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), "close");
+        searchField.getActionMap().put("close", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                resultsPopup.setVisible(false);
+            }
+        });
+        searchField.addActionListener(e -> openSelected());
+
+        // Démarre le chargement de l'index en arrière-plan
+        ConversationIndex.getInstance();
+    }
+
+    private void runSearch() {
+        String query = searchField.getText().trim();
+        if (query.isEmpty()) {
+            resultsPopup.setVisible(false);
+            return;
+        }
+
+        // L'index est en mémoire: la recherche reste sous quelques millisecondes
+        List<SearchHit> hits = ConversationIndex.getInstance().search(query, MAX_RESULTS);
+        resultsModel.clear();
+        for (SearchHit hit : hits) {
+            resultsModel.addElement(hit);
+        }
+
+        if (hits.isEmpty()) {
+            resultsPopup.setVisible(false);
+            return;
+        }
+        resultsList.setSelectedIndex(0);
+        resultsList.setVisibleRowCount(Math.min(hits.size(), 8));
+        resultsPopup.setPopupSize(Math.max(searchField.getWidth(), 300),
+                resultsList.getPreferredScrollableViewportSize().height + 6);
+        resultsPopup.show(searchField, 0, searchField.getHeight());
+        searchField.requestFocusInWindow();
+    }
+
+    private void moveSelection(int delta) {
+        if (!resultsPopup.isVisible() || resultsModel.isEmpty()) {
+            return;
+        }
+        int index = Math.max(0, Math.min(resultsModel.size() - 1, resultsList.getSelectedIndex() + delta));
+        resultsList.setSelectedIndex(index);
+        resultsList.ensureIndexIsVisible(index);
+    }
+
+    private void openSelected() {
+        SearchHit hit = resultsList.getSelectedValue();
+        if (hit == null || !resultsPopup.isVisible()) {
+            return;
+        }
+        resultsPopup.setVisible(false);
+        onSelect.accept(hit);
+    }
+
+    private static class HitRenderer extends DefaultListCellRenderer {
+
+        private final SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm");
+
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                boolean isSelected, boolean cellHasFocus) {
+            super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+            SearchHit hit = (SearchHit) value;
+            String who = hit.isCode() ? "Code" : (ArchivedMessage.ROLE_USER.equals(hit.getRole()) ? "Vous" : "Claude");
+            setText("[" + dateFormat.format(new Date(hit.getTimestamp())) + "] " + who + ": " + hit.getSnippet());
+            return this;
+        }
+    }
+}
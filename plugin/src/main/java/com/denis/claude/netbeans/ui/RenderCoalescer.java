@@ -0,0 +1,134 @@
+package com.denis.claude.netbeans.ui;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.awt.event.ActionEvent;
+import java.util.function.Consumer;
+
+/**
+ * Regroupe la sortie reçue en continu avant de l'afficher.
+ * Le texte arrive depuis n'importe quel thread; il est transmis à l'EDT au plus
+ * une fois par intervalle de rafraîchissement (~30 Hz), ou dès qu'un paragraphe
+ * se termine. Si l'EDT prend du retard (rendu coûteux ou file d'événements chargée),
+ * l'intervalle s'allonge, puis revient progressivement à la normale.
+ */
+public class RenderCoalescer {
+
+    private static final int MIN_INTERVAL_MS = 33;
+    private static final int MAX_INTERVAL_MS = 500;
+
+    private final Consumer<String> sink;
+    private final StringBuilder pending = new StringBuilder();
+    private final Timer timer;
+    private volatile int intervalMs = MIN_INTERVAL_MS;
+    private volatile long lastFlush;
+    private boolean flushQueued;
+
+    /**
+     * @param sink reçoit sur l'EDT chaque lot de texte à ajouter au document
+     */
+    public RenderCoalescer(Consumer<String> sink) {
+        this.sink = sink;
+        this.timer = new Timer(MIN_INTERVAL_MS, this::onTick);
+        this.timer.setCoalesce(true);
+    }
+
+    /**
+     * Démarre le rafraîchissement périodique (à appeler sur l'EDT).
+     */
+    public void start() {
+        lastFlush = System.currentTimeMillis();
+        timer.start();
+    }
+
+    /**
+     * Ajoute du texte reçu (thread quelconque).
+     */
+    public void append(String text) {
+        boolean flushNow;
+        synchronized (pending) {
+            pending.append(text);
+            // Fin de paragraphe (ligne vide reçue): afficher sans attendre le
+            // prochain tick, sauf si le dernier rafraîchissement est trop récent
+            flushNow = !flushQueued
+                    && (endsWithParagraph(pending) || "\n".equals(text))
+                    && System.currentTimeMillis() - lastFlush >= MIN_INTERVAL_MS;
+            if (flushNow) {
+                flushQueued = true;
+            }
+        }
+        if (flushNow) {
+            long queuedAt = System.currentTimeMillis();
+            SwingUtilities.invokeLater(() -> flush(System.currentTimeMillis() - queuedAt));
+        }
+    }
+
+    /**
+     * Arrête le rafraîchissement et abandonne le texte non affiché (à appeler sur l'EDT),
+     * typiquement quand la réponse complète va être rendue d'un bloc.
+     */
+    public void stop() {
+        timer.stop();
+        synchronized (pending) {
+            pending.setLength(0);
+        }
+    }
+
+    /**
+     * L'événement du Timer est créé sur l'EDT au moment où il part: il ne voit pas le
+     * retard de la file. Le rafraîchissement passe donc par une sonde {@code invokeLater}
+     * dont le délai d'exécution mesure ce retard.
+     */
+    private void onTick(ActionEvent e) {
+        synchronized (pending) {
+            if (flushQueued || pending.length() == 0) {
+                return;
+            }
+            flushQueued = true;
+        }
+        long queuedAt = System.currentTimeMillis();
+        SwingUtilities.invokeLater(() -> flush(System.currentTimeMillis() - queuedAt));
+    }
+
+    private void flush(long edtLagMs) {
+        String text;
+        synchronized (pending) {
+            flushQueued = false;
+            if (pending.length() == 0) {
+                return;
+            }
+            text = pending.toString();
+            pending.setLength(0);
+        }
+
+        long start = System.nanoTime();
+        sink.accept(text);
+        long costMs = (System.nanoTime() - start) / 1_000_000;
+        lastFlush = System.currentTimeMillis();
+        adapt(costMs, edtLagMs);
+    }
+
+    /**
+     * Ajuste l'intervalle: on ralentit si le rendu ou la latence de l'EDT dépassent
+     * la moitié du budget, on accélère doucement quand ils redeviennent faibles.
+     */
+    private void adapt(long costMs, long edtLagMs) {
+        int current = intervalMs;
+        long load = Math.max(costMs, edtLagMs);
+        int next = current;
+        if (load > current / 2) {
+            next = Math.min(MAX_INTERVAL_MS, current * 2);
+        } else if (load < current / 4) {
+            next = Math.max(MIN_INTERVAL_MS, current * 3 / 4);
+        }
+        if (next != current) {
+            intervalMs = next;
+            timer.setDelay(next);
+        }
+    }
+
+    private static boolean endsWithParagraph(StringBuilder text) {
+        int length = text.length();
+        return length >= 2 && text.charAt(length - 1) == '\n' && text.charAt(length - 2) == '\n';
+    }
+}
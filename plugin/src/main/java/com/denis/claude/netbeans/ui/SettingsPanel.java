@@ -0,0 +1,468 @@
+package com.denis.claude.netbeans.ui;
+
+import com.denis.claude.netbeans.api.ClaudeApiClient;
+import com.denis.claude.netbeans.api.EnvironmentDiagnostics;
+import com.denis.claude.netbeans.api.PromptCacheStats;
+import com.denis.claude.netbeans.settings.ClaudeSettings;
+import com.denis.claude.netbeans.util.ActiveProjectTracker;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.filechooser.FileFilter;
+import java.awt.*;
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Panneau de configuration pour le plugin Claude.
+ * Accessible via NetBeans > Préférences > Claude AI
+ */
+public final class SettingsPanel extends JPanel {
+
+    private final JTextField claudePathField;
+    private final JButton browseButton;
+    private final JButton detectButton;
+    private final JSpinner maxTokensSpinner;
+    private final JSpinner maxConcurrentSpinner;
+    private final JSpinner rateRequestsSpinner;
+    private final JSpinner rateTokensSpinner;
+    private final JSpinner rateWindowSpinner;
+    private final JCheckBox prefetchCheckBox;
+    private final JCheckBox completionCheckBox;
+    private final JCheckBox reviewCheckBox;
+    private final JButton testButton;
+    private final JLabel statusLabel;
+    private final JLabel pathStatusLabel;
+    private final JLabel lastDiagnosticLabel;
+    private CompletableFuture<String> detection;
+    private CompletableFuture<EnvironmentDiagnostics.Report> test;
+
+    public SettingsPanel() {
+        setLayout(new BorderLayout(10, 10));
+        setBorder(new EmptyBorder(20, 20, 20, 20));
+
+        // Panel principal avec GridBagLayout
+        JPanel formPanel = new JPanel(new GridBagLayout());
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(5, 5, 5, 5);
+        gbc.anchor = GridBagConstraints.WEST;
+
+        // Titre explicatif
+        gbc.gridx = 0;
+        gbc.gridy = 0;
+        gbc.gridwidth = 2;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        JLabel titleLabel = new JLabel("<html><b>Configuration de Claude Code</b><br>" +
+                "<small>Ce plugin utilise Claude Code CLI avec votre abonnement Max.</small></html>");
+        formPanel.add(titleLabel, gbc);
+
+        // Espace
+        gbc.gridy = 1;
+        formPanel.add(Box.createVerticalStrut(10), gbc);
+
+        // Chemin Claude Code
+        gbc.gridx = 0;
+        gbc.gridy = 2;
+        gbc.gridwidth = 1;
+        gbc.fill = GridBagConstraints.NONE;
+        gbc.weightx = 0;
+        formPanel.add(new JLabel("Chemin Claude Code:"), gbc);
+
+        gbc.gridx = 1;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.weightx = 1.0;
+
+        // Panel pour le champ chemin + boutons
+        JPanel pathPanel = new JPanel(new BorderLayout(5, 0));
+        claudePathField = new JTextField(30);
+        pathPanel.add(claudePathField, BorderLayout.CENTER);
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 2, 0));
+        browseButton = new JButton("Parcourir...");
+        browseButton.addActionListener(e -> browseForClaude());
+        buttonPanel.add(browseButton);
+
+        detectButton = new JButton("Détecter");
+        detectButton.addActionListener(e -> detectClaude());
+        buttonPanel.add(detectButton);
+
+        pathPanel.add(buttonPanel, BorderLayout.EAST);
+        formPanel.add(pathPanel, gbc);
+
+        // Statut du chemin
+        gbc.gridx = 1;
+        gbc.gridy = 3;
+        pathStatusLabel = new JLabel(" ");
+        pathStatusLabel.setFont(pathStatusLabel.getFont().deriveFont(Font.ITALIC, 11f));
+        formPanel.add(pathStatusLabel, gbc);
+
+        // Max tokens
+        gbc.gridx = 0;
+        gbc.gridy = 4;
+        gbc.fill = GridBagConstraints.NONE;
+        gbc.weightx = 0;
+        formPanel.add(new JLabel("Tokens maximum:"), gbc);
+
+        gbc.gridx = 1;
+        maxTokensSpinner = new JSpinner(new SpinnerNumberModel(4096, 100, 200000, 100));
+        maxTokensSpinner.setToolTipText("Budget de tokens du prompt: le contexte joint est tronqué pour y tenir");
+        formPanel.add(maxTokensSpinner, gbc);
+
+        // Requêtes simultanées (partagées par tous les onglets de chat et actions)
+        gbc.gridx = 0;
+        gbc.gridy = 5;
+        formPanel.add(new JLabel("Requêtes simultanées:"), gbc);
+
+        gbc.gridx = 1;
+        maxConcurrentSpinner = new JSpinner(new SpinnerNumberModel(3, 1, 16, 1));
+        formPanel.add(maxConcurrentSpinner, gbc);
+
+        // Budget de débit (0: pas de limite), réparti en continu sur la fenêtre
+        gbc.gridx = 0;
+        gbc.gridy = 6;
+        formPanel.add(new JLabel("Limite de débit:"), gbc);
+
+        gbc.gridx = 1;
+        JPanel ratePanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 4, 0));
+        rateRequestsSpinner = new JSpinner(new SpinnerNumberModel(150, 0, 10000, 10));
+        ratePanel.add(rateRequestsSpinner);
+        ratePanel.add(new JLabel("requêtes et"));
+        rateTokensSpinner = new JSpinner(new SpinnerNumberModel(1500000, 0, 100000000, 100000));
+        ratePanel.add(rateTokensSpinner);
+        ratePanel.add(new JLabel("tokens par"));
+        rateWindowSpinner = new JSpinner(new SpinnerNumberModel(60, 1, 1440, 5));
+        ratePanel.add(rateWindowSpinner);
+        ratePanel.add(new JLabel("min"));
+        ratePanel.setToolTipText("Au-delà, les requêtes attendent au lieu d'échouer; les limites signalées "
+                + "par le serveur réduisent ce budget jusqu'aux réussites suivantes");
+        formPanel.add(ratePanel, gbc);
+
+        // Préchargement des explications
+        gbc.gridx = 1;
+        gbc.gridy = 7;
+        prefetchCheckBox = new JCheckBox("Précharger l'explication des sélections stables");
+        prefetchCheckBox.setToolTipText("Lance l'explication en arrière-plan quand une sélection ne bouge plus, "
+                + "pour que \"Expliquer avec Claude\" réponde immédiatement");
+        formPanel.add(prefetchCheckBox, gbc);
+
+        // Complétion de code
+        gbc.gridy = 8;
+        completionCheckBox = new JCheckBox("Proposer des complétions de code par Claude");
+        completionCheckBox.setToolTipText("Ajoute une proposition de Claude à la complétion de l'éditeur "
+                + "(Ctrl+Espace, ou après une pause en début de ligne)");
+        formPanel.add(completionCheckBox, gbc);
+
+        // Relecture à l'enregistrement
+        gbc.gridy = 9;
+        reviewCheckBox = new JCheckBox("Relire les zones modifiées à l'enregistrement");
+        reviewCheckBox.setToolTipText("Envoie à Claude, en arrière-plan, les seules zones modifiées "
+                + "et affiche ses remarques dans l'éditeur");
+        formPanel.add(reviewCheckBox, gbc);
+
+        // Espace
+        gbc.gridx = 0;
+        gbc.gridy = 10;
+        gbc.gridwidth = 2;
+        formPanel.add(Box.createVerticalStrut(15), gbc);
+
+        // Bouton de test et statut
+        gbc.gridy = 11;
+        gbc.fill = GridBagConstraints.NONE;
+        gbc.anchor = GridBagConstraints.CENTER;
+
+        JPanel testPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 5));
+        testButton = new JButton("Tester la connexion");
+        testButton.addActionListener(e -> testConnection());
+        testPanel.add(testButton);
+        JButton cacheStatsButton = new JButton("Cache de prompt...");
+        cacheStatsButton.setToolTipText("Part des tokens d'entrée relus depuis le cache du serveur, par action");
+        cacheStatsButton.addActionListener(e -> showPromptCacheStats());
+        testPanel.add(cacheStatsButton);
+
+        formPanel.add(testPanel, gbc);
+
+        // Label de statut sur une ligne séparée
+        gbc.gridy = 12;
+        gbc.anchor = GridBagConstraints.CENTER;
+        statusLabel = new JLabel(" ");
+        statusLabel.setFont(statusLabel.getFont().deriveFont(Font.BOLD));
+        formPanel.add(statusLabel, gbc);
+
+        // Dernier test chronométré, pour juger si l'installation elle-même est lente
+        gbc.gridy = 13;
+        lastDiagnosticLabel = new JLabel(" ");
+        lastDiagnosticLabel.setForeground(Color.GRAY);
+        formPanel.add(lastDiagnosticLabel, gbc);
+
+        // Note d'information
+        gbc.gridy = 14;
+        gbc.anchor = GridBagConstraints.WEST;
+        JLabel noteLabel = new JLabel("<html><i>Claude Code doit être installé et connecté à votre compte Anthropic.<br>" +
+                "Installation: npm install -g @anthropic-ai/claude-code</i></html>");
+        noteLabel.setForeground(Color.GRAY);
+        formPanel.add(noteLabel, gbc);
+
+        add(formPanel, BorderLayout.NORTH);
+
+        // Charger les valeurs actuelles
+        load();
+
+        // Vérifier le chemin à l'initialisation
+        updatePathStatus();
+
+        // Listener pour mettre à jour le statut quand le chemin change
+        claudePathField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { updatePathStatus(); }
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { updatePathStatus(); }
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { updatePathStatus(); }
+        });
+    }
+
+    private void browseForClaude() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Sélectionner l'exécutable Claude Code");
+        chooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+
+        // Commencer dans /usr/local/bin ou le dossier actuel du chemin
+        String currentPath = claudePathField.getText();
+        if (!currentPath.isEmpty()) {
+            File current = new File(currentPath);
+            if (current.getParentFile() != null && current.getParentFile().exists()) {
+                chooser.setCurrentDirectory(current.getParentFile());
+            }
+        } else {
+            chooser.setCurrentDirectory(new File("/usr/local/bin"));
+        }
+
+        chooser.setFileFilter(new FileFilter() {
+            @Override
+            public boolean accept(File f) {
+                return f.isDirectory() || f.getName().equals("claude") || f.getName().startsWith("claude");
+            }
+
+            @Override
+            public String getDescription() {
+                return "Claude Code CLI (claude)";
+            }
+        });
+
+        if (chooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+            claudePathField.setText(chooser.getSelectedFile().getAbsolutePath());
+        }
+    }
+
+    /**
+     * Recherche du CLI hors de l'EDT; un second clic annule la recherche.
+     */
+    private void detectClaude() {
+        if (detection != null) {
+            detection.cancel(true);
+            return;
+        }
+        detectButton.setText("Annuler");
+        statusLabel.setText("Recherche de Claude Code...");
+        statusLabel.setForeground(new Color(0, 100, 200));
+        CompletableFuture<String> current = EnvironmentDiagnostics.getInstance().detect();
+        detection = current;
+        current.whenComplete((path, error) -> SwingUtilities.invokeLater(() -> {
+            detection = null;
+            detectButton.setText("Détecter");
+            statusLabel.setText(" ");
+            if (current.isCancelled()) {
+                return;
+            }
+            if (path != null) {
+                claudePathField.setText(path);
+                JOptionPane.showMessageDialog(this,
+                        "Claude Code détecté:\n" + path,
+                        "Détection réussie",
+                        JOptionPane.INFORMATION_MESSAGE);
+                return;
+            }
+            JOptionPane.showMessageDialog(this,
+                    "Claude Code n'a pas été trouvé sur ce système.\n\n" +
+                    "Installez-le avec:\n" +
+                    "npm install -g @anthropic-ai/claude-code\n\n" +
+                    "Puis lancez 'claude' dans un terminal pour vous connecter.",
+                    "Claude Code non trouvé",
+                    JOptionPane.WARNING_MESSAGE);
+        }));
+    }
+
+    private void updatePathStatus() {
+        String path = claudePathField.getText().trim();
+        if (path.isEmpty()) {
+            pathStatusLabel.setText("Aucun chemin spécifié");
+            pathStatusLabel.setForeground(Color.ORANGE.darker());
+        } else if (ClaudeSettings.isValidClaudePath(path)) {
+            pathStatusLabel.setText("Chemin valide");
+            pathStatusLabel.setForeground(new Color(0, 150, 0));
+        } else {
+            pathStatusLabel.setText("Fichier non trouvé ou non exécutable");
+            pathStatusLabel.setForeground(new Color(200, 0, 0));
+        }
+    }
+
+    public void load() {
+        ClaudeSettings settings = ClaudeSettings.getInstance();
+        claudePathField.setText(settings.getClaudePath());
+        maxTokensSpinner.setValue(settings.getMaxTokens());
+        maxConcurrentSpinner.setValue(settings.getMaxConcurrentRequests());
+        rateRequestsSpinner.setValue(settings.getRateRequests());
+        rateTokensSpinner.setValue(settings.getRateTokens());
+        rateWindowSpinner.setValue(settings.getRateWindowMinutes());
+        prefetchCheckBox.setSelected(settings.isPrefetchExplanations());
+        completionCheckBox.setSelected(settings.isInlineCompletion());
+        reviewCheckBox.setSelected(settings.isReviewOnSave());
+        showLastDiagnostic(EnvironmentDiagnostics.getInstance().getLastReport());
+    }
+
+    public void store() {
+        ClaudeSettings settings = ClaudeSettings.getInstance();
+        settings.setClaudePath(claudePathField.getText().trim());
+        settings.setMaxTokens((Integer) maxTokensSpinner.getValue());
+        settings.setMaxConcurrentRequests((Integer) maxConcurrentSpinner.getValue());
+        settings.setRateRequests((Integer) rateRequestsSpinner.getValue());
+        settings.setRateTokens((Integer) rateTokensSpinner.getValue());
+        settings.setRateWindowMinutes((Integer) rateWindowSpinner.getValue());
+        settings.setPrefetchExplanations(prefetchCheckBox.isSelected());
+        settings.setInlineCompletion(completionCheckBox.isSelected());
+        settings.setReviewOnSave(reviewCheckBox.isSelected());
+
+        // Réinitialiser le client
+        ClaudeApiClient.getInstance().reinitialize();
+    }
+
+    public boolean valid() {
+        return true;
+    }
+
+    private void showPromptCacheStats() {
+        JTextArea area = new JTextArea(PromptCacheStats.getInstance().summary());
+        area.setEditable(false);
+        area.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        JOptionPane.showMessageDialog(this, new JScrollPane(area),
+                "Cache de prompt (depuis le démarrage)", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    /**
+     * Test chronométré hors de l'EDT; un second clic l'annule (et arrête le CLI).
+     */
+    private void testConnection() {
+        if (test != null) {
+            test.cancel(true);
+            return;
+        }
+
+        // Sauvegarder d'abord
+        store();
+
+        String claudePath = claudePathField.getText().trim();
+
+        if (claudePath.isEmpty()) {
+            showTestResult(false, "Chemin non configuré",
+                    "Veuillez spécifier le chemin vers Claude Code.");
+            return;
+        }
+
+        statusLabel.setText("Test en cours...");
+        statusLabel.setForeground(new Color(0, 100, 200));
+        testButton.setText("Annuler le test");
+
+        CompletableFuture<EnvironmentDiagnostics.Report> current = EnvironmentDiagnostics.getInstance()
+                .test(claudePath, ActiveProjectTracker.getInstance().getProjectDirectory());
+        test = current;
+        current.whenComplete((report, ex) -> SwingUtilities.invokeLater(() -> {
+            test = null;
+            testButton.setText("Tester la connexion");
+            if (current.isCancelled()) {
+                statusLabel.setText("Test annulé");
+                statusLabel.setForeground(Color.GRAY);
+                return;
+            }
+            if (ex != null) {
+                showTestResult(false, "Erreur", String.valueOf(ex.getMessage()));
+                return;
+            }
+            showLastDiagnostic(report);
+            String timings = "\n\nDurées:\n" + report.describeTimings();
+            if (report.isSuccess()) {
+                String response = report.getResponse();
+                showTestResult(true, "Connexion réussie!",
+                        "Claude Code fonctionne correctement.\n\n" +
+                        "Réponse: " + (response.length() > 100 ? response.substring(0, 100) + "..." : response)
+                        + timings);
+                return;
+            }
+            String errorMsg = report.getError();
+            if (errorMsg.startsWith("Chemin invalide")) {
+                showTestResult(false, "Chemin invalide",
+                        "Le fichier spécifié n'existe pas ou n'est pas exécutable.\n\n" +
+                        "Chemin: " + claudePath);
+            } else if (errorMsg.contains("code 1") || errorMsg.contains("not logged in") || errorMsg.contains("login")
+                    || errorMsg.startsWith("Non connecté")) {
+                showTestResult(false, "Non connecté",
+                        "Claude Code n'est pas connecté à votre compte.\n\n" +
+                        "Ouvrez un terminal et exécutez:\n" +
+                        "claude\n\n" +
+                        "Puis suivez les instructions pour vous connecter." + timings);
+            } else if (errorMsg.contains("No such file") || errorMsg.contains("not found")) {
+                showTestResult(false, "Exécutable non trouvé",
+                        "Le fichier Claude Code n'existe pas à ce chemin.\n\n" +
+                        "Utilisez le bouton 'Détecter' ou 'Parcourir' pour trouver claude.");
+            } else if (errorMsg.contains("Permission denied")) {
+                showTestResult(false, "Permission refusée",
+                        "Le fichier n'est pas exécutable.\n\n" +
+                        "Exécutez: chmod +x " + claudePath);
+            } else {
+                showTestResult(false, "Erreur", errorMsg + timings);
+            }
+        }));
+    }
+
+    private void showLastDiagnostic(EnvironmentDiagnostics.Report report) {
+        if (report == null) {
+            lastDiagnosticLabel.setText(" ");
+            lastDiagnosticLabel.setToolTipText(null);
+            return;
+        }
+        lastDiagnosticLabel.setText("Dernier test: " + report.summary());
+        lastDiagnosticLabel.setToolTipText("<html>" + report.describeTimings().replace("\n", "<br>") + "</html>");
+    }
+
+    /**
+     * Fermeture des options: les recherches et tests en cours n'ont plus de destinataire.
+     */
+    @Override
+    public void removeNotify() {
+        super.removeNotify();
+        if (detection != null) {
+            detection.cancel(true);
+        }
+        if (test != null) {
+            test.cancel(true);
+        }
+    }
+
+    private void showTestResult(boolean success, String shortMessage, String detailMessage) {
+        if (success) {
+            statusLabel.setText("OK " + shortMessage);
+            statusLabel.setForeground(new Color(0, 150, 0));
+            if (detailMessage != null) {
+                JOptionPane.showMessageDialog(this,
+                        detailMessage,
+                        "Test de connexion réussi",
+                        JOptionPane.INFORMATION_MESSAGE);
+            }
+        } else {
+            statusLabel.setText("Erreur: " + shortMessage);
+            statusLabel.setForeground(new Color(200, 0, 0));
+            if (detailMessage != null) {
+                JOptionPane.showMessageDialog(this,
+                        detailMessage,
+                        "Échec du test de connexion",
+                        JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.denis.claude.netbeans.ui;
+
+import com.denis.claude.netbeans.api.UsageStore;
+import org.openide.awt.ActionID;
+import org.openide.awt.ActionReference;
+import org.openide.util.NbBundle.Messages;
+import org.openide.windows.TopComponent;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Tableau de bord de la consommation du CLI: requêtes, durée, tokens et coût par action,
+ * par projet ou par jour, pour repérer les actions qui consomment le plus de quota et de temps.
+ */
+@TopComponent.Description(
+        preferredID = "ClaudeUsageTopComponent",
+        iconBase = "com/denis/claude/netbeans/claude-icon.png",
+        persistenceType = TopComponent.PERSISTENCE_NEVER
+)
+@TopComponent.Registration(
+        mode = "output",
+        openAtStartup = false
+)
+@ActionID(
+        category = "Window",
+        id = "com.denis.claude.netbeans.ui.UsageDashboardTopComponent"
+)
+@ActionReference(
+        path = "Menu/Window",
+        position = 340
+)
+@TopComponent.OpenActionRegistration(
+        displayName = "#CTL_UsageDashboardTopComponent",
+        preferredID = "ClaudeUsageTopComponent"
+)
+@Messages({
+        "CTL_UsageDashboardTopComponent=Consommation Claude",
+        "HINT_UsageDashboardTopComponent=Consommation du CLI Claude par action, projet et jour"
+})
+public final class UsageDashboardTopComponent extends TopComponent {
+
+    private static final int[] PERIODS = {1, 7, 30, 90};
+    private static final String[] PERIOD_LABELS = {"Aujourd'hui", "7 jours", "30 jours", "90 jours"};
+
+    private final JComboBox<String> periodCombo = new JComboBox<>(PERIOD_LABELS);
+    private final JComboBox<UsageStore.GroupBy> groupCombo = new JComboBox<>(UsageStore.GroupBy.values());
+    private final UsageTableModel model = new UsageTableModel();
+    private final JTable table = new JTable(model);
+    private final JLabel totalLabel = new JLabel(" ");
+
+    public UsageDashboardTopComponent() {
+        setName("Consommation Claude");
+        setToolTipText("Consommation du CLI Claude par action, projet et jour");
+        initComponents();
+    }
+
+    private void initComponents() {
+        setLayout(new BorderLayout());
+
+        periodCombo.setSelectedIndex(1);
+        periodCombo.addActionListener(e -> refresh());
+        groupCombo.addActionListener(e -> refresh());
+        JButton refreshButton = new JButton("Actualiser");
+        refreshButton.addActionListener(e -> refresh());
+
+        JPanel toolbar = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 2));
+        toolbar.add(new JLabel("Période:"));
+        toolbar.add(periodCombo);
+        toolbar.add(new JLabel("Regrouper par:"));
+        toolbar.add(groupCombo);
+        toolbar.add(refreshButton);
+
+        table.setAutoCreateRowSorter(true);
+        table.setFillsViewportHeight(true);
+        // Valeurs numériques dans le modèle (tri correct), mises en forme à l'affichage
+        table.setDefaultRenderer(Long.class, new FormattedRenderer(String::valueOf));
+        FormattedRenderer duration = new FormattedRenderer(value -> formatDuration((Long) value));
+        table.getColumnModel().getColumn(3).setCellRenderer(duration);
+        table.getColumnModel().getColumn(4).setCellRenderer(duration);
+        table.getColumnModel().getColumn(5).setCellRenderer(
+                new FormattedRenderer(value -> String.format("%.4f", (Double) value)));
+        table.getColumnModel().getColumn(7).setCellRenderer(
+                new FormattedRenderer(value -> String.format("%.0f %%", 100 * (Double) value)));
+        table.getColumnModel().getColumn(0).setPreferredWidth(200);
+
+        totalLabel.setBorder(BorderFactory.createEmptyBorder(4, 6, 4, 6));
+
+        add(toolbar, BorderLayout.NORTH);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(totalLabel, BorderLayout.SOUTH);
+    }
+
+    @Override
+    public void componentOpened() {
+        refresh();
+    }
+
+    @Override
+    protected void componentActivated() {
+        refresh();
+    }
+
+    private void refresh() {
+        int days = PERIODS[periodCombo.getSelectedIndex()];
+        UsageStore.GroupBy groupBy = (UsageStore.GroupBy) groupCombo.getSelectedItem();
+        List<UsageStore.Row> rows = UsageStore.getInstance().summarize(days, groupBy);
+        model.setRows(rows);
+        table.getColumnModel().getColumn(table.convertColumnIndexToView(0)).setHeaderValue(groupBy.toString());
+        table.getTableHeader().repaint();
+
+        long requests = 0;
+        long millis = 0;
+        double cost = 0;
+        for (UsageStore.Row row : rows) {
+            requests += row.getRequests();
+            millis += row.getDurationMillis();
+            cost += row.getCostUsd();
+        }
+        totalLabel.setText(String.format("Total: %d requête(s), %s d'attente, %.2f $", requests,
+                formatDuration(millis), cost));
+    }
+
+    private static String formatDuration(long millis) {
+        long seconds = millis / 1000;
+        if (seconds < 60) {
+            return String.format("%.1f s", millis / 1000.0);
+        }
+        if (seconds < 3600) {
+            return String.format("%d min %02d s", seconds / 60, seconds % 60);
+        }
+        return String.format("%d h %02d min", seconds / 3600, (seconds % 3600) / 60);
+    }
+
+    /**
+     * Aligné à droite, texte obtenu par {@code format}.
+     */
+    private static final class FormattedRenderer extends DefaultTableCellRenderer {
+
+        private final Function<Object, String> format;
+
+        FormattedRenderer(Function<Object, String> format) {
+            this.format = format;
+            setHorizontalAlignment(SwingConstants.RIGHT);
+        }
+
+        @Override
+        protected void setValue(Object value) {
+            setText(value == null ? "" : format.apply(value));
+        }
+    }
+
+    private static final class UsageTableModel extends AbstractTableModel {
+
+        private static final String[] COLUMNS = {"Action", "Requêtes", "Échecs", "Durée totale", "Durée moyenne",
+                "Coût ($)", "Tokens entrée", "Cache", "Tokens sortie"};
+
+        private List<UsageStore.Row> rows = new ArrayList<>();
+
+        void setRows(List<UsageStore.Row> rows) {
+            this.rows = rows;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            switch (column) {
+                case 0:
+                    return String.class;
+                case 5:
+                case 7:
+                    return Double.class;
+                default:
+                    return Long.class;
+            }
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int column) {
+            UsageStore.Row row = rows.get(rowIndex);
+            switch (column) {
+                case 0:
+                    return row.getKey();
+                case 1:
+                    return row.getRequests();
+                case 2:
+                    return row.getFailures();
+                case 3:
+                    return row.getDurationMillis();
+                case 4:
+                    return row.getAverageMillis();
+                case 5:
+                    return row.getCostUsd();
+                case 6:
+                    return row.getInputTokens();
+                case 7:
+                    return row.getCacheHitRate();
+                default:
+                    return row.getOutputTokens();
+            }
+        }
+    }
+}
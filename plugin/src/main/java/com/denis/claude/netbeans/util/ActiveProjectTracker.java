@@ -0,0 +1,101 @@
+package com.denis.claude.netbeans.util;
+
+import org.netbeans.api.project.Project;
+import org.netbeans.api.project.ui.OpenProjects;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+import org.openide.windows.TopComponent;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * Suit le projet actif à partir des événements de l'IDE (sélection, projets ouverts,
+ * projet principal) et le garde en cache: sa lecture est immédiate depuis n'importe
+ * quel thread, sans parcourir les nœuds sélectionnés à chaque requête.
+ * Le dernier projet sélectionné reste actif quand le focus passe à une fenêtre sans
+ * sélection de projet (chat Claude, Output...), tant qu'il est ouvert.
+ */
+public class ActiveProjectTracker implements PropertyChangeListener {
+
+    private static final File HOME = new File(System.getProperty("user.home"));
+
+    private static ActiveProjectTracker instance;
+
+    private volatile Project selectedProject;
+    private volatile Project project;
+    private volatile File directory = HOME;
+
+    private ActiveProjectTracker() {
+    }
+
+    public static synchronized ActiveProjectTracker getInstance() {
+        if (instance == null) {
+            instance = new ActiveProjectTracker();
+            TopComponent.getRegistry().addPropertyChangeListener(instance);
+            OpenProjects.getDefault().addPropertyChangeListener(instance);
+            instance.selectionChanged();
+        }
+        return instance;
+    }
+
+    /**
+     * Projet actif, ou null si aucun projet n'est ouvert.
+     */
+    public Project getProject() {
+        return project;
+    }
+
+    /**
+     * Répertoire du projet actif, ou le répertoire de l'utilisateur si aucun projet n'est ouvert.
+     */
+    public File getProjectDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void propertyChange(PropertyChangeEvent evt) {
+        String name = evt.getPropertyName();
+        if (TopComponent.Registry.PROP_ACTIVATED_NODES.equals(name)) {
+            selectionChanged();
+        } else if (OpenProjects.PROPERTY_OPEN_PROJECTS.equals(name)) {
+            Project selected = selectedProject;
+            if (selected != null && !Arrays.asList(OpenProjects.getDefault().getOpenProjects()).contains(selected)) {
+                selectedProject = null; // Projet fermé depuis
+            }
+            update();
+        } else if (OpenProjects.PROPERTY_MAIN_PROJECT.equals(name)) {
+            update();
+        }
+    }
+
+    private void selectionChanged() {
+        Project fromSelection = NetBeansProjectUtils.getProjectFromSelection();
+        if (fromSelection != null) {
+            selectedProject = fromSelection;
+        }
+        update();
+    }
+
+    private synchronized void update() {
+        OpenProjects openProjects = OpenProjects.getDefault();
+        Project candidate = selectedProject;
+        if (candidate == null) {
+            candidate = openProjects.getMainProject();
+        }
+        if (candidate == null) {
+            Project[] open = openProjects.getOpenProjects();
+            candidate = open.length > 0 ? open[0] : null;
+        }
+
+        File dir = null;
+        if (candidate != null) {
+            FileObject fo = candidate.getProjectDirectory();
+            dir = fo != null ? FileUtil.toFile(fo) : null;
+        }
+        project = candidate;
+        directory = dir != null ? dir : HOME;
+    }
+}
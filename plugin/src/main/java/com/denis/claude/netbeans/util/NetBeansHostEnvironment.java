@@ -0,0 +1,33 @@
+package com.denis.claude.netbeans.util;
+
+import java.io.File;
+import java.util.prefs.Preferences;
+import org.openide.modules.Places;
+import org.openide.util.NbPreferences;
+import org.openide.util.lookup.ServiceProvider;
+
+/**
+ * Hôte du cœur dans l'IDE: préférences du module, données sous le répertoire
+ * utilisateur de NetBeans, projet actif suivi par {@link ActiveProjectTracker}.
+ */
+@ServiceProvider(service = HostEnvironment.class)
+public class NetBeansHostEnvironment extends HostEnvironment {
+
+    private static final String ROOT = "var/claude";
+
+    @Override
+    public Preferences getPreferences(Class<?> owner) {
+        return NbPreferences.forModule(owner);
+    }
+
+    @Override
+    public File getStorageDirectory() {
+        File userDir = Places.getUserDirectory();
+        return userDir != null ? new File(userDir, ROOT) : super.getStorageDirectory();
+    }
+
+    @Override
+    public File getProjectDirectory() {
+        return ActiveProjectTracker.getInstance().getProjectDirectory();
+    }
+}
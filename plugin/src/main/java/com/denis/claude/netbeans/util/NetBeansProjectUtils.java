@@ -3,9 +3,7 @@ package com.denis.claude.netbeans.util;
 import java.io.File;
 import org.netbeans.api.project.Project;
 import org.netbeans.api.project.FileOwnerQuery;
-import org.netbeans.api.project.ui.OpenProjects;
 import org.openide.filesystems.FileObject;
-import org.openide.filesystems.FileUtil;
 import org.openide.loaders.DataObject;
 import org.openide.nodes.Node;
 import org.openide.windows.TopComponent;
@@ -17,48 +15,18 @@ public class NetBeansProjectUtils {
 
     /**
      * Récupère le répertoire du projet actif dans NetBeans.
-     * Essaie dans l'ordre:
-     * 1. Le projet du fichier sélectionné dans l'explorateur
-     * 2. Le projet principal (main project)
-     * 3. Le premier projet ouvert
-     * 4. Le répertoire home de l'utilisateur en fallback
+     * Dans l'ordre: le projet du dernier fichier sélectionné, le projet principal,
+     * le premier projet ouvert, et à défaut le répertoire home de l'utilisateur.
+     * Lecture immédiate depuis n'importe quel thread (voir {@link ActiveProjectTracker}).
      */
     public static File getActiveProjectDirectory() {
-        // 1. Essayer d'obtenir le projet depuis la sélection actuelle
-        Project selectedProject = getProjectFromSelection();
-        if (selectedProject != null) {
-            File dir = getProjectDir(selectedProject);
-            if (dir != null) {
-                return dir;
-            }
-        }
-
-        // 2. Essayer le projet principal
-        Project mainProject = OpenProjects.getDefault().getMainProject();
-        if (mainProject != null) {
-            File dir = getProjectDir(mainProject);
-            if (dir != null) {
-                return dir;
-            }
-        }
-
-        // 3. Essayer le premier projet ouvert
-        Project[] openProjects = OpenProjects.getDefault().getOpenProjects();
-        if (openProjects.length > 0) {
-            File dir = getProjectDir(openProjects[0]);
-            if (dir != null) {
-                return dir;
-            }
-        }
-
-        // 4. Fallback: répertoire home
-        return new File(System.getProperty("user.home"));
+        return ActiveProjectTracker.getInstance().getProjectDirectory();
     }
 
     /**
      * Récupère le projet depuis la sélection actuelle dans l'explorateur.
      */
-    private static Project getProjectFromSelection() {
+    static Project getProjectFromSelection() {
         try {
             // Obtenir le TopComponent actif (explorateur de fichiers, etc.)
             TopComponent tc = TopComponent.getRegistry().getActivated();
@@ -103,33 +71,18 @@ public class NetBeansProjectUtils {
     }
 
     /**
-     * Convertit un Project en File représentant son répertoire.
+     * Récupère le projet actif: celui de la sélection, sinon le projet principal,
+     * sinon le premier projet ouvert. Retourne null si aucun projet n'est ouvert.
      */
-    private static File getProjectDir(Project project) {
-        if (project == null) {
-            return null;
-        }
-        FileObject projectDir = project.getProjectDirectory();
-        if (projectDir != null) {
-            return FileUtil.toFile(projectDir);
-        }
-        return null;
+    public static Project getActiveProject() {
+        return ActiveProjectTracker.getInstance().getProject();
     }
 
     /**
      * Récupère le nom du projet actif.
      */
     public static String getActiveProjectName() {
-        Project project = getProjectFromSelection();
-        if (project == null) {
-            project = OpenProjects.getDefault().getMainProject();
-        }
-        if (project == null) {
-            Project[] openProjects = OpenProjects.getDefault().getOpenProjects();
-            if (openProjects.length > 0) {
-                project = openProjects[0];
-            }
-        }
+        Project project = getActiveProject();
         if (project != null) {
             return org.netbeans.api.project.ProjectUtils.getInformation(project).getDisplayName();
         }
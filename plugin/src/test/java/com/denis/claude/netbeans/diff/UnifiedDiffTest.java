@@ -0,0 +1,131 @@
+package com.denis.claude.netbeans.diff;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class UnifiedDiffTest {
+
+    /**
+     * Applique le diff comme l'action: remplacements dans l'ordre retourné par {@code plan}.
+     */
+    private static String apply(String response, String text) {
+        StringBuilder sb = new StringBuilder(text);
+        for (UnifiedDiff.Replacement r : UnifiedDiff.parse(response).plan(text)) {
+            sb.replace(r.getStart(), r.getEnd(), r.getText());
+        }
+        return sb.toString();
+    }
+
+    private static String lines(int from, int to) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = from; i <= to; i++) {
+            sb.append("ligne ").append(i).append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void appliesHunkAtAnnouncedLine() {
+        String diff = "@@ -2,3 +2,3 @@\n ligne 2\n-ligne 3\n+LIGNE 3\n ligne 4\n";
+        assertEquals("ligne 1\nligne 2\nLIGNE 3\nligne 4\nligne 5\n", apply(diff, lines(1, 5)));
+    }
+
+    @Test
+    void findsContextWhenLineNumbersDrift() {
+        String diff = "@@ -2,3 +2,3 @@\n ligne 12\n-ligne 13\n+LIGNE 13\n ligne 14\n";
+        String result = apply(diff, lines(1, 30));
+        assertEquals(lines(1, 12) + "LIGNE 13\n" + lines(14, 30), result);
+    }
+
+    @Test
+    void prefersMatchClosestToAnnouncedLine() {
+        String text = "a\nx\nb\n" + lines(1, 20) + "a\nx\nb\n";
+        String diff = "@@ -22,3 +22,3 @@\n a\n-x\n+y\n b\n";
+        assertEquals("a\nx\nb\n" + lines(1, 20) + "a\ny\nb\n", apply(diff, text));
+    }
+
+    @Test
+    void rejectsContextBeyondMaximumDrift() {
+        String diff = "@@ -1,2 +1,2 @@\n ligne 300\n-ligne 301\n+autre\n";
+        UnifiedDiff parsed = UnifiedDiff.parse(diff);
+        String text = lines(1, 400);
+        assertThrows(IllegalArgumentException.class, () -> parsed.plan(text));
+    }
+
+    @Test
+    void rejectsContextMissingFromDocument() {
+        UnifiedDiff parsed = UnifiedDiff.parse("@@ -1,1 +1,1 @@\n-absente\n+nouvelle\n");
+        assertThrows(IllegalArgumentException.class, () -> parsed.plan(lines(1, 5)));
+    }
+
+    @Test
+    void toleratesTrailingWhitespaceDifferences() {
+        String text = "ligne 1  \nligne 2\t\nligne 3\n";
+        String diff = "@@ -1,3 +1,3 @@\n ligne 1\n-ligne 2\n+LIGNE 2\n ligne 3\n";
+        assertEquals("ligne 1  \nLIGNE 2\nligne 3\n", apply(diff, text));
+    }
+
+    @Test
+    void keepsHunksInOrderWhenBothDrift() {
+        // Le même contexte apparaît deux fois: le second bloc doit viser la seconde occurrence
+        String text = "x\n" + lines(1, 10) + "x\n" + lines(11, 20);
+        String diff = "@@ -1,1 +1,1 @@\n-x\n+premier\n@@ -1,1 +1,1 @@\n-x\n+second\n";
+        assertEquals("premier\n" + lines(1, 10) + "second\n" + lines(11, 20), apply(diff, text));
+    }
+
+    @Test
+    void readsFencedResponseWithHeadersAndCrlf() {
+        String response = "Voici le diff:\r\n```diff\r\n--- a/A.java\r\n+++ b/A.java\r\n"
+                + "@@ -3,2 +3,3 @@\r\n ligne 3\r\n+ajout\r\n ligne 4\r\n```\r\nFin.\r\n"
+                + "```\r\n@@ -1 +1 @@\r\n-ligne 1\r\n+ignoré\r\n```\r\n";
+        UnifiedDiff diff = UnifiedDiff.parse(response);
+        assertEquals(1, diff.getHunks().size());
+        assertEquals(1, diff.getAddedLines());
+        assertEquals(0, diff.getRemovedLines());
+        assertEquals(lines(1, 3) + "ajout\n" + lines(4, 5), apply(response, lines(1, 5)));
+    }
+
+    @Test
+    void acceptsBlankContextWithoutLeadingSpace() {
+        String text = "a\n\nb\nc\n";
+        String diff = "@@ -1,4 +1,4 @@\n a\n\n b\n-c\n+C\n";
+        assertEquals("a\n\nb\nC\n", apply(diff, text));
+    }
+
+    @Test
+    void dropsUnannouncedTrailingBlankContext() {
+        String diff = "@@ -1,2 +1,2 @@\n-ligne 1\n+LIGNE 1\n ligne 2\n\n";
+        assertEquals("LIGNE 1\nligne 2\nligne 3\n", apply(diff, lines(1, 3)));
+    }
+
+    @Test
+    void insertsPureAdditionAfterAnnouncedLine() {
+        String diff = "@@ -2,0 +3,2 @@\n+a\n+b\n";
+        assertEquals("ligne 1\nligne 2\na\nb\nligne 3\n", apply(diff, lines(1, 3)));
+    }
+
+    @Test
+    void preservesMissingFinalNewline() {
+        String text = "ligne 1\nligne 2";
+        assertEquals("ligne 1\nLIGNE 2", apply("@@ -2 +2 @@\n-ligne 2\n+LIGNE 2\n", text));
+        assertEquals("ligne 1\nligne 2\nligne 3", apply("@@ -2,0 +3 @@\n+ligne 3\n", text));
+    }
+
+    @Test
+    void planListsReplacementsFromLastToFirst() {
+        String diff = "@@ -1 +1 @@\n-ligne 1\n+un\n@@ -5 +5 @@\n-ligne 5\n+cinq\n";
+        List<UnifiedDiff.Replacement> plan = UnifiedDiff.parse(diff).plan(lines(1, 5));
+        assertEquals(2, plan.size());
+        assertEquals("cinq\n", plan.get(0).getText());
+        assertEquals("un\n", plan.get(1).getText());
+    }
+
+    @Test
+    void rejectsResponseWithoutHunks() {
+        assertThrows(IllegalArgumentException.class, () -> UnifiedDiff.parse("Aucune modification nécessaire."));
+        assertThrows(IllegalArgumentException.class, () -> UnifiedDiff.parse("@@ -1 +1 @@\n ligne 1\n"));
+    }
+}